@@ -0,0 +1,371 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.remoting.VirtualChannel;
+import hudson.util.Secret;
+import io.jenkins.plugins.zoom.endpoint.CircuitBreaker;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoint;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoints;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import javax.net.ssl.SSLHandshakeException;
+import jenkins.model.Jenkins;
+import jenkins.security.MasterToSlaveCallable;
+import jenkins.util.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link NotifyClient} posting from the agent that ran the build, so the sockets and egress of the request are the
+ * agent's. The controller keeps the circuit breaker, rate limit and metrics of the webhook; the agent only runs the
+ * request, with the HTTP client of its JDK since the plugin's libraries are not on the agent.
+ * The controller transport is used instead when the agent is offline, the Jenkins proxy is selected, or the agent
+ * could not connect to a webhook in the last {@value #UNREACHABLE_MINUTES} minutes.
+ */
+@Slf4j
+public final class AgentNotifyClient implements NotifyClient {
+
+    static final int UNREACHABLE_MINUTES = 10;
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int RESPONSE_TIMEOUT = 30000;
+
+    /** Agents without a route to Zoom, with the time until which they are not asked again. */
+    private static final Map<String, Long> UNREACHABLE = new ConcurrentHashMap<>();
+
+    private final String node;
+
+    /** Transport of the controller, used when the agent cannot send. */
+    private final Supplier<NotifyClient> controller;
+
+    AgentNotifyClient(String node, Supplier<NotifyClient> controller) {
+        this.node = node;
+        this.controller = controller;
+    }
+
+    /**
+     * @param node name of the agent to send from, null or empty for the controller
+     * @return the client sending from the agent, or the transport selected in the global configuration
+     */
+    public static NotifyClient forNode(String node) {
+        return node == null || node.isEmpty() ? NotifyClient.get() : new AgentNotifyClient(node, NotifyClient::get);
+    }
+
+    @Override
+    public CompletableFuture<NotifyResult> send(
+            String url, Secret authToken, boolean jenkinsProxyUsed, Payload payload) {
+        VirtualChannel channel = jenkinsProxyUsed ? null : channel();
+        if (channel == null) {
+            return controller.get().send(url, authToken, jenkinsProxyUsed, payload);
+        }
+        log.info("Sending notification to URL: {} from agent {}", url, node);
+        if (!ZoomNotifyClient.isValidUrl(url)) {
+            log.error("Invalid URL provided: {}", url);
+            return CompletableFuture.completedFuture(NotifyResult.notSent("invalid URL"));
+        }
+        long start = System.nanoTime();
+        WebhookEndpoint endpoint = WebhookEndpoints.get(url);
+        CircuitBreaker circuitBreaker = endpoint.getCircuitBreaker();
+        long ticket = circuitBreaker.tryAcquire(System.currentTimeMillis());
+        if (ticket == CircuitBreaker.REJECTED) {
+            log.info("Notification failed fast for URL: {} (circuit {})", url, circuitBreaker.getState());
+            NotifyResult result =
+                    NotifyResult.circuitOpen(url, circuitBreaker.remainingOpenMillis(System.currentTimeMillis()));
+            ZoomNotifyClient.recordMetrics(endpoint, result, -1, -1, System.nanoTime() - start);
+            return CompletableFuture.completedFuture(result);
+        }
+        CompletableFuture<NotifyResult> future = new CompletableFuture<>();
+        Runnable post = () -> post(channel, url, authToken, payload, endpoint, ticket, start, future);
+        long wait = endpoint.getRateLimiter().reserve(System.nanoTime());
+        if (wait > 0) {
+            log.debug("Pacing notification to URL: {} by {} ms", url, TimeUnit.NANOSECONDS.toMillis(wait));
+            Timer.get().schedule(post, wait, TimeUnit.NANOSECONDS);
+        } else {
+            post.run();
+        }
+        return future;
+    }
+
+    /**
+     * Starts the request on the agent, which calls the outcome back when the response arrives, so no controller thread
+     * waits for it. If the agent cannot connect to the webhook, the attempt is handed to the controller transport and
+     * the agent is skipped for a while. If the request cannot even be started on the agent, the attempt fails as soon
+     * as the call returns instead of after the response timeout.
+     */
+    private void post(
+            VirtualChannel channel,
+            String url,
+            Secret authToken,
+            Payload payload,
+            WebhookEndpoint endpoint,
+            long ticket,
+            long start,
+            CompletableFuture<NotifyResult> future) {
+        long requestStart = System.nanoTime();
+        Outcome outcome = new Outcome();
+        try {
+            Callback callback = channel.export(Callback.class, outcome);
+            Future<Void> call = channel.callAsync(new Post(
+                    url, authToken == null ? null : authToken.getPlainText(), payload.toBytes(), callback));
+            Timer.get().execute(() -> failIfNotStarted(call, outcome));
+        } catch (IOException | RuntimeException e) {
+            outcome.failed(e instanceof IOException ? (IOException) e : new IOException(e));
+        }
+        // the agent may go offline before it calls back
+        outcome.orTimeout(CONNECT_TIMEOUT + RESPONSE_TIMEOUT, TimeUnit.MILLISECONDS)
+                .whenComplete((response, failure) -> {
+                    if (failure instanceof NoRouteException) {
+                        fallback(url, authToken, payload, endpoint, ticket, future, (NoRouteException) failure);
+                        return;
+                    }
+                    NotifyResult result;
+                    if (failure == null) {
+                        log.info("Response status: {} from agent {}", response.getStatus(), node);
+                        result = NotifyResult.response(
+                                response.getStatus(),
+                                NotifyResult.parseRetryAfter(
+                                        response.getRetryAfter(), System.currentTimeMillis()),
+                                ZoomNotifyClient.elapsedMillis(requestStart));
+                    } else {
+                        log.error("Failed to send notification to URL: {} from agent {}", url, node, failure);
+                        result = NotifyResult.failure(failure, ZoomNotifyClient.elapsedMillis(requestStart));
+                    }
+                    complete(url, endpoint, ticket, start, requestStart, result, future);
+                });
+    }
+
+    /**
+     * Waits for {@link Post#call()}, which returns once the request is started on the agent, and fails the outcome
+     * with the error of the call if it threw, or if the channel closed before it returned.
+     */
+    private static void failIfNotStarted(Future<Void> call, Outcome outcome) {
+        try {
+            call.get(CONNECT_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            outcome.failed(cause instanceof IOException ? (IOException) cause : new IOException(cause));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            // the outcome times out on its own
+        }
+    }
+
+    /**
+     * Sends the attempt from the controller instead. The attempt already holds its rate limit permit and circuit
+     * breaker call, which are given back first so the notification is not counted twice.
+     */
+    private void fallback(
+            String url,
+            Secret authToken,
+            Payload payload,
+            WebhookEndpoint endpoint,
+            long ticket,
+            CompletableFuture<NotifyResult> future,
+            NoRouteException e) {
+        log.warn(
+                "Agent {} cannot connect to {}, sending from the controller for the next {} minutes",
+                node,
+                url,
+                UNREACHABLE_MINUTES,
+                e);
+        UNREACHABLE.put(node, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(UNREACHABLE_MINUTES));
+        endpoint.getRateLimiter().cancel();
+        endpoint.getCircuitBreaker().release(ticket);
+        controller.get().send(url, authToken, false, payload).whenComplete((result, failure) -> {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        });
+    }
+
+    private void complete(
+            String url,
+            WebhookEndpoint endpoint,
+            long ticket,
+            long start,
+            long requestStart,
+            NotifyResult result,
+            CompletableFuture<NotifyResult> future) {
+        CircuitBreaker circuitBreaker = endpoint.getCircuitBreaker();
+        circuitBreaker.record(ticket, result, System.currentTimeMillis());
+        long end = System.nanoTime();
+        ZoomNotifyClient.recordMetrics(endpoint, result, -1, end - requestStart, end - start);
+        log.info(
+                "Notification {} for URL: {} (circuit {})",
+                result.isSuccess() ? "succeeded" : "failed",
+                url,
+                circuitBreaker.getState());
+        future.complete(result);
+    }
+
+    /**
+     * @return the channel of the agent, or null if it is offline or recently had no route to Zoom
+     */
+    private VirtualChannel channel() {
+        Long until = UNREACHABLE.get(node);
+        if (until != null) {
+            if (until > System.currentTimeMillis()) {
+                return null;
+            }
+            UNREACHABLE.remove(node, until);
+        }
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        Node agent = jenkins == null ? null : jenkins.getNode(node);
+        Computer computer = agent == null ? null : agent.toComputer();
+        return computer == null ? null : computer.getChannel();
+    }
+
+    /**
+     * Thrown on the agent when the request could not reach the webhook, so it is safe to send it again.
+     */
+    static final class NoRouteException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        NoRouteException(IOException cause) {
+            super(cause.toString(), cause);
+        }
+    }
+
+    /**
+     * Outcome of a {@link Post}, called back from the agent. The controller exports it to the agent with the request.
+     */
+    public interface Callback {
+        void completed(Post.Response response);
+
+        void failed(IOException failure);
+    }
+
+    /**
+     * The outcome of a {@link Post} as a future on the controller.
+     */
+    static final class Outcome extends CompletableFuture<Post.Response> implements Callback {
+        @Override
+        public void completed(Post.Response response) {
+            complete(response);
+        }
+
+        @Override
+        public void failed(IOException failure) {
+            completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * The request as run on the agent. It returns as soon as the request is started and calls the outcome back on a
+     * thread of the agent's HTTP client. Bodies are sent uncompressed, the gzip settings apply to the controller
+     * transports.
+     */
+    static final class Post extends MasterToSlaveCallable<Void, IOException> {
+        private static final long serialVersionUID = 1L;
+
+        private final String url;
+        private final String token;
+        private final byte[] body;
+        private final Callback callback;
+
+        Post(String url, String token, byte[] body, Callback callback) {
+            this.url = url;
+            this.token = token;
+            this.body = body;
+            this.callback = callback;
+        }
+
+        @Override
+        public Void call() {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofMillis(RESPONSE_TIMEOUT))
+                    .header("Content-Type", "application/json")
+                    .POST(
+                            body.length == 0
+                                    ? HttpRequest.BodyPublishers.noBody()
+                                    : HttpRequest.BodyPublishers.ofByteArray(body));
+            if (token != null && !token.isEmpty()) {
+                request.header("Authorization", token);
+            }
+            AgentHttpClient.INSTANCE
+                    .sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        try {
+                            if (failure == null) {
+                                callback.completed(new Response(
+                                        response.statusCode(),
+                                        response.headers()
+                                                .firstValue("Retry-After")
+                                                .orElse(null)));
+                            } else {
+                                callback.failed(toIOException(failure));
+                            }
+                        } catch (RuntimeException e) {
+                            // the controller is gone, it times the request out
+                        }
+                    });
+            return null;
+        }
+
+        /**
+         * @return the failure of the request, as a {@link NoRouteException} if it could not reach the webhook
+         */
+        static IOException toIOException(Throwable failure) {
+            Throwable cause =
+                    failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            if (cause instanceof ConnectException
+                    || cause instanceof HttpConnectTimeoutException
+                    || cause instanceof UnknownHostException
+                    || cause instanceof SSLHandshakeException) {
+                return new NoRouteException((IOException) cause);
+            }
+            return cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+
+        /**
+         * Status and {@code Retry-After} header of the response, sent back to the controller.
+         */
+        static final class Response implements Serializable {
+            private static final long serialVersionUID = 1L;
+
+            private final int status;
+            private final String retryAfter;
+
+            Response(int status, String retryAfter) {
+                this.status = status;
+                this.retryAfter = retryAfter;
+            }
+
+            int getStatus() {
+                return status;
+            }
+
+            String getRetryAfter() {
+                return retryAfter;
+            }
+        }
+    }
+
+    /**
+     * Client created on first use in the agent JVM and shared by the requests run there.
+     */
+    private static final class AgentHttpClient {
+        static final HttpClient INSTANCE = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT))
+                .build();
+    }
+}
@@ -0,0 +1,278 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.init.Terminator;
+import hudson.util.Secret;
+import io.jenkins.plugins.zoom.dispatch.NotificationDispatcher;
+import io.jenkins.plugins.zoom.endpoint.CircuitBreaker;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoint;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoints;
+import java.io.InterruptedIOException;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import jenkins.util.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+
+/**
+ * {@link NotifyClient} on the httpclient5 async client.
+ * A couple of I/O threads multiplex all requests, over HTTP/2 when the webhook negotiates it, so no thread waits for
+ * Zoom to answer. Notifications through the Jenkins proxy are still sent by the blocking {@link ZoomNotifyClient}.
+ */
+@Slf4j
+public final class AsyncNotifyClient implements NotifyClient {
+
+    private static final int IO_THREADS = Math.min(2, Runtime.getRuntime().availableProcessors());
+    private static final AsyncNotifyClient INSTANCE = new AsyncNotifyClient();
+
+    /** Started on first use, guarded by {@code this}. */
+    private CloseableHttpAsyncClient client;
+
+    /** Set by the shutdown, after which no client is started again. Guarded by {@code this}. */
+    private boolean closed;
+
+    /**
+     * Creates a client of its own, the plugin uses {@link #get()}.
+     */
+    AsyncNotifyClient() {}
+
+    public static AsyncNotifyClient get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public CompletableFuture<NotifyResult> send(
+            String url, Secret authToken, boolean jenkinsProxyUsed, Payload payload) {
+        String token = authToken == null ? null : authToken.getPlainText();
+        if (jenkinsProxyUsed) {
+            return CompletableFuture.completedFuture(ZoomNotifyClient.send(url, token, true, payload));
+        }
+        log.info("Sending notification to URL: {}", url);
+        if (!ZoomNotifyClient.isValidUrl(url)) {
+            log.error("Invalid URL provided: {}", url);
+            return CompletableFuture.completedFuture(NotifyResult.notSent("invalid URL"));
+        }
+        long start = System.nanoTime();
+        WebhookEndpoint endpoint = WebhookEndpoints.get(url);
+        CircuitBreaker circuitBreaker = endpoint.getCircuitBreaker();
+        long ticket = circuitBreaker.tryAcquire(System.currentTimeMillis());
+        if (ticket == CircuitBreaker.REJECTED) {
+            log.info("Notification failed fast for URL: {} (circuit {})", url, circuitBreaker.getState());
+            NotifyResult result =
+                    NotifyResult.circuitOpen(url, circuitBreaker.remainingOpenMillis(System.currentTimeMillis()));
+            ZoomNotifyClient.recordMetrics(endpoint, result, -1, -1, System.nanoTime() - start);
+            return CompletableFuture.completedFuture(result);
+        }
+        Attempt attempt = new Attempt(url, token, payload, endpoint, ticket, start);
+        attempt.gzip = ZoomNotifyClient.shouldCompress(endpoint, payload);
+        executePaced(attempt);
+        return attempt.future;
+    }
+
+    /**
+     * Executes an attempt once the rate limiter of its webhook gives a permit, on the Jenkins timer if it has to wait.
+     */
+    private void executePaced(Attempt attempt) {
+        long wait = attempt.endpoint.getRateLimiter().reserve(System.nanoTime());
+        if (wait > 0) {
+            log.debug("Pacing notification to URL: {} by {} ms", attempt.url, TimeUnit.NANOSECONDS.toMillis(wait));
+            Timer.get().schedule(() -> execute(attempt), wait, TimeUnit.NANOSECONDS);
+        } else {
+            execute(attempt);
+        }
+    }
+
+    /**
+     * Builds the request of an attempt. The async client needs the whole body, so a gzip body is compressed from the
+     * JSON bytes in memory.
+     */
+    private static SimpleHttpRequest createRequest(Attempt attempt) {
+        SimpleRequestBuilder builder = SimpleRequestBuilder.post(attempt.url)
+                .setHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
+        if (attempt.token != null && !attempt.token.isEmpty()) {
+            builder.setHeader(HttpHeaders.AUTHORIZATION, attempt.token);
+        }
+        if (attempt.gzip) {
+            byte[] body = attempt.payload.toGzipBytes();
+            attempt.compressedBytes = body.length;
+            builder.setHeader(HttpHeaders.CONTENT_ENCODING, GzipEntity.GZIP);
+            builder.setBody(body, ContentType.APPLICATION_JSON);
+        } else if (!attempt.payload.isEmpty()) {
+            builder.setBody(attempt.payload.toBytes(), ContentType.APPLICATION_JSON);
+        }
+        return builder.build();
+    }
+
+    private void execute(Attempt attempt) {
+        attempt.requestStart = System.nanoTime();
+        CloseableHttpAsyncClient running = client();
+        if (running == null) {
+            // a paced attempt or a connection test that comes after the shutdown
+            attempt.endpoint.getCircuitBreaker().release(attempt.ticket);
+            attempt.future.complete(NotifyResult.notSent("Jenkins is shutting down"));
+            return;
+        }
+        try {
+            running.execute(createRequest(attempt), HttpClientContext.create(), attempt);
+        } catch (RuntimeException e) {
+            attempt.failed(e);
+        }
+    }
+
+    /**
+     * @return the started client, or null once it was closed by the shutdown
+     */
+    private synchronized CloseableHttpAsyncClient client() {
+        if (closed) {
+            return null;
+        }
+        if (client == null) {
+            client = createClient();
+            client.start();
+        }
+        return client;
+    }
+
+    /**
+     * Creates the async client with the same trust settings and timeouts as the blocking one.
+     */
+    private static CloseableHttpAsyncClient createClient() {
+        TlsStrategy tlsStrategy;
+        try {
+            tlsStrategy = ClientTlsStrategyBuilder.create()
+                    .setSslContext(ZoomNotifyClient.sslContext())
+                    .setHostnameVerifier(NoopHostnameVerifier.INSTANCE)
+                    .build();
+        } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
+            log.error("Failed to create SSL context for the async HTTP client", e);
+            tlsStrategy = ClientTlsStrategyBuilder.create().useSystemProperties().build();
+        }
+        PoolingAsyncClientConnectionManager manager = ConnectionPools.newAsyncManager(
+                "Non-blocking",
+                tlsStrategy,
+                TlsConfig.custom().setVersionPolicy(HttpVersionPolicy.NEGOTIATE).build());
+        return HttpAsyncClients.custom()
+                .setConnectionManager(manager)
+                .setIOReactorConfig(
+                        IOReactorConfig.custom().setIoThreadCount(IO_THREADS).build())
+                .setDefaultRequestConfig(ZoomNotifyClient.createRequestConfig())
+                .build();
+    }
+
+    /**
+     * Closes the client once the dispatcher stopped handing it notifications.
+     */
+    @Terminator(requires = NotificationDispatcher.DISPATCHER_STOPPED)
+    public static void shutdown() {
+        INSTANCE.close();
+    }
+
+    /**
+     * Closes the client, letting requests in flight complete. Sends from now on complete as not sent.
+     */
+    void close() {
+        CloseableHttpAsyncClient closing;
+        synchronized (this) {
+            closing = client;
+            client = null;
+            closed = true;
+        }
+        if (closing != null) {
+            closing.close(CloseMode.GRACEFUL);
+        }
+    }
+
+    /**
+     * One request in flight, completing the future from the I/O thread.
+     */
+    private final class Attempt implements FutureCallback<SimpleHttpResponse> {
+        private final String url;
+        private final String token;
+        private final Payload payload;
+        private final WebhookEndpoint endpoint;
+        /** Circuit breaker ticket of the attempt. */
+        private final long ticket;
+        private final long start;
+        private final CompletableFuture<NotifyResult> future = new CompletableFuture<>();
+        private volatile long requestStart;
+        private volatile boolean gzip;
+        private volatile long compressedBytes;
+
+        Attempt(String url, String token, Payload payload, WebhookEndpoint endpoint, long ticket, long start) {
+            this.url = url;
+            this.token = token;
+            this.payload = payload;
+            this.endpoint = endpoint;
+            this.ticket = ticket;
+            this.start = start;
+        }
+
+        @Override
+        public void completed(SimpleHttpResponse response) {
+            log.info("Response status: {}, body: {}", response.getCode(), response.getBodyText());
+            Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+            NotifyResult result = NotifyResult.response(
+                    response.getCode(),
+                    NotifyResult.parseRetryAfter(
+                            retryAfter == null ? null : retryAfter.getValue(), System.currentTimeMillis()),
+                    ZoomNotifyClient.elapsedMillis(requestStart));
+            if (gzip) {
+                if (ZoomNotifyClient.rejectsGzip(response.getCode(), response.getBodyText())) {
+                    log.info(
+                            "Webhook {} answered HTTP {} to a gzip body, sending it uncompressed",
+                            url,
+                            result.getStatusCode());
+                    endpoint.rejectGzip();
+                    gzip = false;
+                    executePaced(this);
+                    return;
+                }
+                ZoomNotifyClient.recordCompressed(endpoint, payload.size(), compressedBytes);
+            }
+            complete(result);
+        }
+
+        @Override
+        public void failed(Exception e) {
+            log.error("Failed to send notification to URL: {}", url, e);
+            complete(NotifyResult.failure(e, ZoomNotifyClient.elapsedMillis(requestStart)));
+        }
+
+        @Override
+        public void cancelled() {
+            failed(new InterruptedIOException("Request cancelled"));
+        }
+
+        private void complete(NotifyResult result) {
+            CircuitBreaker circuitBreaker = endpoint.getCircuitBreaker();
+            circuitBreaker.record(ticket, result, System.currentTimeMillis());
+            long end = System.nanoTime();
+            ZoomNotifyClient.recordMetrics(endpoint, result, -1, end - requestStart, end - start);
+            log.info(
+                    "Notification {} for URL: {} (circuit {})",
+                    result.isSuccess() ? "succeeded" : "failed",
+                    url,
+                    circuitBreaker.getState());
+            future.complete(result);
+        }
+    }
+}
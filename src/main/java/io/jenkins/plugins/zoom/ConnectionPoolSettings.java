@@ -0,0 +1,123 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.util.FormValidation;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * Sizing and housekeeping of the pooled connections to the webhooks, shared by the direct, proxy and non-blocking
+ * clients. Each client has a pool of its own with these limits.
+ */
+public class ConnectionPoolSettings extends AbstractDescribableImpl<ConnectionPoolSettings> {
+
+    public static final int DEFAULT_MAX_TOTAL = 50;
+    public static final int DEFAULT_MAX_PER_ROUTE = 20;
+    public static final int DEFAULT_TIME_TO_LIVE_SECONDS = 300;
+    public static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 60;
+    public static final int DEFAULT_VALIDATE_AFTER_INACTIVITY_SECONDS = 2;
+
+    private int maxTotal = DEFAULT_MAX_TOTAL;
+    private int maxPerRoute = DEFAULT_MAX_PER_ROUTE;
+    private int timeToLiveSeconds = DEFAULT_TIME_TO_LIVE_SECONDS;
+    private int idleTimeoutSeconds = DEFAULT_IDLE_TIMEOUT_SECONDS;
+    private int validateAfterInactivitySeconds = DEFAULT_VALIDATE_AFTER_INACTIVITY_SECONDS;
+
+    @DataBoundConstructor
+    public ConnectionPoolSettings() {}
+
+    /**
+     * @return the lifetime and validation settings of each pooled connection
+     */
+    public ConnectionConfig toConnectionConfig() {
+        return ConnectionConfig.custom()
+                .setTimeToLive(secondsOrNever(getTimeToLiveSeconds()))
+                .setValidateAfterInactivity(secondsOrNever(getValidateAfterInactivitySeconds()))
+                .build();
+    }
+
+    /**
+     * @return the duration, or a negative one that httpclient reads as disabled if {@code seconds} is 0
+     */
+    private static TimeValue secondsOrNever(int seconds) {
+        return seconds > 0 ? TimeValue.ofSeconds(seconds) : TimeValue.NEG_ONE_SECOND;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal > 0 ? maxTotal : DEFAULT_MAX_TOTAL;
+    }
+
+    /**
+     * @return connections per webhook host, at most {@link #getMaxTotal()}
+     */
+    public int getMaxPerRoute() {
+        return Math.min(maxPerRoute > 0 ? maxPerRoute : DEFAULT_MAX_PER_ROUTE, getMaxTotal());
+    }
+
+    /**
+     * @return seconds after which a connection is closed instead of reused, 0 to keep it as long as the server does
+     */
+    public int getTimeToLiveSeconds() {
+        return timeToLiveSeconds >= 0 ? timeToLiveSeconds : DEFAULT_TIME_TO_LIVE_SECONDS;
+    }
+
+    /**
+     * @return seconds after which an unused connection is closed in the background, 0 to keep idle connections
+     */
+    public int getIdleTimeoutSeconds() {
+        return idleTimeoutSeconds >= 0 ? idleTimeoutSeconds : DEFAULT_IDLE_TIMEOUT_SECONDS;
+    }
+
+    /**
+     * @return seconds of inactivity after which a connection is checked before it is reused, 0 to never check
+     */
+    public int getValidateAfterInactivitySeconds() {
+        return validateAfterInactivitySeconds >= 0
+                ? validateAfterInactivitySeconds
+                : DEFAULT_VALIDATE_AFTER_INACTIVITY_SECONDS;
+    }
+
+    @DataBoundSetter
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    @DataBoundSetter
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    @DataBoundSetter
+    public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+        this.timeToLiveSeconds = timeToLiveSeconds;
+    }
+
+    @DataBoundSetter
+    public void setIdleTimeoutSeconds(int idleTimeoutSeconds) {
+        this.idleTimeoutSeconds = idleTimeoutSeconds;
+    }
+
+    @DataBoundSetter
+    public void setValidateAfterInactivitySeconds(int validateAfterInactivitySeconds) {
+        this.validateAfterInactivitySeconds = validateAfterInactivitySeconds;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<ConnectionPoolSettings> {
+        @Override
+        public String getDisplayName() {
+            return "Connection pool";
+        }
+
+        public FormValidation doCheckMaxPerRoute(@QueryParameter int value, @QueryParameter int maxTotal) {
+            return value <= maxTotal
+                    ? FormValidation.ok()
+                    : FormValidation.warning("Limited to the maximum number of connections");
+        }
+    }
+}
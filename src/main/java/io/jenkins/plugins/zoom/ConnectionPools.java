@@ -0,0 +1,323 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.Extension;
+import hudson.model.PeriodicWork;
+import io.jenkins.plugins.zoom.metrics.LatencyHistogram;
+import io.jenkins.plugins.zoom.metrics.ZoomMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import jenkins.model.Jenkins;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.client5.http.nio.AsyncConnectionEndpoint;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.config.Lookup;
+import org.apache.hc.core5.http.config.Registry;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Registry of the connection pools of the HTTP clients, sized from the {@link ConnectionPoolSettings}.
+ * The pools time how long requests wait to lease a connection, and a periodic task closes expired and idle
+ * connections so they are not found broken by the next notification.
+ */
+public final class ConnectionPools {
+
+    private static final long EVICTION_PERIOD_SECONDS = 10;
+    private static final List<Pool> POOLS = new CopyOnWriteArrayList<>();
+
+    private ConnectionPools() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Creates a pool for a blocking client, sized from the current settings.
+     *
+     * @param sslSocketFactory factory of the TLS connections
+     */
+    static PoolingHttpClientConnectionManager newManager(String name, SSLConnectionSocketFactory sslSocketFactory) {
+        TimedConnectionManager manager = new TimedConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register(URIScheme.HTTP.id, PlainConnectionSocketFactory.getSocketFactory())
+                        .register(URIScheme.HTTPS.id, sslSocketFactory)
+                        .build(),
+                new Pool(name));
+        manager.pool.bind(manager, manager::setDefaultConnectionConfig);
+        return manager;
+    }
+
+    /**
+     * Creates a pool for a non-blocking client, sized from the current settings.
+     */
+    static PoolingAsyncClientConnectionManager newAsyncManager(
+            String name, TlsStrategy tlsStrategy, TlsConfig tlsConfig) {
+        TimedAsyncConnectionManager manager = new TimedAsyncConnectionManager(
+                RegistryBuilder.<TlsStrategy>create()
+                        .register(URIScheme.HTTPS.id, tlsStrategy)
+                        .build(),
+                new Pool(name));
+        manager.setDefaultTlsConfig(tlsConfig);
+        manager.pool.bind(manager, manager::setDefaultConnectionConfig);
+        return manager;
+    }
+
+    /**
+     * @return the open pools, in creation order
+     */
+    public static List<Pool> all() {
+        return new ArrayList<>(POOLS);
+    }
+
+    /**
+     * Applies changed settings to the open pools. Connections already leased are not affected.
+     */
+    static void reconfigure(ZoomGlobalConfiguration config) {
+        for (Pool pool : POOLS) {
+            pool.apply(config.getConnectionPool(), config.getMaxConnectionsPerRoute());
+        }
+    }
+
+    /**
+     * Closes the expired connections, and the idle ones if the settings ask for it.
+     */
+    static void evict(ConnectionPoolSettings settings) {
+        for (Pool pool : POOLS) {
+            pool.evict(settings.getIdleTimeoutSeconds());
+        }
+    }
+
+    public static int getLeased() {
+        return POOLS.stream().mapToInt(Pool::getLeased).sum();
+    }
+
+    public static int getAvailable() {
+        return POOLS.stream().mapToInt(Pool::getAvailable).sum();
+    }
+
+    public static int getPending() {
+        return POOLS.stream().mapToInt(Pool::getPending).sum();
+    }
+
+    /**
+     * The global settings, or the defaults while Jenkins is not running.
+     */
+    static ConnectionPoolSettings settings() {
+        return Jenkins.getInstanceOrNull() == null
+                ? new ConnectionPoolSettings()
+                : ZoomGlobalConfiguration.get().getConnectionPool();
+    }
+
+    /**
+     * Connections per webhook host from the global settings, or the default while Jenkins is not running.
+     */
+    static int maxPerRoute() {
+        return Jenkins.getInstanceOrNull() == null
+                ? new ConnectionPoolSettings().getMaxPerRoute()
+                : ZoomGlobalConfiguration.get().getMaxConnectionsPerRoute();
+    }
+
+    /**
+     * One pool as shown on the management page.
+     */
+    public static final class Pool {
+        private final String name;
+        private final LatencyHistogram leaseWait = new LatencyHistogram();
+        private ConnPoolControl<HttpRoute> control;
+        private Consumer<ConnectionConfig> connectionConfig;
+
+        Pool(String name) {
+            this.name = name;
+        }
+
+        private void bind(ConnPoolControl<HttpRoute> control, Consumer<ConnectionConfig> connectionConfig) {
+            this.control = control;
+            this.connectionConfig = connectionConfig;
+            apply(settings(), maxPerRoute());
+            POOLS.add(this);
+        }
+
+        /**
+         * @param maxPerRoute connections per webhook host, which also raises the total if it is above it
+         */
+        private void apply(ConnectionPoolSettings settings, int maxPerRoute) {
+            control.setMaxTotal(Math.max(settings.getMaxTotal(), maxPerRoute));
+            control.setDefaultMaxPerRoute(maxPerRoute);
+            connectionConfig.accept(settings.toConnectionConfig());
+        }
+
+        private void evict(int idleTimeoutSeconds) {
+            control.closeExpired();
+            if (idleTimeoutSeconds > 0) {
+                control.closeIdle(TimeValue.ofSeconds(idleTimeoutSeconds));
+            }
+        }
+
+        private void recordLeaseWait(long nanos) {
+            leaseWait.recordNanos(nanos);
+            ZoomMetrics.get().getLeaseWait().recordNanos(nanos);
+        }
+
+        private void close() {
+            POOLS.remove(this);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getLeased() {
+            return stats().getLeased();
+        }
+
+        public int getAvailable() {
+            return stats().getAvailable();
+        }
+
+        public int getPending() {
+            return stats().getPending();
+        }
+
+        public int getMax() {
+            return stats().getMax();
+        }
+
+        /**
+         * @return time requests waited for a connection from this pool
+         */
+        public LatencyHistogram getLeaseWait() {
+            return leaseWait;
+        }
+
+        private PoolStats stats() {
+            return control.getTotalStats();
+        }
+    }
+
+    /**
+     * Blocking pool timing the wait for each lease.
+     */
+    private static final class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+        private final Pool pool;
+
+        TimedConnectionManager(Registry<ConnectionSocketFactory> registry, Pool pool) {
+            super(registry, PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO, TimeValue.NEG_ONE_MILLISECOND);
+            this.pool = pool;
+        }
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            LeaseRequest request = super.lease(id, route, requestTimeout, state);
+            return new LeaseRequest() {
+                @Override
+                public ConnectionEndpoint get(Timeout timeout)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return request.get(timeout);
+                    } finally {
+                        pool.recordLeaseWait(System.nanoTime() - start);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+
+        @Override
+        public void close(CloseMode closeMode) {
+            pool.close();
+            super.close(closeMode);
+        }
+    }
+
+    /**
+     * Non-blocking pool timing the wait for each lease.
+     */
+    private static final class TimedAsyncConnectionManager extends PoolingAsyncClientConnectionManager {
+        private final Pool pool;
+
+        TimedAsyncConnectionManager(Lookup<TlsStrategy> tlsStrategies, Pool pool) {
+            super(tlsStrategies, PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO, TimeValue.NEG_ONE_MILLISECOND);
+            this.pool = pool;
+        }
+
+        @Override
+        public Future<AsyncConnectionEndpoint> lease(
+                String id,
+                HttpRoute route,
+                Object state,
+                Timeout requestTimeout,
+                FutureCallback<AsyncConnectionEndpoint> callback) {
+            long start = System.nanoTime();
+            return super.lease(id, route, state, requestTimeout, new FutureCallback<AsyncConnectionEndpoint>() {
+                @Override
+                public void completed(AsyncConnectionEndpoint endpoint) {
+                    pool.recordLeaseWait(System.nanoTime() - start);
+                    if (callback != null) {
+                        callback.completed(endpoint);
+                    }
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    pool.recordLeaseWait(System.nanoTime() - start);
+                    if (callback != null) {
+                        callback.failed(e);
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    if (callback != null) {
+                        callback.cancelled();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void close(CloseMode closeMode) {
+            pool.close();
+            super.close(closeMode);
+        }
+    }
+
+    @Extension
+    public static class Evictor extends PeriodicWork {
+
+        @Override
+        public long getRecurrencePeriod() {
+            return TimeUnit.SECONDS.toMillis(EVICTION_PERIOD_SECONDS);
+        }
+
+        @Override
+        protected void doRun() {
+            evict(settings());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.model.ResultTrend;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Build events a webhook is notified about.
+ */
+public class EventFilter extends AbstractDescribableImpl<EventFilter> {
+
+    public static final int DEFAULT_REPEATED_FAILURE_INTERVAL = 1;
+
+    private boolean notifyStart;
+    private boolean notifySuccess;
+    private boolean notifyAborted;
+    private boolean notifyNotBuilt;
+    private boolean notifyUnstable;
+    private boolean notifyFailure;
+    private boolean notifyBackToNormal;
+    private boolean notifyRepeatedFailure;
+    private int repeatedFailureInterval = DEFAULT_REPEATED_FAILURE_INTERVAL;
+
+    @DataBoundConstructor
+    public EventFilter() {}
+
+    /**
+     * @return whether a finished build with this trend is notified
+     */
+    public boolean matches(ResultTrend trend) {
+        return matches(trend, 0);
+    }
+
+    /**
+     * @param failureStreak consecutive failed builds ending with this build, or 0 if unknown
+     * @return whether a finished build with this trend is notified, repeated failures only every
+     *     {@link #getRepeatedFailureInterval()} builds
+     */
+    public boolean matches(ResultTrend trend, int failureStreak) {
+        if (trend == ResultTrend.STILL_FAILING && failureStreak > 1) {
+            return notifyRepeatedFailure && (failureStreak - 2) % getRepeatedFailureInterval() == 0;
+        }
+        return matchesTrend(trend);
+    }
+
+    private boolean matchesTrend(ResultTrend trend) {
+        switch (trend) {
+            case ABORTED:
+                return notifyAborted;
+            case NOT_BUILT:
+                return notifyNotBuilt;
+            case FAILURE:
+                return notifyFailure;
+            case STILL_FAILING:
+                return notifyRepeatedFailure;
+            case NOW_UNSTABLE:
+            case STILL_UNSTABLE:
+            case UNSTABLE:
+                return notifyUnstable;
+            case SUCCESS:
+                return notifySuccess;
+            case FIXED:
+                return notifySuccess || notifyBackToNormal;
+            default:
+                return false;
+        }
+    }
+
+    public boolean isNotifyStart() {
+        return notifyStart;
+    }
+
+    public boolean isNotifySuccess() {
+        return notifySuccess;
+    }
+
+    public boolean isNotifyAborted() {
+        return notifyAborted;
+    }
+
+    public boolean isNotifyNotBuilt() {
+        return notifyNotBuilt;
+    }
+
+    public boolean isNotifyUnstable() {
+        return notifyUnstable;
+    }
+
+    public boolean isNotifyFailure() {
+        return notifyFailure;
+    }
+
+    public boolean isNotifyBackToNormal() {
+        return notifyBackToNormal;
+    }
+
+    public boolean isNotifyRepeatedFailure() {
+        return notifyRepeatedFailure;
+    }
+
+    public int getRepeatedFailureInterval() {
+        return repeatedFailureInterval > 0 ? repeatedFailureInterval : DEFAULT_REPEATED_FAILURE_INTERVAL;
+    }
+
+    @DataBoundSetter
+    public void setRepeatedFailureInterval(int repeatedFailureInterval) {
+        this.repeatedFailureInterval = repeatedFailureInterval;
+    }
+
+    @DataBoundSetter
+    public void setNotifyStart(boolean notifyStart) {
+        this.notifyStart = notifyStart;
+    }
+
+    @DataBoundSetter
+    public void setNotifySuccess(boolean notifySuccess) {
+        this.notifySuccess = notifySuccess;
+    }
+
+    @DataBoundSetter
+    public void setNotifyAborted(boolean notifyAborted) {
+        this.notifyAborted = notifyAborted;
+    }
+
+    @DataBoundSetter
+    public void setNotifyNotBuilt(boolean notifyNotBuilt) {
+        this.notifyNotBuilt = notifyNotBuilt;
+    }
+
+    @DataBoundSetter
+    public void setNotifyUnstable(boolean notifyUnstable) {
+        this.notifyUnstable = notifyUnstable;
+    }
+
+    @DataBoundSetter
+    public void setNotifyFailure(boolean notifyFailure) {
+        this.notifyFailure = notifyFailure;
+    }
+
+    @DataBoundSetter
+    public void setNotifyBackToNormal(boolean notifyBackToNormal) {
+        this.notifyBackToNormal = notifyBackToNormal;
+    }
+
+    @DataBoundSetter
+    public void setNotifyRepeatedFailure(boolean notifyRepeatedFailure) {
+        this.notifyRepeatedFailure = notifyRepeatedFailure;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<EventFilter> {
+        @Override
+        public String getDisplayName() {
+            return "Build events";
+        }
+    }
+}
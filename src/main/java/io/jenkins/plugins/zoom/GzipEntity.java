@@ -0,0 +1,117 @@
+package io.jenkins.plugins.zoom;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+/**
+ * Request entity that gzips another entity while it is written to the connection, so neither the JSON nor the
+ * compressed body is held in memory. The bytes written on both sides are counted for the compression metrics.
+ */
+class GzipEntity extends HttpEntityWrapper {
+
+    static final String GZIP = "gzip";
+    private static final int BUFFER_SIZE = 8192;
+
+    private long uncompressedBytes;
+    private long compressedBytes;
+    private boolean rejected;
+
+    GzipEntity(HttpEntity entity) {
+        super(entity);
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        CountingOutputStream compressed = new CountingOutputStream(outStream);
+        GZIPOutputStream gzip = new GZIPOutputStream(compressed, BUFFER_SIZE);
+        CountingOutputStream uncompressed = new CountingOutputStream(gzip);
+        super.writeTo(uncompressed);
+        // finish rather than close, the client closes the connection stream
+        gzip.finish();
+        uncompressedBytes = uncompressed.count;
+        compressedBytes = compressed.count;
+    }
+
+    /**
+     * Gzips the wrapped entity into memory, for interceptors and retry handling that read the body instead of writing
+     * it. Requests only use {@link #writeTo(OutputStream)}, and the compression metrics only count those writes.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUFFER_SIZE);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer, BUFFER_SIZE)) {
+            super.writeTo(gzip);
+        }
+        return new ByteArrayInputStream(buffer.toByteArray());
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return GZIP;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    /**
+     * Records that the webhook answered that it does not accept gzip bodies.
+     */
+    void reject() {
+        rejected = true;
+    }
+
+    /**
+     * @return whether the webhook refused the gzip body
+     */
+    boolean isRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return JSON bytes of the last write, 0 if the entity was not written
+     */
+    long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * @return gzip bytes of the last write, 0 if the entity was not written
+     */
+    long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.jenkins.plugins.zoom;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+/**
+ * Request entity that writes a report as UTF-8 JSON straight to the connection, without building a String first.
+ * The length is not known up front, so the body is sent chunked.
+ */
+class JsonStreamEntity extends AbstractHttpEntity {
+
+    private final Object report;
+
+    JsonStreamEntity(Object report) {
+        super(ContentType.APPLICATION_JSON, null, true);
+        this.report = report;
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        try (JsonGenerator generator =
+                MessageBuilder.JSON_WRITER.getFactory().createGenerator(outStream, JsonEncoding.UTF8)) {
+            MessageBuilder.JSON_WRITER.writeValue(generator, report);
+        }
+    }
+
+    @Override
+    public InputStream getContent() {
+        return new ByteArrayInputStream(MessageBuilder.toJsonBytes(report));
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        // nothing to release, the report is serialized on demand
+    }
+}
@@ -1,17 +1,12 @@
 package io.jenkins.plugins.zoom;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import hudson.model.*;
-import hudson.scm.ChangeLogSet;
-import hudson.tasks.test.AbstractTestResultAction;
-import hudson.tasks.test.TestResult;
 import io.jenkins.plugins.zoom.model.BuildReport;
-import java.text.MessageFormat;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import io.jenkins.plugins.zoom.trend.ResultHistories;
 import lombok.extern.slf4j.Slf4j;
 import org.jenkinsci.plugins.displayurlapi.DisplayURLProvider;
 
@@ -20,13 +15,15 @@ public class MessageBuilder {
 
     private static final String STATUS_BACK_TO_NORMAL = "Back to normal";
     private static final String STATUS_STABLE = "Stable";
-    private static final Pattern aTag = Pattern.compile("(?i)<a([^>]+)>(.+?)</a>|(\\{)");
-    private static final Pattern href = Pattern.compile("\\s*(?i)href\\s*=\\s*(\"([^\"]*\")|'[^']*'|([^'\">\\s]+))");
     public static final String STATUS_MESSAGE_START = "Start";
     public static final String STATUS_MESSAGE_SUCCESS = "Success";
     public static final String STATUS_MESSAGE_FAILURE = "Failure";
     public static final String STATUS_MESSAGE_WORKFLOW = "Workflow";
 
+    /** Shared, thread-safe writer; generators must not close the connection stream they write to. */
+    static final ObjectWriter JSON_WRITER =
+            new ObjectMapper().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writer();
+
     private ZoomNotifier notifier;
     private Run run;
     private TaskListener listener;
@@ -40,57 +37,68 @@ public class MessageBuilder {
     }
 
     public String buildPipeMsg(String message) {
+        return toJson(pipeReport(message));
+    }
+
+    public BuildReport pipeReport(String message) {
         appendStatus(STATUS_MESSAGE_WORKFLOW);
         appendFullDisplayName();
         appendDisplayName();
         appendOpenLink();
         report.setSummary(message);
-        try {
-            return new ObjectMapper().writeValueAsString(report);
-        } catch (JsonProcessingException e) {
-            log.error("Error build json process", e);
-            e.printStackTrace();
-        }
-        return null;
+        return report;
     }
 
     public String prebuild() {
-        appendStatus(STATUS_MESSAGE_START);
-        appendFullDisplayName();
-        appendDisplayName();
-        appendOpenLink();
-        appendCause();
-        if (notifier.isIncludeCommitInfo()) {
-            appendChanges();
-        }
+        return toJson(prebuildReport());
+    }
+
+    public BuildReport prebuildReport() {
+        return capturePrebuild().render();
+    }
+
+    /**
+     * Captures what the start report needs, leaving the rendering to {@link ReportSnapshot#render()}.
+     */
+    public ReportSnapshot capturePrebuild() {
+        return ReportSnapshot.ofStart(notifier, run, listener);
+    }
+
+    public String build() {
+        return toJson(buildReport());
+    }
+
+    public BuildReport buildReport() {
+        return captureBuild().render();
+    }
+
+    /**
+     * Captures what the build report needs, leaving the rendering to {@link ReportSnapshot#render()}.
+     */
+    public ReportSnapshot captureBuild() {
+        return ReportSnapshot.ofCompleted(notifier, run, listener, getBuildResult(), getBuildSummary());
+    }
+
+    /**
+     * Serializes a report into the JSON payload sent to Zoom.
+     */
+    public static String toJson(Object report) {
         try {
-            return new ObjectMapper().writeValueAsString(report);
+            return JSON_WRITER.writeValueAsString(report);
         } catch (JsonProcessingException e) {
             log.error("Error build json process", e);
-            e.printStackTrace();
         }
         return null;
     }
 
-    public String build() {
-        appendFullDisplayName();
-        appendDisplayName();
-        appendOpenLink();
-        appendCause();
-        appendDuration();
-        appendStatus(getBuildResult());
-        appendBuildSummary();
-        if (notifier.isIncludeTestSummary()) {
-            appendTestSummary();
-        }
-        if (notifier.isIncludeFailedTests()) {
-            appendFailedTests();
-        }
+    /**
+     * Serializes a report into UTF-8 JSON bytes, without an intermediate String.
+     */
+    static byte[] toJsonBytes(Object report) {
         try {
-            return new ObjectMapper().writeValueAsString(report);
+            return JSON_WRITER.writeValueAsBytes(report);
         } catch (JsonProcessingException e) {
             log.error("Error build json process", e);
-            e.printStackTrace();
         }
         return null;
     }
@@ -113,7 +121,7 @@ public class MessageBuilder {
     }
 
     private String getBuildResult() {
-        ResultTrend trend = ResultTrend.getResultTrend(this.run);
+        ResultTrend trend = ResultHistories.trendOf(this.run);
         if (trend == ResultTrend.SUCCESS || trend == ResultTrend.FIXED) {
             return STATUS_MESSAGE_SUCCESS;
         } else {
@@ -121,99 +129,157 @@ public class MessageBuilder {
         }
     }
 
-    private void appendBuildSummary() {
+    private String getBuildSummary() {
         String buildStatus = run.getBuildStatusSummary().message;
         if (STATUS_BACK_TO_NORMAL.equals(buildStatus) && !this.notifier.isNotifyBackToNormal()) {
-            report.setSummary(this.escape(STATUS_STABLE));
-        } else {
-            report.setSummary(this.escape(buildStatus));
+            return STATUS_STABLE;
         }
+        return buildStatus;
     }
 
-    private void appendCause() {
-        CauseAction causeAction = run.getAction(CauseAction.class);
-        if (causeAction != null) {
-            report.setCause(this.escape(causeAction.getCauses().get(0).getShortDescription()));
-        }
+    /**
+     * Turns HTML anchors into Zoom {@code <url|text>} links and escapes {@code &}, {@code <} and {@code >}
+     * everywhere else, in a single pass over the string.
+     */
+    public String escape(String string) {
+        return escapeText(string);
     }
 
-    private void appendDuration() {
-        report.setDuration(run.getDuration());
+    static String escapeText(String text) {
+        if (text == null) {
+            return null;
+        }
+        int length = text.length();
+        StringBuilder out = new StringBuilder(length + 16);
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '<') {
+                int end = appendAnchor(text, i, out);
+                if (end > 0) {
+                    i = end;
+                    continue;
+                }
+            }
+            appendEscaped(c, out);
+            i++;
+        }
+        return out.toString();
     }
 
-    private void appendChanges() {
-        report.initChanges();
-        if (this.run instanceof AbstractBuild) {
-            AbstractBuild build = (AbstractBuild) run;
-            ChangeLogSet changeSet = build.getChangeSet();
-            if (!build.hasChangeSetComputed() || changeSet == null || changeSet.getItems().length == 0) {
-                listener.getLogger().println("No commit changes");
-                log.info("No commit changes");
-                return;
+    /**
+     * Appends the anchor starting at {@code start}, as a link if it has an {@code href} or escaped otherwise.
+     * An anchor is {@code <a}, at least one attribute character, {@code >}, link text on one line and {@code </a>}.
+     *
+     * @return the index after the anchor, or -1 if there is no anchor at {@code start}
+     */
+    private static int appendAnchor(String text, int start, StringBuilder out) {
+        int length = text.length();
+        if (start + 2 >= length || (text.charAt(start + 1) | 0x20) != 'a') {
+            return -1;
+        }
+        int attributesStart = start + 2;
+        int attributesEnd = text.indexOf('>', attributesStart);
+        if (attributesEnd <= attributesStart) {
+            return -1;
+        }
+        int textStart = attributesEnd + 1;
+        int textEnd = -1;
+        for (int j = textStart; j < length; j++) {
+            if (j > textStart && text.regionMatches(true, j, "</a>", 0, 4)) {
+                textEnd = j;
+                break;
             }
-            for (Object o : changeSet.getItems()) {
-                ChangeLogSet.Entry entry = (ChangeLogSet.Entry) o;
-                report.addChange(entry);
+            if (isLineTerminator(text.charAt(j))) {
+                return -1;
             }
         }
+        if (textEnd < 0) {
+            return -1;
+        }
+        int end = textEnd + 4;
+        if (!appendHref(text, attributesStart, attributesEnd, out)) {
+            for (int j = start; j < end; j++) {
+                appendEscaped(text.charAt(j), out);
+            }
+            return end;
+        }
+        out.append('|').append(text, textStart, textEnd).append('>');
+        return end;
     }
 
-    private void appendTestSummary() {
-        report.initTestSummary();
-        AbstractTestResultAction<?> action = this.run.getAction(AbstractTestResultAction.class);
-        if (action != null) {
-            report.setTotalTest(action.getTotalCount());
-            report.setFailTest(action.getFailCount());
-            report.setSkipTest(action.getSkipCount());
-        } else {
-            listener.getLogger().println("No test action");
-            log.info("No test action");
+    /**
+     * Appends {@code <} and the first {@code href} value found in the attributes, without double quotes.
+     * Single quotes around the value are kept.
+     */
+    private static boolean appendHref(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i + 4 <= to; i++) {
+            if (!text.regionMatches(true, i, "href", 0, 4)) {
+                continue;
+            }
+            int j = skipWhitespace(text, i + 4, to);
+            if (j >= to || text.charAt(j) != '=') {
+                continue;
+            }
+            j = skipWhitespace(text, j + 1, to);
+            if (j >= to) {
+                continue;
+            }
+            char quote = text.charAt(j);
+            if (quote == '"' || quote == '\'') {
+                int close = text.indexOf(quote, j + 1);
+                if (close < 0 || close >= to) {
+                    continue;
+                }
+                out.append('<');
+                for (int k = j; k <= close; k++) {
+                    if (text.charAt(k) != '"') {
+                        out.append(text.charAt(k));
+                    }
+                }
+                return true;
+            }
+            int end = j;
+            while (end < to && !isHrefDelimiter(text.charAt(end))) {
+                end++;
+            }
+            if (end > j) {
+                out.append('<').append(text, j, end);
+                return true;
+            }
         }
+        return false;
     }
 
-    private void appendFailedTests() {
-        report.getTestSummary().initFailedResults();
-        AbstractTestResultAction<?> action = this.run.getAction(AbstractTestResultAction.class);
-        if (action != null && action.getFailCount() > 0) {
-            for (TestResult result : action.getFailedTests()) {
-                report.getTestSummary().addFailedTestResults(result);
-            }
+    private static void appendEscaped(char c, StringBuilder out) {
+        if (c == '<') {
+            out.append("&lt;");
+        } else if (c == '>') {
+            out.append("&gt;");
+        } else if (c == '&') {
+            out.append("&amp;");
         } else {
-            listener.getLogger().println("No failed tests");
-            log.info("No failed tests");
+            out.append(c);
         }
     }
 
-    private String[] extractReplaceLinks(Matcher aTag, StringBuffer sb) {
-        int size = 0;
-        List<String> links = new ArrayList<>();
-        while (aTag.find()) {
-            Matcher url = href.matcher(aTag.group(1));
-            if (url.find()) {
-                String escapeThis = aTag.group(3);
-                if (escapeThis != null) {
-                    aTag.appendReplacement(sb, String.format("{%s}", size++));
-                    links.add("{");
-                } else {
-                    aTag.appendReplacement(sb, String.format("{%s}", size++));
-                    links.add(String.format("<%s|%s>", url.group(1).replaceAll("\"", ""), aTag.group(2)));
-                }
-            }
+    private static int skipWhitespace(String text, int from, int to) {
+        int i = from;
+        while (i < to && isWhitespace(text.charAt(i))) {
+            i++;
         }
-        aTag.appendTail(sb);
-        return links.toArray(new String[size]);
+        return i;
     }
 
-    private String escapeCharacters(String string) {
-        string = string.replace("&", "&amp;");
-        string = string.replace("<", "&lt;");
-        string = string.replace(">", "&gt;");
-        return string;
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 
-    public String escape(String string) {
-        StringBuffer pattern = new StringBuffer();
-        String[] links = extractReplaceLinks(aTag.matcher(string), pattern);
-        return MessageFormat.format(escapeCharacters(pattern.toString()), links);
+    private static boolean isHrefDelimiter(char c) {
+        return c == '\'' || c == '"' || c == '>' || isWhitespace(c);
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 }
@@ -1,5 +1,30 @@
 package io.jenkins.plugins.zoom;
 
+import hudson.util.Secret;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport that delivers a payload to a Zoom webhook.
+ * Implementations apply the circuit breaker, rate limit and metrics of the webhook, and complete the future with the
+ * outcome of the attempt instead of failing it.
+ */
 public interface NotifyClient {
-    boolean notify(String message);
+
+    /**
+     * Sends one attempt of a notification.
+     *
+     * @param url              webhook URL
+     * @param authToken        authorization token, or null
+     * @param jenkinsProxyUsed whether to connect through the Jenkins proxy
+     * @param payload          JSON body
+     * @return completed with the outcome of the attempt
+     */
+    CompletableFuture<NotifyResult> send(String url, Secret authToken, boolean jenkinsProxyUsed, Payload payload);
+
+    /**
+     * @return the transport selected in the global configuration
+     */
+    static NotifyClient get() {
+        return ZoomGlobalConfiguration.get().getTransport().getClient();
+    }
 }
@@ -0,0 +1,117 @@
+package io.jenkins.plugins.zoom;
+
+import io.jenkins.plugins.zoom.endpoint.CircuitOpenException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import lombok.Getter;
+import org.apache.hc.client5.http.ConnectionRequestTimeoutException;
+import org.apache.hc.core5.http.HttpStatus;
+
+/**
+ * Outcome of one attempt to send a notification to Zoom.
+ */
+@Getter
+public final class NotifyResult {
+
+    /** Status code used when no HTTP response was received. */
+    public static final int NO_RESPONSE = -1;
+
+    private final int statusCode;
+    private final Throwable failure;
+    private final long retryAfterMillis;
+    private final long latencyMillis;
+    private final String detail;
+
+    private NotifyResult(int statusCode, Throwable failure, long retryAfterMillis, long latencyMillis, String detail) {
+        this.statusCode = statusCode;
+        this.failure = failure;
+        this.retryAfterMillis = retryAfterMillis;
+        this.latencyMillis = latencyMillis;
+        this.detail = detail;
+    }
+
+    /**
+     * Zoom answered with an HTTP response.
+     *
+     * @param retryAfterMillis delay requested by a {@code Retry-After} header, or -1
+     */
+    public static NotifyResult response(int statusCode, long retryAfterMillis, long latencyMillis) {
+        return new NotifyResult(statusCode, null, retryAfterMillis, latencyMillis, null);
+    }
+
+    /**
+     * Parses a {@code Retry-After} header given either as delay seconds or as an HTTP date.
+     *
+     * @return requested delay in milliseconds, or -1 if the header is missing or invalid
+     */
+    public static long parseRetryAfter(String value, long nowMillis) {
+        if (value == null || value.trim().isEmpty()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(trimmed) * 1000);
+        } catch (NumberFormatException e) {
+            // not delay seconds, try an HTTP date
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, date.toInstant().toEpochMilli() - nowMillis);
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * The request failed before a response was received.
+     */
+    public static NotifyResult failure(Throwable failure, long latencyMillis) {
+        return new NotifyResult(NO_RESPONSE, failure, -1, latencyMillis, null);
+    }
+
+    /**
+     * The request was not attempted because the circuit of the webhook is open.
+     *
+     * @param remainingOpenMillis time until the circuit lets a probe through
+     */
+    public static NotifyResult circuitOpen(String url, long remainingOpenMillis) {
+        return new NotifyResult(
+                NO_RESPONSE, new CircuitOpenException("Circuit open for " + url), remainingOpenMillis, 0, null);
+    }
+
+    /**
+     * The notification was never sent.
+     */
+    public static NotifyResult notSent(String detail) {
+        return new NotifyResult(NO_RESPONSE, null, -1, 0, detail);
+    }
+
+    public boolean isSuccess() {
+        return statusCode == HttpStatus.SC_OK;
+    }
+
+    public boolean isSent() {
+        return detail == null;
+    }
+
+    /**
+     * @return whether the request never left Jenkins because no pooled connection became free in time, which says
+     * nothing about the webhook
+     */
+    public boolean isLocalFailure() {
+        return failure instanceof ConnectionRequestTimeoutException;
+    }
+
+    @Override
+    public String toString() {
+        if (!isSent()) {
+            return "not sent: " + detail;
+        }
+        if (failure != null) {
+            return "failed (" + failure.getClass().getSimpleName() + ": " + failure.getMessage() + ", "
+                    + latencyMillis + " ms)";
+        }
+        return (isSuccess() ? "succeeded" : "failed") + " (HTTP " + statusCode + ", " + latencyMillis + " ms)";
+    }
+}
@@ -0,0 +1,129 @@
+package io.jenkins.plugins.zoom;
+
+import io.jenkins.plugins.zoom.endpoint.DedupWindow;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+
+/**
+ * JSON body of a notification, kept as the report object until something needs the serialized form.
+ * A report that is only sent is streamed into the request by a {@link JsonStreamEntity}.
+ */
+public final class Payload {
+
+    private final Object report;
+    private volatile byte[] json;
+    private volatile long size = -1;
+
+    private Payload(Object report, byte[] json) {
+        this.report = report;
+        this.json = json;
+    }
+
+    /**
+     * Wraps a report to be serialized with the shared {@link MessageBuilder} writer.
+     */
+    public static Payload of(Object report) {
+        return new Payload(report, null);
+    }
+
+    /**
+     * Wraps an already serialized JSON message.
+     */
+    public static Payload ofJson(String json) {
+        return new Payload(null, json == null ? null : json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Serializes the report once and keeps the UTF-8 bytes for later calls.
+     *
+     * @return the JSON bytes, or null if there is no message
+     */
+    public byte[] toBytes() {
+        byte[] bytes = json;
+        if (bytes == null && report != null) {
+            bytes = MessageBuilder.toJsonBytes(report);
+            json = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Creates the request entity, streaming the report unless it was serialized already.
+     *
+     * @return the entity, or null if there is no message
+     */
+    public HttpEntity toEntity() {
+        byte[] bytes = json;
+        if (bytes != null) {
+            return new ByteArrayEntity(bytes, ContentType.APPLICATION_JSON);
+        }
+        return report == null ? null : new JsonStreamEntity(report);
+    }
+
+    /**
+     * Counts the JSON bytes, without keeping them if the report was not serialized yet.
+     */
+    public long size() {
+        byte[] bytes = json;
+        if (bytes != null) {
+            return bytes.length;
+        }
+        long counted = size;
+        if (counted < 0) {
+            counted = report == null ? 0 : PayloadBudget.sizeOf(report);
+            size = counted;
+        }
+        return counted;
+    }
+
+    /**
+     * Hashes the JSON bytes for the dedup window. The report is serialized once for this and the bytes are kept, so
+     * the outbox and the request use them instead of serializing it again.
+     */
+    public long hash() {
+        byte[] bytes = toBytes();
+        return DedupWindow.hash(bytes == null ? new byte[0] : bytes);
+    }
+
+    /**
+     * @param threshold minimum size to compress, 0 to never compress
+     * @return whether the body is large enough to be sent with gzip
+     */
+    public boolean shouldCompress(int threshold) {
+        return threshold > 0 && !isEmpty() && size() >= threshold;
+    }
+
+    /**
+     * Gzips the JSON bytes, for clients that need the whole body up front.
+     */
+    public byte[] toGzipBytes() {
+        byte[] bytes = toBytes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            // not thrown by in-memory streams
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public boolean isEmpty() {
+        return report == null && (json == null || json.length == 0);
+    }
+
+    /**
+     * @return the JSON message, or null if there is no message
+     */
+    @Override
+    public String toString() {
+        byte[] bytes = toBytes();
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,265 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.tasks.test.TestResult;
+import io.jenkins.plugins.zoom.model.BuildReport;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Limits how many changes and failed tests go into a report, and how large its JSON may get.
+ * Items left out are counted in the "more" fields of the report.
+ */
+@Slf4j
+public class PayloadBudget extends AbstractDescribableImpl<PayloadBudget> {
+
+    public static final int DEFAULT_MAX_BYTES = 64 * 1024;
+    public static final int DEFAULT_MAX_CHANGES = 20;
+    public static final int DEFAULT_MAX_FILES_PER_CHANGE = 20;
+    public static final int DEFAULT_MAX_FAILED_TESTS = 20;
+
+    private static final Comparator<TestResult> BY_DURATION = Comparator.comparingDouble(TestResult::getDuration);
+    private static final Comparator<TestResult> BY_NAME = Comparator.comparing(TestResult::getFullDisplayName);
+
+    private int maxBytes = DEFAULT_MAX_BYTES;
+    private int maxChanges = DEFAULT_MAX_CHANGES;
+    private int maxFilesPerChange = DEFAULT_MAX_FILES_PER_CHANGE;
+    private int maxFailedTests = DEFAULT_MAX_FAILED_TESTS;
+    private FailedTestOrder failedTestOrder = FailedTestOrder.SLOWEST;
+
+    @DataBoundConstructor
+    public PayloadBudget() {}
+
+    /**
+     * Which failed tests are kept when there are more than the budget allows.
+     */
+    public enum FailedTestOrder {
+        SLOWEST("Slowest first"),
+        NAME("By name"),
+        REPORTED("As reported, without ranking");
+
+        private final String displayName;
+
+        FailedTestOrder(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * Picks the failed tests to report. Ranked orders keep the best candidates in a heap bounded by the budget,
+     * {@link FailedTestOrder#REPORTED} stops walking the results as soon as the budget is used up.
+     *
+     * @return the selected tests, best ranked first
+     */
+    public List<TestResult> selectFailedTests(Iterable<? extends TestResult> failedTests) {
+        switch (getFailedTestOrder()) {
+            case REPORTED:
+                return select(failedTests, null, getMaxFailedTests());
+            case NAME:
+                return select(failedTests, BY_NAME.reversed(), getMaxFailedTests());
+            case SLOWEST:
+            default:
+                return select(failedTests, BY_DURATION, getMaxFailedTests());
+        }
+    }
+
+    /**
+     * Keeps the {@code limit} highest ranked items, or the first ones if there is no ranking.
+     *
+     * @return the selected items, highest ranked first
+     */
+    static <T> List<T> select(Iterable<? extends T> items, Comparator<? super T> rank, int limit) {
+        if (rank == null) {
+            List<T> selected = new ArrayList<>(limit);
+            Iterator<? extends T> it = items.iterator();
+            while (selected.size() < limit && it.hasNext()) {
+                selected.add(it.next());
+            }
+            return selected;
+        }
+        // the head of the heap is the lowest kept item, replaced whenever a higher ranked one comes along
+        PriorityQueue<T> heap = new PriorityQueue<>(limit + 1, rank);
+        for (T item : items) {
+            if (heap.size() < limit) {
+                heap.add(item);
+            } else if (rank.compare(item, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<T> selected = new ArrayList<>(heap);
+        selected.sort(Collections.reverseOrder(rank));
+        return selected;
+    }
+
+    /**
+     * Shrinks the report until its JSON fits in the byte budget: fixed tests go first, then failed tests, then
+     * affected files, then the oldest changes.
+     */
+    public void fit(BuildReport report) {
+        long size = sizeOf(report);
+        while (size > getMaxBytes() && shrink(report)) {
+            size = sizeOf(report);
+        }
+        if (size > getMaxBytes()) {
+            log.warn("Zoom payload of {} bytes is over the budget of {} bytes", size, getMaxBytes());
+        }
+    }
+
+    private static boolean shrink(BuildReport report) {
+        BuildReport.TestSummary tests = report.getTestSummary();
+        if (tests != null && tests.getFixedResults() != null && !tests.getFixedResults().isEmpty()) {
+            Set<BuildReport.TestResult> fixed = tests.getFixedResults();
+            int keep = fixed.size() / 2;
+            tests.setFixedResults(keepFirst(fixed, keep));
+            tests.setMoreFixedResults(more(tests.getMoreFixedResults(), fixed.size() - keep));
+            return true;
+        }
+        if (tests != null && tests.getFailedResults() != null && !tests.getFailedResults().isEmpty()) {
+            Set<BuildReport.TestResult> failed = tests.getFailedResults();
+            int keep = failed.size() / 2;
+            tests.setFailedResults(keepFirst(failed, keep));
+            tests.setMoreFailedResults(more(tests.getMoreFailedResults(), failed.size() - keep));
+            return true;
+        }
+        Set<BuildReport.Change> changes = report.getChanges();
+        if (changes == null || changes.isEmpty()) {
+            return false;
+        }
+        boolean droppedFiles = false;
+        for (BuildReport.Change change : changes) {
+            if (!change.getFiles().isEmpty()) {
+                change.setMoreFiles(more(change.getMoreFiles(), change.getFiles().size()));
+                change.setFiles(new LinkedHashSet<>());
+                droppedFiles = true;
+            }
+        }
+        if (droppedFiles) {
+            return true;
+        }
+        // changes are in chronological order, keep the most recent half
+        int drop = (changes.size() + 1) / 2;
+        Set<BuildReport.Change> recent = new LinkedHashSet<>();
+        int index = 0;
+        for (BuildReport.Change change : changes) {
+            if (index++ >= drop) {
+                recent.add(change);
+            }
+        }
+        report.setChanges(recent);
+        report.setMoreChanges(more(report.getMoreChanges(), drop));
+        return true;
+    }
+
+    private static <T> Set<T> keepFirst(Set<T> items, int count) {
+        Set<T> kept = new LinkedHashSet<>();
+        for (T item : items) {
+            if (kept.size() >= count) {
+                break;
+            }
+            kept.add(item);
+        }
+        return kept;
+    }
+
+    private static Integer more(Integer current, int dropped) {
+        return (current == null ? 0 : current) + dropped;
+    }
+
+    /**
+     * Counts the JSON bytes of a report without keeping them.
+     */
+    static long sizeOf(Object report) {
+        ByteCounter counter = new ByteCounter();
+        try {
+            MessageBuilder.JSON_WRITER.writeValue(counter, report);
+        } catch (IOException e) {
+            log.error("Error build json process", e);
+        }
+        return counter.count;
+    }
+
+    public int getMaxBytes() {
+        return maxBytes > 0 ? maxBytes : DEFAULT_MAX_BYTES;
+    }
+
+    public int getMaxChanges() {
+        return maxChanges > 0 ? maxChanges : DEFAULT_MAX_CHANGES;
+    }
+
+    public int getMaxFilesPerChange() {
+        return maxFilesPerChange > 0 ? maxFilesPerChange : DEFAULT_MAX_FILES_PER_CHANGE;
+    }
+
+    public int getMaxFailedTests() {
+        return maxFailedTests > 0 ? maxFailedTests : DEFAULT_MAX_FAILED_TESTS;
+    }
+
+    public FailedTestOrder getFailedTestOrder() {
+        return failedTestOrder != null ? failedTestOrder : FailedTestOrder.SLOWEST;
+    }
+
+    @DataBoundSetter
+    public void setMaxBytes(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @DataBoundSetter
+    public void setMaxChanges(int maxChanges) {
+        this.maxChanges = maxChanges;
+    }
+
+    @DataBoundSetter
+    public void setMaxFilesPerChange(int maxFilesPerChange) {
+        this.maxFilesPerChange = maxFilesPerChange;
+    }
+
+    @DataBoundSetter
+    public void setMaxFailedTests(int maxFailedTests) {
+        this.maxFailedTests = maxFailedTests;
+    }
+
+    @DataBoundSetter
+    public void setFailedTestOrder(FailedTestOrder failedTestOrder) {
+        this.failedTestOrder = failedTestOrder;
+    }
+
+    private static final class ByteCounter extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<PayloadBudget> {
+        @Override
+        public String getDisplayName() {
+            return "Payload budget";
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.jenkins.plugins.zoom;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Semaphore whose number of permits follows a configured limit, also while permits are held.
+ * Lowering the limit below the permits held lets no one acquire until enough of them are released.
+ */
+public final class Permits extends Semaphore {
+    private static final long serialVersionUID = 1L;
+
+    private int limit;
+
+    public Permits() {
+        super(0);
+    }
+
+    public synchronized void resize(int newLimit) {
+        if (newLimit > limit) {
+            release(newLimit - limit);
+        } else if (newLimit < limit) {
+            reducePermits(limit - newLimit);
+        }
+        limit = newLimit;
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return permits held, at most the limit
+     */
+    public int getHeld() {
+        return Math.max(0, getLimit() - availablePermits());
+    }
+}
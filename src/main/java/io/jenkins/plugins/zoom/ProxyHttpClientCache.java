@@ -0,0 +1,202 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.ProxyConfiguration;
+import hudson.util.Secret;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.io.CloseMode;
+
+/**
+ * Keeps one long-lived pooled HTTP client for the Jenkins proxy, rebuilt only when the proxy configuration changes.
+ * Requests lease the client, and a replaced client is closed when the last request using it completes.
+ */
+@Slf4j
+final class ProxyHttpClientCache {
+
+    private static final int MAX_CACHED_HOSTS = 1024;
+
+    private static volatile Proxy current;
+
+    private ProxyHttpClientCache() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Leases the cached proxy for a request, which must {@link Proxy#release()} it once the response was read.
+     *
+     * @return null if the configuration does not define a usable proxy
+     */
+    static Proxy lease(ProxyConfiguration config, Function<ProxyConfiguration, CloseableHttpClient> clientFactory) {
+        while (true) {
+            Proxy proxy = get(config, clientFactory);
+            if (proxy == null || proxy.tryLease()) {
+                return proxy;
+            }
+            // replaced and closed since it was looked up
+        }
+    }
+
+    /**
+     * Returns the cached proxy for the configuration, creating a new client if the configuration changed.
+     *
+     * @return null if the configuration does not define a usable proxy
+     */
+    static Proxy get(ProxyConfiguration config, Function<ProxyConfiguration, CloseableHttpClient> clientFactory) {
+        if (config == null || config.name == null || config.name.isEmpty() || config.port <= 0) {
+            return null;
+        }
+        Fingerprint fingerprint = new Fingerprint(config);
+        Proxy proxy = current;
+        if (proxy != null && proxy.fingerprint.equals(fingerprint)) {
+            return proxy;
+        }
+        synchronized (ProxyHttpClientCache.class) {
+            proxy = current;
+            if (proxy != null && proxy.fingerprint.equals(fingerprint)) {
+                return proxy;
+            }
+            Proxy fresh = new Proxy(fingerprint, config, clientFactory.apply(config));
+            current = fresh;
+            if (proxy != null) {
+                log.info("Jenkins proxy configuration changed, replacing the pooled proxy client");
+                // the cache's own lease, the client is closed once the requests using it are done
+                proxy.release();
+            }
+            return fresh;
+        }
+    }
+
+    /**
+     * The settings a client is built from. The password is compared as a {@link Secret}, so its plain text is not
+     * kept or hashed here.
+     */
+    private static final class Fingerprint {
+        private final String name;
+        private final int port;
+        private final String userName;
+        private final Secret password;
+        private final String noProxyHost;
+
+        Fingerprint(ProxyConfiguration config) {
+            this.name = config.name;
+            this.port = config.port;
+            this.userName = config.getUserName();
+            this.password = config.getSecretPassword();
+            this.noProxyHost = config.getNoProxyHost();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint that = (Fingerprint) o;
+            return port == that.port
+                    && Objects.equals(name, that.name)
+                    && Objects.equals(userName, that.userName)
+                    && Objects.equals(password, that.password)
+                    && Objects.equals(noProxyHost, that.noProxyHost);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, port, userName, noProxyHost);
+        }
+    }
+
+    /**
+     * A pooled client for one proxy configuration, with the no-proxy decision cached per host.
+     */
+    static final class Proxy {
+        private final Fingerprint fingerprint;
+        private final String name;
+        private final int port;
+        private final List<Pattern> noProxyHostPatterns;
+        private final CloseableHttpClient client;
+        private final Map<String, Boolean> noProxyHosts = new ConcurrentHashMap<>();
+
+        /** Requests using the client, plus one while it is the cached client. The client is closed at zero. */
+        private final AtomicInteger leases = new AtomicInteger(1);
+
+        Proxy(Fingerprint fingerprint, ProxyConfiguration config, CloseableHttpClient client) {
+            this.fingerprint = fingerprint;
+            this.name = config.name;
+            this.port = config.port;
+            this.noProxyHostPatterns = config.getNoProxyHostPatterns();
+            this.client = client;
+        }
+
+        CloseableHttpClient getClient() {
+            return client;
+        }
+
+        /**
+         * @return false if the client was replaced and closed already
+         */
+        boolean tryLease() {
+            while (true) {
+                int current = leases.get();
+                if (current == 0) {
+                    return false;
+                }
+                if (leases.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Gives back a lease, closing the client if it was replaced and this was the last request using it.
+         */
+        void release() {
+            if (leases.decrementAndGet() == 0) {
+                log.debug("Closing the replaced proxy client for {}", this);
+                client.close(CloseMode.GRACEFUL);
+            }
+        }
+
+        /**
+         * Whether the URL's host matches one of the no-proxy patterns.
+         */
+        boolean isNoProxyHost(String url) {
+            if (url == null || noProxyHostPatterns == null || noProxyHostPatterns.isEmpty()) {
+                return false;
+            }
+            String host;
+            try {
+                host = new URL(url).getHost();
+            } catch (MalformedURLException e) {
+                log.error("Invalid URL: {}", url, e);
+                return false;
+            }
+            Boolean cached = noProxyHosts.get(host);
+            if (cached != null) {
+                return cached;
+            }
+            boolean matches = noProxyHostPatterns.stream()
+                    .anyMatch(pattern -> pattern.matcher(host).matches());
+            if (noProxyHosts.size() >= MAX_CACHED_HOSTS) {
+                noProxyHosts.clear();
+            }
+            noProxyHosts.put(host, matches);
+            return matches;
+        }
+
+        @Override
+        public String toString() {
+            return name + ":" + port;
+        }
+    }
+}
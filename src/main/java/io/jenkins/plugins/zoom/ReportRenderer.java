@@ -0,0 +1,215 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.zoom.dispatch.DropPolicy;
+import io.jenkins.plugins.zoom.metrics.ZoomMetrics;
+import io.jenkins.plugins.zoom.model.BuildReport;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Renders {@link ReportSnapshot captured reports} on a few background threads, so build steps only pay for the
+ * capture. Each job is rendered by the same thread in the order its reports were captured, which keeps the start and
+ * the end of a build, and the failed test deltas of consecutive builds, in order.
+ *
+ * <p>The renderer holds at most as many reports as the dispatcher queue, and applies the same {@link DropPolicy} when
+ * it is full: with {@link DropPolicy#CALLER_RUNS} the report is rendered on the build executor.
+ */
+@Slf4j
+public final class ReportRenderer {
+
+    public static final String REPORTS_RENDERED = "zoom-reports-rendered";
+
+    private static final ReportRenderer INSTANCE = new ReportRenderer();
+    private static final int LANES = 4;
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final ThreadLocal<Boolean> RENDERING = new ThreadLocal<>();
+
+    /** Single-threaded executors, a job always goes to the same one. */
+    private final ThreadPoolExecutor[] lanes = new ThreadPoolExecutor[LANES];
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Creates a renderer of its own, the plugin uses {@link #get()}.
+     */
+    ReportRenderer() {
+        NamingThreadFactory threads = new NamingThreadFactory(new DaemonThreadFactory(), "ZoomReportRenderer");
+        for (int i = 0; i < LANES; i++) {
+            lanes[i] = new ThreadPoolExecutor(
+                    1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threads);
+            lanes[i].allowCoreThreadTimeOut(true);
+        }
+    }
+
+    public static ReportRenderer get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return whether the current thread is a background rendering thread, which must not send notifications itself
+     *     but only queue them with {@link io.jenkins.plugins.zoom.dispatch.NotificationDispatcher#enqueue}
+     */
+    public static boolean isRendering() {
+        return RENDERING.get() != null;
+    }
+
+    /**
+     * Renders the report in the background and passes it to {@code then} on the rendering thread.
+     */
+    public void render(ReportSnapshot snapshot, Consumer<BuildReport> then) {
+        execute(snapshot.getJob(), snapshot.toString(), () -> {
+            long start = System.nanoTime();
+            BuildReport report = snapshot.render();
+            ZoomMetrics.get().getRendering().recordNanos(System.nanoTime() - start);
+            then.accept(report);
+        });
+    }
+
+    /**
+     * Runs a task in order with the reports of the same job captured before it.
+     *
+     * @param job         full name of the job
+     * @param description what the task does, for the log
+     */
+    public void execute(String job, String description, Runnable task) {
+        Task queued = new Task(description, task);
+        ThreadPoolExecutor lane = lanes[Math.floorMod(job.hashCode(), LANES)];
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        if (!reserve(config.getQueueCapacity())) {
+            DropPolicy policy = config.getDropPolicy();
+            if (policy == DropPolicy.CALLER_RUNS) {
+                log.warn("Zoom report queue is full, rendering {} on the calling thread", queued);
+                queued.run();
+                return;
+            }
+            Runnable oldest = policy == DropPolicy.DROP_OLDEST ? lane.getQueue().poll() : null;
+            dropped.incrementAndGet();
+            if (oldest == null) {
+                log.warn("Zoom report queue is full, dropping {}", queued);
+                return;
+            }
+            // the new task takes the place of the oldest one
+            log.warn("Zoom report queue is full, dropping {}", oldest);
+        }
+        try {
+            lane.execute(new Background(queued));
+        } catch (RejectedExecutionException e) {
+            // Jenkins is stopping
+            pending.decrementAndGet();
+            queued.run();
+        }
+    }
+
+    private boolean reserve(int capacity) {
+        while (true) {
+            int current = pending.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (pending.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return reports captured and not rendered yet
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * @return reports dropped because the queue was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Renders the captured reports before the digests are flushed and the dispatcher stops.
+     */
+    @Terminator(attains = REPORTS_RENDERED)
+    public static void shutdown() throws InterruptedException {
+        INSTANCE.close();
+    }
+
+    /**
+     * Renders the queued reports, waiting up to {@value #SHUTDOWN_TIMEOUT_SECONDS} seconds. Tasks executed from now on
+     * run on the calling thread.
+     */
+    void close() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        if (pending.get() > 0) {
+            log.warn("{} Zoom reports were not rendered before shutdown", pending.get());
+        }
+    }
+
+    /**
+     * A task on a rendering thread, where notifications are handed over but never sent.
+     */
+    private final class Background implements Runnable {
+        private final Task task;
+
+        Background(Task task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            RENDERING.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                RENDERING.remove();
+                pending.decrementAndGet();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+
+    private static final class Task implements Runnable {
+        private final String description;
+        private final Runnable body;
+
+        Task(String description, Runnable body) {
+            this.description = description;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            try {
+                body.run();
+            } catch (RuntimeException e) {
+                log.error("Failed to render or send {}", description, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
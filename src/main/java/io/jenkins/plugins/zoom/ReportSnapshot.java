@@ -0,0 +1,238 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.model.AbstractBuild;
+import hudson.model.CauseAction;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.scm.ChangeLogSet;
+import hudson.tasks.test.AbstractTestResultAction;
+import hudson.tasks.test.TestResult;
+import io.jenkins.plugins.zoom.model.BuildReport;
+import io.jenkins.plugins.zoom.trend.FailedTestDelta;
+import io.jenkins.plugins.zoom.trend.FailedTestIndex;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.jenkinsci.plugins.displayurlapi.DisplayURLProvider;
+
+/**
+ * What a build report needs from a build, captured on the build thread: names, counts and references only.
+ * {@link #render()} does the costly part, escaping, reading the changes and the failed tests, comparing them with
+ * the previous build and fitting the payload budget, and may run on any thread once the build step has returned.
+ */
+@Slf4j
+public final class ReportSnapshot {
+
+    private final Run<?, ?> run;
+    private final String job;
+    private final boolean completed;
+    private final String status;
+    private final String fullDisplayName;
+    private final String displayName;
+    private final String url;
+    private final String cause;
+    private final long duration;
+    private final String summary;
+    /** Change log entries in chronological order, or null if commit information is not included. */
+    private final Object[] changes;
+    private final AbstractTestResultAction<?> testAction;
+    private final boolean includeTestSummary;
+    private final boolean includeFailedTests;
+    private final boolean failedTestsDelta;
+
+    private ReportSnapshot(
+            Run<?, ?> run, boolean completed, String status, String summary, Object[] changes, ZoomNotifier notifier) {
+        this.run = run;
+        this.job = run.getParent().getFullName();
+        this.completed = completed;
+        this.status = status;
+        this.fullDisplayName = run.getFullDisplayName();
+        this.displayName = run.getDisplayName();
+        this.url = DisplayURLProvider.get().getRunURL(run);
+        CauseAction causeAction = run.getAction(CauseAction.class);
+        this.cause = causeAction == null ? null : causeAction.getCauses().get(0).getShortDescription();
+        this.duration = run.getDuration();
+        this.summary = summary;
+        this.changes = changes;
+        this.testAction = completed ? run.getAction(AbstractTestResultAction.class) : null;
+        this.includeTestSummary = completed && notifier.isIncludeTestSummary();
+        this.includeFailedTests = completed && notifier.isIncludeFailedTests();
+        this.failedTestsDelta = notifier.isFailedTestsDelta();
+    }
+
+    /**
+     * Captures the start of a build.
+     */
+    static ReportSnapshot ofStart(ZoomNotifier notifier, Run<?, ?> run, TaskListener listener) {
+        Object[] changes = notifier.isIncludeCommitInfo() ? changesOf(run, listener) : null;
+        return new ReportSnapshot(run, false, MessageBuilder.STATUS_MESSAGE_START, null, changes, notifier);
+    }
+
+    /**
+     * Captures a completed build.
+     *
+     * @param status  {@link MessageBuilder#STATUS_MESSAGE_SUCCESS} or {@link MessageBuilder#STATUS_MESSAGE_FAILURE}
+     * @param summary build status summary, before escaping
+     */
+    static ReportSnapshot ofCompleted(
+            ZoomNotifier notifier, Run<?, ?> run, TaskListener listener, String status, String summary) {
+        ReportSnapshot snapshot = new ReportSnapshot(run, true, status, summary, null, notifier);
+        if (snapshot.includeTestSummary && snapshot.testAction == null) {
+            listener.getLogger().println("No test action");
+        }
+        if (snapshot.includeFailedTests
+                && !snapshot.failedTestsDelta
+                && (snapshot.testAction == null || snapshot.testAction.getFailCount() == 0)) {
+            listener.getLogger().println("No failed tests");
+        }
+        return snapshot;
+    }
+
+    private static Object[] changesOf(Run<?, ?> run, TaskListener listener) {
+        if (!(run instanceof AbstractBuild)) {
+            return new Object[0];
+        }
+        AbstractBuild<?, ?> build = (AbstractBuild<?, ?>) run;
+        ChangeLogSet<?> changeSet = build.hasChangeSetComputed() ? build.getChangeSet() : null;
+        Object[] items = changeSet == null ? new Object[0] : changeSet.getItems();
+        if (items.length == 0) {
+            listener.getLogger().println("No commit changes");
+        }
+        return items;
+    }
+
+    /**
+     * Builds the report. Messages about missing information go to the system log, as the build log may be closed.
+     */
+    public BuildReport render() {
+        BuildReport report = new BuildReport();
+        report.setStatus(status);
+        report.setName(MessageBuilder.escapeText(fullDisplayName));
+        report.setNumber(MessageBuilder.escapeText(displayName));
+        report.setFullUrl(MessageBuilder.escapeText(url));
+        report.setCause(MessageBuilder.escapeText(cause));
+        if (changes != null) {
+            renderChanges(report);
+        }
+        if (completed) {
+            report.setDuration(duration);
+            report.setSummary(MessageBuilder.escapeText(summary));
+            if (includeTestSummary) {
+                renderTestSummary(report);
+            }
+            if (includeFailedTests) {
+                if (failedTestsDelta) {
+                    renderFailedTestDelta(report);
+                } else {
+                    renderFailedTests(report);
+                }
+            }
+        }
+        PayloadBudget budget = budget();
+        if (budget != null) {
+            budget.fit(report);
+        }
+        return report;
+    }
+
+    private void renderChanges(BuildReport report) {
+        report.initChanges();
+        if (changes.length == 0) {
+            log.info("No commit changes");
+            return;
+        }
+        // keep the most recent changes, the change set is in chronological order
+        PayloadBudget budget = budget();
+        int first = budget == null ? 0 : Math.max(0, changes.length - budget.getMaxChanges());
+        int maxFiles = budget == null ? Integer.MAX_VALUE : budget.getMaxFilesPerChange();
+        for (int i = first; i < changes.length; i++) {
+            report.addChange((ChangeLogSet.Entry) changes[i], maxFiles);
+        }
+        if (first > 0) {
+            report.setMoreChanges(first);
+        }
+    }
+
+    private void renderTestSummary(BuildReport report) {
+        report.initTestSummary();
+        if (testAction != null) {
+            report.setTotalTest(testAction.getTotalCount());
+            report.setFailTest(testAction.getFailCount());
+            report.setSkipTest(testAction.getSkipCount());
+        } else {
+            log.info("No test action");
+        }
+    }
+
+    private void renderFailedTests(BuildReport report) {
+        report.getTestSummary().initFailedResults();
+        if (testAction != null && testAction.getFailCount() > 0) {
+            List<TestResult> selected = selectTests(testAction.getFailedTests());
+            for (TestResult result : selected) {
+                report.getTestSummary().addFailedTestResults(result);
+            }
+            int more = testAction.getFailCount() - selected.size();
+            if (more > 0) {
+                report.getTestSummary().setMoreFailedResults(more);
+            }
+        } else {
+            log.info("No failed tests");
+        }
+    }
+
+    /**
+     * Lists the new failures and the fixed tests, and only counts the tests still failing since the previous build.
+     */
+    private void renderFailedTestDelta(BuildReport report) {
+        BuildReport.TestSummary tests = report.getTestSummary();
+        tests.initFailedResults();
+        FailedTestDelta<TestResult> delta = FailedTestIndex.record(run);
+        if (delta == null) {
+            log.info("No failed tests");
+            return;
+        }
+        List<TestResult> selected = selectTests(delta.getNewFailures());
+        for (TestResult result : selected) {
+            tests.addFailedTestResults(result);
+        }
+        int more = delta.getNewFailures().size() - selected.size();
+        if (more > 0) {
+            tests.setMoreFailedResults(more);
+        }
+        tests.setStillFailing(delta.getStillFailing());
+        if (delta.getFixedCount() > 0) {
+            tests.initFixedResults();
+            List<TestResult> fixed = selectTests(delta.getFixed());
+            for (TestResult result : fixed) {
+                tests.addFixedTestResults(result);
+            }
+            if (delta.getFixedCount() > fixed.size()) {
+                tests.setMoreFixedResults(delta.getFixedCount() - fixed.size());
+            }
+        }
+    }
+
+    /**
+     * @return the configured limits, or null if messages are sent whole
+     */
+    private static PayloadBudget budget() {
+        return ZoomGlobalConfiguration.get().getPayloadBudget();
+    }
+
+    private static List<TestResult> selectTests(List<? extends TestResult> tests) {
+        PayloadBudget budget = budget();
+        return budget == null ? new ArrayList<>(tests) : budget.selectFailedTests(tests);
+    }
+
+    /**
+     * @return full name of the job
+     */
+    public String getJob() {
+        return job;
+    }
+
+    @Override
+    public String toString() {
+        return "Zoom report of " + fullDisplayName + " (" + status + ")";
+    }
+}
@@ -0,0 +1,37 @@
+package io.jenkins.plugins.zoom;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link NotifyClient} implementations that can be selected in the global configuration.
+ */
+public enum Transport {
+    ASYNC("Non-blocking, HTTP/2 where available"),
+    BLOCKING("Blocking, one thread per request"),
+    VIRTUAL_THREADS("Blocking, on virtual threads where available");
+
+    private static final NotifyClient BLOCKING_CLIENT = (url, authToken, jenkinsProxyUsed, payload) ->
+            CompletableFuture.completedFuture(ZoomNotifyClient.send(url, authToken, jenkinsProxyUsed, payload));
+
+    private final String displayName;
+
+    Transport(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public NotifyClient getClient() {
+        switch (this) {
+            case ASYNC:
+                return AsyncNotifyClient.get();
+            case VIRTUAL_THREADS:
+                return VirtualThreadNotifyClient.get();
+            case BLOCKING:
+            default:
+                return BLOCKING_CLIENT;
+        }
+    }
+}
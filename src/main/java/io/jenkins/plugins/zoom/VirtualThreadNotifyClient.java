@@ -0,0 +1,196 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import hudson.util.Secret;
+import io.jenkins.plugins.zoom.dispatch.NotificationDispatcher;
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.ConnectionRequestTimeoutException;
+
+/**
+ * {@link NotifyClient} running each blocking send of the {@link ZoomNotifyClient} on a thread of its own, a virtual
+ * thread on Java 21 and later, so dispatcher workers are free while Zoom responds.
+ * The number of sends in flight is bounded by a semaphore sized from the global configuration rather than by a pool
+ * size, and the connection pools are raised to as many connections per webhook host while this transport is selected.
+ * Sends over the limit wait in a queue of the same size without holding a thread and start as running sends
+ * complete; sends beyond that fail as if no pooled connection became free in time.
+ */
+@Slf4j
+public final class VirtualThreadNotifyClient implements NotifyClient {
+
+    private static final VirtualThreadNotifyClient INSTANCE = new VirtualThreadNotifyClient();
+
+    private final Permits permits = new Permits();
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    /** Created on first use, guarded by {@code this}. */
+    private ExecutorService executor;
+
+    /** Set by the shutdown, after which no executor is created again. Guarded by {@code this}. */
+    private boolean closed;
+
+    private boolean virtual;
+
+    /**
+     * Creates a client of its own, the plugin uses {@link #get()}.
+     */
+    VirtualThreadNotifyClient() {}
+
+    public static VirtualThreadNotifyClient get() {
+        return INSTANCE;
+    }
+
+    @Override
+    public CompletableFuture<NotifyResult> send(
+            String url, Secret authToken, boolean jenkinsProxyUsed, Payload payload) {
+        if (isClosed()) {
+            return CompletableFuture.completedFuture(NotifyResult.notSent("Jenkins is shutting down"));
+        }
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        int limit = config.getMaxConcurrentSends();
+        permits.resize(limit);
+        CompletableFuture<NotifyResult> future = new CompletableFuture<>();
+        Runnable send = () -> {
+            try {
+                future.complete(ZoomNotifyClient.send(url, authToken, jenkinsProxyUsed, payload));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                permits.release();
+                startWaiting();
+            }
+        };
+        if (permits.tryAcquire()) {
+            start(send, future);
+        } else if (waitingCount.incrementAndGet() > limit) {
+            waitingCount.decrementAndGet();
+            log.warn("{} Zoom notifications are waiting to be sent, failing the one to URL: {}", limit, url);
+            future.complete(NotifyResult.failure(
+                    new ConnectionRequestTimeoutException("Too many notifications waiting to be sent"), 0));
+        } else {
+            waiting.add(() -> start(send, future));
+            // a permit may have been released before the send was queued
+            startWaiting();
+        }
+        return future;
+    }
+
+    /**
+     * Starts queued sends while permits are available.
+     */
+    private void startWaiting() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            waitingCount.decrementAndGet();
+            next.run();
+        }
+    }
+
+    private void start(Runnable send, CompletableFuture<NotifyResult> future) {
+        ExecutorService running = executor();
+        if (running != null) {
+            try {
+                running.execute(send);
+                return;
+            } catch (RejectedExecutionException e) {
+                // the executor was closed by a concurrent shutdown
+            }
+        }
+        permits.release();
+        future.complete(NotifyResult.notSent("Jenkins is shutting down"));
+    }
+
+    /**
+     * @return the executor, or null once it was closed by the shutdown
+     */
+    private synchronized ExecutorService executor() {
+        if (closed) {
+            return null;
+        }
+        if (executor == null) {
+            executor = createExecutor();
+        }
+        return executor;
+    }
+
+    /**
+     * Creates a virtual thread per task executor where the runtime supports it, looked up reflectively since the
+     * plugin is built for Java 17, and a cached pool of platform threads otherwise.
+     */
+    private ExecutorService createExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService created = (ExecutorService) factory.invoke(null);
+            virtual = true;
+            log.info("Sending Zoom notifications on virtual threads");
+            return created;
+        } catch (ReflectiveOperationException e) {
+            log.info(
+                    "Virtual threads are not available on Java {}, sending Zoom notifications on platform threads",
+                    System.getProperty("java.specification.version"));
+            return Executors.newCachedThreadPool(
+                    new NamingThreadFactory(new DaemonThreadFactory(), "ZoomNotificationSender"));
+        }
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return whether sends run on virtual threads, false also before the first send
+     */
+    public synchronized boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * @return sends holding a permit
+     */
+    public int getRunning() {
+        return permits.getHeld();
+    }
+
+    /**
+     * @return sends waiting for a permit
+     */
+    public int getWaiting() {
+        return waitingCount.get();
+    }
+
+    /**
+     * Stops the executor once the dispatcher stopped handing it notifications.
+     */
+    @Terminator(requires = NotificationDispatcher.DISPATCHER_STOPPED)
+    public static void shutdown() {
+        INSTANCE.close();
+    }
+
+    /**
+     * Stops the executor, letting running sends complete. Sends from now on complete as not sent.
+     */
+    void close() {
+        ExecutorService closing;
+        synchronized (this) {
+            closing = executor;
+            closed = true;
+        }
+        if (closing != null) {
+            closing.shutdown();
+        }
+    }
+}
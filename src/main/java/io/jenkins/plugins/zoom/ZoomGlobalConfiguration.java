@@ -0,0 +1,304 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.util.FormValidation;
+import io.jenkins.plugins.zoom.dispatch.DropPolicy;
+import io.jenkins.plugins.zoom.dispatch.RetryPolicy;
+import io.jenkins.plugins.zoom.endpoint.CircuitBreaker;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoints;
+import jenkins.model.GlobalConfiguration;
+import net.sf.json.JSONObject;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerRequest2;
+
+/**
+ * Plugin-wide settings for delivering Zoom notifications.
+ */
+@Symbol("zoom")
+@Extension
+public class ZoomGlobalConfiguration extends GlobalConfiguration {
+
+    public static final int DEFAULT_WORKER_THREADS = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    public static final int DEFAULT_CIRCUIT_WINDOW_SIZE = 20;
+    public static final int DEFAULT_CIRCUIT_MINIMUM_CALLS = 5;
+    public static final int DEFAULT_CIRCUIT_FAILURE_RATE = 50;
+    public static final int DEFAULT_CIRCUIT_OPEN_SECONDS = 30;
+    public static final double DEFAULT_RATE_LIMIT = 0;
+    public static final int DEFAULT_RATE_LIMIT_BURST = 10;
+    public static final int DEFAULT_DEDUP_WINDOW_SECONDS = 0;
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 0;
+    public static final int DEFAULT_MAX_CONCURRENT_SENDS = 1000;
+    public static final int DEFAULT_DEAD_LETTER_CAPACITY = 10000;
+
+    private Transport transport = Transport.ASYNC;
+    private int workerThreads = DEFAULT_WORKER_THREADS;
+    private int maxConcurrentSends = DEFAULT_MAX_CONCURRENT_SENDS;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private DropPolicy dropPolicy = DropPolicy.DROP_OLDEST;
+    private boolean outboxEnabled = true;
+    private int deadLetterCapacity = DEFAULT_DEAD_LETTER_CAPACITY;
+    private RetryPolicy retryPolicy = new RetryPolicy();
+    private PayloadBudget payloadBudget;
+    private ConnectionPoolSettings connectionPool = new ConnectionPoolSettings();
+    private int circuitWindowSize = DEFAULT_CIRCUIT_WINDOW_SIZE;
+    private int circuitMinimumCalls = DEFAULT_CIRCUIT_MINIMUM_CALLS;
+    private int circuitFailureRate = DEFAULT_CIRCUIT_FAILURE_RATE;
+    private int circuitOpenSeconds = DEFAULT_CIRCUIT_OPEN_SECONDS;
+    private double rateLimit = DEFAULT_RATE_LIMIT;
+    private int rateLimitBurst = DEFAULT_RATE_LIMIT_BURST;
+    private int dedupWindowSeconds = DEFAULT_DEDUP_WINDOW_SECONDS;
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+    public ZoomGlobalConfiguration() {
+        load();
+    }
+
+    public static ZoomGlobalConfiguration get() {
+        return ExtensionList.lookupSingleton(ZoomGlobalConfiguration.class);
+    }
+
+    /**
+     * Binds the whole form, then saves and applies the settings once.
+     */
+    @Override
+    public boolean configure(StaplerRequest2 req, JSONObject json) throws FormException {
+        req.bindJSON(this, json);
+        save();
+        return true;
+    }
+
+    /**
+     * Saves the settings and applies them to the webhook endpoints and the connection pools.
+     */
+    @Override
+    public synchronized void save() {
+        super.save();
+        WebhookEndpoints.reconfigure(this);
+        ConnectionPools.reconfigure(this);
+    }
+
+    public Transport getTransport() {
+        return transport != null ? transport : Transport.ASYNC;
+    }
+
+    /**
+     * @return seconds during which identical payloads to a webhook are suppressed, 0 to send all of them
+     */
+    public int getDedupWindowSeconds() {
+        return dedupWindowSeconds >= 0 ? dedupWindowSeconds : DEFAULT_DEDUP_WINDOW_SECONDS;
+    }
+
+    /**
+     * @return size in bytes from which bodies are sent with gzip, 0 to send all of them uncompressed
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold >= 0 ? compressionThreshold : DEFAULT_COMPRESSION_THRESHOLD;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads > 0 ? workerThreads : DEFAULT_WORKER_THREADS;
+    }
+
+    /**
+     * @return sends in flight at most with the virtual thread transport
+     */
+    public int getMaxConcurrentSends() {
+        return maxConcurrentSends > 0 ? maxConcurrentSends : DEFAULT_MAX_CONCURRENT_SENDS;
+    }
+
+    /**
+     * @return connections the pools keep per webhook host, raised to the concurrent sends with the virtual thread
+     * transport so that its sends do not wait for a connection
+     */
+    public int getMaxConnectionsPerRoute() {
+        int maxPerRoute = getConnectionPool().getMaxPerRoute();
+        return getTransport() == Transport.VIRTUAL_THREADS
+                ? Math.max(maxPerRoute, getMaxConcurrentSends())
+                : maxPerRoute;
+    }
+
+    /**
+     * @return sends the dispatcher keeps in flight at once, the concurrent sends of the virtual thread transport and
+     * otherwise the connections per webhook host for each worker
+     */
+    public int getMaxInFlight() {
+        return getTransport() == Transport.VIRTUAL_THREADS
+                ? getMaxConcurrentSends()
+                : getWorkerThreads() * getConnectionPool().getMaxPerRoute();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity > 0 ? queueCapacity : DEFAULT_QUEUE_CAPACITY;
+    }
+
+    public DropPolicy getDropPolicy() {
+        return dropPolicy != null ? dropPolicy : DropPolicy.DROP_OLDEST;
+    }
+
+    public boolean isOutboxEnabled() {
+        return outboxEnabled;
+    }
+
+    /**
+     * @return notifications given up on that are kept for replay, 0 to keep none
+     */
+    public int getDeadLetterCapacity() {
+        return deadLetterCapacity >= 0 ? deadLetterCapacity : DEFAULT_DEAD_LETTER_CAPACITY;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy != null ? retryPolicy : new RetryPolicy();
+    }
+
+    /**
+     * @return limits on the size of messages, or null to send them whole
+     */
+    public PayloadBudget getPayloadBudget() {
+        return payloadBudget;
+    }
+
+    public ConnectionPoolSettings getConnectionPool() {
+        return connectionPool != null ? connectionPool : new ConnectionPoolSettings();
+    }
+
+    public int getCircuitWindowSize() {
+        return circuitWindowSize > 0 ? circuitWindowSize : DEFAULT_CIRCUIT_WINDOW_SIZE;
+    }
+
+    public int getCircuitMinimumCalls() {
+        return circuitMinimumCalls > 0 ? circuitMinimumCalls : DEFAULT_CIRCUIT_MINIMUM_CALLS;
+    }
+
+    public int getCircuitFailureRate() {
+        return circuitFailureRate > 0 && circuitFailureRate <= 100 ? circuitFailureRate : DEFAULT_CIRCUIT_FAILURE_RATE;
+    }
+
+    public int getCircuitOpenSeconds() {
+        return circuitOpenSeconds > 0 ? circuitOpenSeconds : DEFAULT_CIRCUIT_OPEN_SECONDS;
+    }
+
+    public CircuitBreaker.Settings getCircuitBreakerSettings() {
+        return new CircuitBreaker.Settings(
+                getCircuitWindowSize(),
+                getCircuitMinimumCalls(),
+                getCircuitFailureRate(),
+                getCircuitOpenSeconds() * 1000L);
+    }
+
+    /**
+     * @return notifications per second allowed for each webhook, 0 for no limit
+     */
+    public double getRateLimit() {
+        return rateLimit >= 0 ? rateLimit : DEFAULT_RATE_LIMIT;
+    }
+
+    public int getRateLimitBurst() {
+        return rateLimitBurst > 0 ? rateLimitBurst : DEFAULT_RATE_LIMIT_BURST;
+    }
+
+    @DataBoundSetter
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    @DataBoundSetter
+    public void setDedupWindowSeconds(int dedupWindowSeconds) {
+        this.dedupWindowSeconds = dedupWindowSeconds;
+    }
+
+    @DataBoundSetter
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @DataBoundSetter
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    @DataBoundSetter
+    public void setMaxConcurrentSends(int maxConcurrentSends) {
+        this.maxConcurrentSends = maxConcurrentSends;
+    }
+
+    @DataBoundSetter
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    @DataBoundSetter
+    public void setDropPolicy(DropPolicy dropPolicy) {
+        this.dropPolicy = dropPolicy;
+    }
+
+    @DataBoundSetter
+    public void setOutboxEnabled(boolean outboxEnabled) {
+        this.outboxEnabled = outboxEnabled;
+    }
+
+    @DataBoundSetter
+    public void setDeadLetterCapacity(int deadLetterCapacity) {
+        this.deadLetterCapacity = deadLetterCapacity;
+    }
+
+    @DataBoundSetter
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    @DataBoundSetter
+    public void setPayloadBudget(PayloadBudget payloadBudget) {
+        this.payloadBudget = payloadBudget;
+    }
+
+    @DataBoundSetter
+    public void setConnectionPool(ConnectionPoolSettings connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    @DataBoundSetter
+    public void setCircuitWindowSize(int circuitWindowSize) {
+        this.circuitWindowSize = circuitWindowSize;
+    }
+
+    @DataBoundSetter
+    public void setCircuitMinimumCalls(int circuitMinimumCalls) {
+        this.circuitMinimumCalls = circuitMinimumCalls;
+    }
+
+    @DataBoundSetter
+    public void setCircuitFailureRate(int circuitFailureRate) {
+        this.circuitFailureRate = circuitFailureRate;
+    }
+
+    @DataBoundSetter
+    public void setCircuitOpenSeconds(int circuitOpenSeconds) {
+        this.circuitOpenSeconds = circuitOpenSeconds;
+    }
+
+    @DataBoundSetter
+    public void setRateLimit(double rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    @DataBoundSetter
+    public void setRateLimitBurst(int rateLimitBurst) {
+        this.rateLimitBurst = rateLimitBurst;
+    }
+
+    public FormValidation doCheckWorkerThreads(@QueryParameter int value) {
+        return value > 0 ? FormValidation.ok() : FormValidation.error("Must be a positive number");
+    }
+
+    public FormValidation doCheckMaxConcurrentSends(@QueryParameter int value) {
+        return value > 0 ? FormValidation.ok() : FormValidation.error("Must be a positive number");
+    }
+
+    public FormValidation doCheckQueueCapacity(@QueryParameter int value) {
+        return value > 0 ? FormValidation.ok() : FormValidation.error("Must be a positive number");
+    }
+}
@@ -0,0 +1,97 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import io.jenkins.plugins.zoom.dispatch.DeadLetterQueue;
+import io.jenkins.plugins.zoom.dispatch.NotificationDispatcher;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoint;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoints;
+import io.jenkins.plugins.zoom.metrics.LatencyHistogram;
+import io.jenkins.plugins.zoom.metrics.ZoomMetrics;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The "Zoom Notifications" page under "Manage Jenkins", showing the delivery state of every webhook.
+ */
+@Extension
+public class ZoomManagementLink extends ManagementLink {
+
+    @Override
+    public String getIconFileName() {
+        return "symbol-analytics";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Zoom Notifications";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Delivery state of Zoom notifications and of every webhook they are sent to.";
+    }
+
+    @Override
+    public String getUrlName() {
+        return "zoom";
+    }
+
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    public NotificationDispatcher getDispatcher() {
+        return NotificationDispatcher.get();
+    }
+
+    /**
+     * Plugin-wide latency histograms by label, in display order.
+     */
+    public Map<String, LatencyHistogram> getLatencies() {
+        ZoomMetrics metrics = ZoomMetrics.get();
+        Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+        latencies.put("Total send time", metrics.getAll().getTotal());
+        latencies.put("Connect", metrics.getAll().getConnect());
+        latencies.put("Request", metrics.getAll().getRequest());
+        latencies.put("Waiting in the queue", metrics.getQueueWait());
+        latencies.put("Build executor blocked", metrics.getExecutorBlocked());
+        latencies.put("Waiting for a connection", metrics.getLeaseWait());
+        latencies.put("Rendering reports", metrics.getRendering());
+        return latencies;
+    }
+
+    public Map<String, Long> getOutcomes() {
+        return ZoomMetrics.get().getAll().getOutcomes();
+    }
+
+    public long getSuppressed() {
+        return ZoomMetrics.get().getAll().getSuppressed();
+    }
+
+    public long getCompressed() {
+        return ZoomMetrics.get().getAll().getCompressed();
+    }
+
+    public long getBytesSaved() {
+        return ZoomMetrics.get().getAll().getBytesSaved();
+    }
+
+    public DeadLetterQueue getDeadLetters() {
+        return DeadLetterQueue.get();
+    }
+
+    public VirtualThreadNotifyClient getSenders() {
+        return VirtualThreadNotifyClient.get();
+    }
+
+    public List<ConnectionPools.Pool> getPools() {
+        return ConnectionPools.all();
+    }
+
+    public List<WebhookEndpoint> getEndpoints() {
+        return WebhookEndpoints.all();
+    }
+}
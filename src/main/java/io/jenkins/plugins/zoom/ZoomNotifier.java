@@ -2,6 +2,7 @@ package io.jenkins.plugins.zoom;
 
 import hudson.Extension;
 import hudson.Launcher;
+import hudson.Util;
 import hudson.model.*;
 import hudson.security.Permission;
 import hudson.tasks.BuildStepDescriptor;
@@ -10,6 +11,22 @@ import hudson.tasks.Notifier;
 import hudson.tasks.Publisher;
 import hudson.util.FormValidation;
 import hudson.util.Secret;
+import io.jenkins.plugins.zoom.dispatch.DigestAggregator;
+import io.jenkins.plugins.zoom.dispatch.DigestMode;
+import io.jenkins.plugins.zoom.dispatch.Notification;
+import io.jenkins.plugins.zoom.dispatch.NotificationDispatcher;
+import io.jenkins.plugins.zoom.dispatch.NotificationPriority;
+import io.jenkins.plugins.zoom.dispatch.RetryPolicy;
+import io.jenkins.plugins.zoom.metrics.ZoomMetrics;
+import io.jenkins.plugins.zoom.model.BuildReport;
+import io.jenkins.plugins.zoom.trend.FailedTestIndex;
+import io.jenkins.plugins.zoom.trend.ResultHistories;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import jenkins.model.Jenkins;
 import lombok.extern.slf4j.Slf4j;
 import org.jenkinsci.Symbol;
@@ -33,9 +50,15 @@ public class ZoomNotifier extends Notifier {
     private boolean notifyRegression;
     private boolean notifyBackToNormal;
     private boolean notifyRepeatedFailure;
+    private int repeatedFailureInterval = EventFilter.DEFAULT_REPEATED_FAILURE_INTERVAL;
     private boolean includeCommitInfo;
     private boolean includeTestSummary;
     private boolean includeFailedTests;
+    private boolean failedTestsDelta;
+    private boolean sendFromAgent;
+    private RetryPolicy retryPolicy;
+    private DigestMode digest;
+    private List<ZoomTarget> targets;
 
     @DataBoundConstructor
     public ZoomNotifier() {}
@@ -49,9 +72,10 @@ public class ZoomNotifier extends Notifier {
     public boolean prebuild(AbstractBuild<?, ?> build, BuildListener listener) {
         log.info("Prebuild: {}", build.getProject().getFullDisplayName());
         listener.getLogger().println("---------------------- Prebuild ----------------------");
-        if (notifyStart) {
+        List<ZoomTarget> selected = selectTargets(EventFilter::isNotifyStart);
+        if (!selected.isEmpty()) {
             MessageBuilder messageBuilder = new MessageBuilder(this, build, listener);
-            ZoomNotifyClient.notify(this.webhookUrl, this.authToken, this.jenkinsProxyUsed, messageBuilder.prebuild());
+            dispatch(messageBuilder::capturePrebuild, selected, build, listener, NotificationPriority.START);
         }
         return super.prebuild(build, listener);
     }
@@ -60,13 +84,143 @@ public class ZoomNotifier extends Notifier {
     public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) {
         log.info("Perform: {}", build.getProject().getFullDisplayName());
         listener.getLogger().println("---------------------- Perform ----------------------");
-        if (notifyPerform(build)) {
-            MessageBuilder messageBuilder = new MessageBuilder(this, build, listener);
-            ZoomNotifyClient.notify(this.webhookUrl, this.authToken, this.jenkinsProxyUsed, messageBuilder.build());
+        if (!build.isBuilding()) {
+            ResultTrend trend = ResultHistories.trendOf(build);
+            int failureStreak = trend == ResultTrend.STILL_FAILING ? ResultHistories.failureStreakOf(build) : 0;
+            List<ZoomTarget> selected = selectTargets(events -> events.matches(trend, failureStreak));
+            if (!selected.isEmpty()) {
+                MessageBuilder messageBuilder = new MessageBuilder(this, build, listener);
+                dispatch(messageBuilder::captureBuild, selected, build, listener, NotificationPriority.of(trend));
+            } else if (includeFailedTests && failedTestsDelta) {
+                // keep the index in step so the next report compares with this build
+                ReportRenderer.get()
+                        .execute(
+                                build.getParent().getFullName(),
+                                "failed test index of " + build.getFullDisplayName(),
+                                () -> FailedTestIndex.record(build));
+            }
         }
         return true;
     }
 
+    /**
+     * @return the main webhook and the additional targets whose events match
+     */
+    List<ZoomTarget> selectTargets(Predicate<EventFilter> event) {
+        EventFilter defaults = getEventFilter();
+        List<ZoomTarget> selected = new ArrayList<>();
+        if (Util.fixEmptyAndTrim(webhookUrl) != null || getTargets().isEmpty()) {
+            if (event.test(defaults)) {
+                selected.add(new ZoomTarget(webhookUrl, authToken, jenkinsProxyUsed, null));
+            }
+        }
+        for (ZoomTarget target : getTargets()) {
+            if (event.test(target.getEventsOrDefault(defaults))) {
+                selected.add(target);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @return the events of the main webhook, also used by targets without a filter of their own
+     */
+    EventFilter getEventFilter() {
+        EventFilter events = new EventFilter();
+        events.setNotifyStart(notifyStart);
+        events.setNotifySuccess(notifySuccess);
+        events.setNotifyAborted(notifyAborted);
+        events.setNotifyNotBuilt(notifyNotBuilt);
+        events.setNotifyUnstable(notifyUnstable);
+        events.setNotifyFailure(notifyFailure);
+        events.setNotifyBackToNormal(notifyBackToNormal);
+        events.setNotifyRepeatedFailure(notifyRepeatedFailure);
+        events.setRepeatedFailureInterval(repeatedFailureInterval);
+        return events;
+    }
+
+    /**
+     * Captures the report on the build thread and leaves the rendering to the {@link ReportRenderer}, which hands it
+     * to the {@link NotificationDispatcher} once per target so the executor is not held while sending, or to the
+     * {@link DigestAggregator} when digest mode is enabled.
+     *
+     * @param priority rank of the notifications in the dispatch queue
+     */
+    private void dispatch(
+            Supplier<ReportSnapshot> capture,
+            List<ZoomTarget> selected,
+            Run<?, ?> run,
+            TaskListener listener,
+            NotificationPriority priority) {
+        long start = System.nanoTime();
+        try {
+            ReportSnapshot snapshot = capture.get();
+            String source = run.getExternalizableId();
+            String agent = this.sendFromAgent && run instanceof AbstractBuild
+                    ? ((AbstractBuild<?, ?>) run).getBuiltOnStr()
+                    : null;
+            ReportRenderer.get().render(snapshot, report -> send(report, selected, source, agent, priority));
+            for (ZoomTarget target : selected) {
+                listener.getLogger()
+                        .println("Zoom notification to " + target
+                                + (this.digest == null ? " queued" : " queued for the digest of this webhook"));
+            }
+        } finally {
+            ZoomMetrics.get().getExecutorBlocked().recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Sends a rendered report to the selected targets. The report is serialized once and the targets are sent to
+     * concurrently by the dispatcher workers.
+     */
+    private void send(
+            BuildReport report, List<ZoomTarget> selected, String source, String agent, NotificationPriority priority) {
+        Payload payload = Payload.of(report);
+        if (selected.size() > 1 && this.digest == null) {
+            payload.toBytes();
+        }
+        for (ZoomTarget target : selected) {
+            dispatchOrAggregate(report, payload, target, source, agent, priority);
+        }
+    }
+
+    private void dispatchOrAggregate(
+            BuildReport report,
+            Payload payload,
+            ZoomTarget target,
+            String source,
+            String agent,
+            NotificationPriority priority) {
+        if (this.digest != null) {
+            DigestAggregator.get()
+                    .add(
+                            target.getWebhookUrl(),
+                            target.getAuthToken(),
+                            target.isJenkinsProxyUsed(),
+                            this.retryPolicy,
+                            this.digest,
+                            report);
+            log.info("Zoom notification of {} to {} added to the digest of this webhook", source, target);
+            return;
+        }
+        Notification notification = target.toNotification(payload, source, this.retryPolicy);
+        notification.setPriority(priority);
+        // the start of a build is the only notification with the start priority
+        notification.setKind(
+                priority == NotificationPriority.START
+                        ? Notification.Kind.BUILD_START
+                        : Notification.Kind.BUILD_RESULT);
+        notification.setAgent(agent);
+        // a report rendered in the background must not send on the rendering thread, which other jobs wait for
+        NotificationDispatcher dispatcher = NotificationDispatcher.get();
+        CompletableFuture<NotifyResult> sent = ReportRenderer.isRendering()
+                ? dispatcher.enqueue(notification)
+                : dispatcher.dispatch(notification);
+        NotifyResult result = sent.getNow(null);
+        log.info("Zoom notification of {} to {} {}", source, target, result == null ? "queued" : result);
+    }
+
     @Override
     public BuildStepMonitor getRequiredMonitorService() {
         return BuildStepMonitor.NONE;
@@ -77,35 +231,6 @@ public class ZoomNotifier extends Notifier {
         return true;
     }
 
-    private boolean notifyPerform(Run run) {
-        if (run.isBuilding()) {
-            return false;
-        }
-        ResultTrend trend = ResultTrend.getResultTrend(run);
-        switch (trend) {
-            case ABORTED:
-                return this.isNotifyAborted();
-            case NOT_BUILT:
-                return this.isNotifyNotBuilt();
-            case FAILURE:
-                return this.isNotifyFailure();
-            case STILL_FAILING:
-                return this.isNotifyRepeatedFailure();
-            case NOW_UNSTABLE:
-                return this.isNotifyUnstable();
-            case STILL_UNSTABLE:
-                return this.isNotifyUnstable();
-            case UNSTABLE:
-                return this.isNotifyUnstable();
-            case SUCCESS:
-                return this.isNotifySuccess();
-            case FIXED:
-                return this.isNotifySuccess() || this.isNotifyBackToNormal();
-            default:
-                return false;
-        }
-    }
-
     @Symbol("zoomNotifier")
     @Extension
     public static class DescriptorImpl extends BuildStepDescriptor<Publisher> {
@@ -126,7 +251,10 @@ public class ZoomNotifier extends Notifier {
                 @QueryParameter("authToken") final String authToken,
                 @QueryParameter("jenkinsProxyUsed") final boolean jenkinsProxyUsed) {
             Jenkins.get().checkPermission(Permission.CONFIGURE);
-            if (ZoomNotifyClient.notify(webhookUrl, authToken, jenkinsProxyUsed, null)) {
+            NotifyResult result = NotifyClient.get()
+                    .send(webhookUrl, Secret.fromString(authToken), jenkinsProxyUsed, Payload.ofJson(null))
+                    .join();
+            if (result.isSuccess()) {
                 return FormValidation.ok("Connection is ok");
             }
             return FormValidation.error("Connect failed");
@@ -196,6 +324,10 @@ public class ZoomNotifier extends Notifier {
         return notifyRepeatedFailure;
     }
 
+    public int getRepeatedFailureInterval() {
+        return repeatedFailureInterval > 0 ? repeatedFailureInterval : EventFilter.DEFAULT_REPEATED_FAILURE_INTERVAL;
+    }
+
     public boolean isIncludeCommitInfo() {
         return includeCommitInfo;
     }
@@ -208,6 +340,26 @@ public class ZoomNotifier extends Notifier {
         return includeFailedTests;
     }
 
+    public boolean isFailedTestsDelta() {
+        return failedTestsDelta;
+    }
+
+    public boolean isSendFromAgent() {
+        return sendFromAgent;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public DigestMode getDigest() {
+        return digest;
+    }
+
+    public List<ZoomTarget> getTargets() {
+        return targets != null ? targets : Collections.emptyList();
+    }
+
     @DataBoundSetter
     public void setWebhookUrl(String webhookUrl) {
         this.webhookUrl = webhookUrl;
@@ -268,6 +420,11 @@ public class ZoomNotifier extends Notifier {
         this.notifyRepeatedFailure = notifyRepeatedFailure;
     }
 
+    @DataBoundSetter
+    public void setRepeatedFailureInterval(int repeatedFailureInterval) {
+        this.repeatedFailureInterval = repeatedFailureInterval;
+    }
+
     @DataBoundSetter
     public void setIncludeCommitInfo(boolean includeCommitInfo) {
         this.includeCommitInfo = includeCommitInfo;
@@ -282,4 +439,32 @@ public class ZoomNotifier extends Notifier {
     public void setIncludeFailedTests(boolean includeFailedTests) {
         this.includeFailedTests = includeFailedTests;
     }
+
+    @DataBoundSetter
+    public void setFailedTestsDelta(boolean failedTestsDelta) {
+        this.failedTestsDelta = failedTestsDelta;
+    }
+
+    /**
+     * @param sendFromAgent whether the agent that ran the build posts the notifications instead of the controller
+     */
+    @DataBoundSetter
+    public void setSendFromAgent(boolean sendFromAgent) {
+        this.sendFromAgent = sendFromAgent;
+    }
+
+    @DataBoundSetter
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    @DataBoundSetter
+    public void setDigest(DigestMode digest) {
+        this.digest = digest;
+    }
+
+    @DataBoundSetter
+    public void setTargets(List<ZoomTarget> targets) {
+        this.targets = targets;
+    }
 }
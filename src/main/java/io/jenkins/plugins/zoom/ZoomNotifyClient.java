@@ -2,6 +2,10 @@ package io.jenkins.plugins.zoom;
 
 import hudson.ProxyConfiguration;
 import hudson.util.Secret;
+import io.jenkins.plugins.zoom.endpoint.CircuitBreaker;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoint;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoints;
+import io.jenkins.plugins.zoom.metrics.ZoomMetrics;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -9,34 +13,37 @@ import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
-import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
+import jenkins.model.Jenkins;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hc.client5.http.auth.AuthScope;
 import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.cookie.StandardCookieSpec;
+import org.apache.hc.client5.http.impl.ChainElement;
 import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.client5.http.impl.routing.DefaultProxyRoutePlanner;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
 import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
 import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactoryBuilder;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.ssl.SSLContextBuilder;
 import org.apache.hc.core5.util.Timeout;
 
@@ -49,8 +56,11 @@ public class ZoomNotifyClient {
 
     private static final int SOCKET_TIMEOUT = 30000;
     private static final int REQUEST_TIMEOUT = 10000;
-    private static final int MAX_TOTAL_CONNECTIONS = 50;
-    private static final int MAX_PER_ROUTE_CONNECTIONS = 10;
+    private static final int TLS_SESSION_CACHE_SIZE = 100;
+    private static final int TLS_SESSION_TIMEOUT_SECONDS = 3600;
+    private static final String CONNECT_START = "zoom.connect-start";
+    private static final String REQUEST_START = "zoom.request-start";
+    private static SSLContext sharedSslContext;
     private static final CloseableHttpClient DEFAULT_HTTP_CLIENT = createDefaultHttpClient();
 
     private ZoomNotifyClient() {
@@ -62,26 +72,16 @@ public class ZoomNotifyClient {
      */
     private static CloseableHttpClient createDefaultHttpClient() {
         try {
-            SSLContext sslContext = SSLContextBuilder.create()
-                    .loadTrustMaterial(null, (chain, authType) -> true)
-                    .build();
+            SSLContext sslContext = sslContext();
             SSLConnectionSocketFactory sslSocketFactory = SSLConnectionSocketFactoryBuilder.create()
                     .setSslContext(sslContext)
                     .setHostnameVerifier(NoopHostnameVerifier.INSTANCE)
                     .build();
-            PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
-                    .setSSLSocketFactory(sslSocketFactory)
-                    .setMaxConnTotal(MAX_TOTAL_CONNECTIONS)
-                    .setMaxConnPerRoute(MAX_PER_ROUTE_CONNECTIONS)
-                    .build();
-            RequestConfig requestConfig = RequestConfig.custom()
-                    .setConnectionRequestTimeout(Timeout.ofMilliseconds(REQUEST_TIMEOUT))
-                    .setResponseTimeout(Timeout.ofMilliseconds(SOCKET_TIMEOUT))
-                    .setCookieSpec(StandardCookieSpec.IGNORE)
-                    .build();
-            return HttpClients.custom()
+            PoolingHttpClientConnectionManager connectionManager =
+                    ConnectionPools.newManager("Direct", sslSocketFactory);
+            return withTimers(HttpClients.custom())
                     .setConnectionManager(connectionManager)
-                    .setDefaultRequestConfig(requestConfig)
+                    .setDefaultRequestConfig(createRequestConfig())
                     .build();
         } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
             log.error("Failed to create default HTTP client", e);
@@ -89,6 +89,51 @@ public class ZoomNotifyClient {
         }
     }
 
+    /**
+     * Returns the SSL context shared by the blocking and async clients, so a TLS session negotiated by one client
+     * is resumed by the other, and by new pooled connections, instead of a full handshake
+     */
+    static synchronized SSLContext sslContext()
+            throws NoSuchAlgorithmException, KeyStoreException, KeyManagementException {
+        if (sharedSslContext == null) {
+            SSLContext context = SSLContextBuilder.create()
+                    .loadTrustMaterial(null, (chain, authType) -> true)
+                    .build();
+            context.getClientSessionContext().setSessionCacheSize(TLS_SESSION_CACHE_SIZE);
+            context.getClientSessionContext().setSessionTimeout(TLS_SESSION_TIMEOUT_SECONDS);
+            sharedSslContext = context;
+        }
+        return sharedSslContext;
+    }
+
+    /**
+     * Adds interceptors around the connect step that timestamp the request context, to split the connect time
+     * from the request time
+     */
+    private static HttpClientBuilder withTimers(HttpClientBuilder builder) {
+        return builder.addExecInterceptorBefore(
+                        ChainElement.CONNECT.name(), CONNECT_START, timestamp(CONNECT_START))
+                .addExecInterceptorAfter(ChainElement.CONNECT.name(), REQUEST_START, timestamp(REQUEST_START));
+    }
+
+    private static ExecChainHandler timestamp(String attribute) {
+        return (request, scope, chain) -> {
+            scope.clientContext.setAttribute(attribute, System.nanoTime());
+            return chain.proceed(request, scope);
+        };
+    }
+
+    /**
+     * Creates the timeouts shared by the direct, proxy and async clients
+     */
+    static RequestConfig createRequestConfig() {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(REQUEST_TIMEOUT))
+                .setResponseTimeout(Timeout.ofMilliseconds(SOCKET_TIMEOUT))
+                .setCookieSpec(StandardCookieSpec.IGNORE)
+                .build();
+    }
+
     /**
      * Sends notification with Secret token
      */
@@ -100,50 +145,244 @@ public class ZoomNotifyClient {
      * Sends notification with plain text token
      */
     public static boolean notify(String url, String authToken, boolean jenkinsProxyUsed, String message) {
+        return send(url, authToken, jenkinsProxyUsed, message).isSuccess();
+    }
+
+    /**
+     * Sends notification with Secret token and reports the outcome of the attempt
+     */
+    public static NotifyResult send(String url, Secret authToken, boolean jenkinsProxyUsed, Payload payload) {
+        return send(url, authToken == null ? null : authToken.getPlainText(), jenkinsProxyUsed, payload);
+    }
+
+    /**
+     * Sends notification with plain text token and reports the outcome of the attempt
+     */
+    public static NotifyResult send(String url, String authToken, boolean jenkinsProxyUsed, String message) {
+        return send(url, authToken, jenkinsProxyUsed, Payload.ofJson(message));
+    }
+
+    /**
+     * Sends a payload with plain text token and reports the outcome of the attempt
+     */
+    public static NotifyResult send(String url, String authToken, boolean jenkinsProxyUsed, Payload payload) {
         log.info("Sending notification to URL: {}", url);
-        log.debug("Proxy enabled: {}, Message length: {}", jenkinsProxyUsed, message != null ? message.length() : 0);
+        log.debug("Proxy enabled: {}, Empty message: {}", jenkinsProxyUsed, payload.isEmpty());
         if (!isValidUrl(url)) {
             log.error("Invalid URL provided: {}", url);
+            return NotifyResult.notSent("invalid URL");
+        }
+        long start = System.nanoTime();
+        WebhookEndpoint endpoint = WebhookEndpoints.get(url);
+        CircuitBreaker circuitBreaker = endpoint.getCircuitBreaker();
+        long ticket = circuitBreaker.tryAcquire(System.currentTimeMillis());
+        if (ticket == CircuitBreaker.REJECTED) {
+            log.info("Notification failed fast for URL: {} (circuit {})", url, circuitBreaker.getState());
+            NotifyResult result =
+                    NotifyResult.circuitOpen(url, circuitBreaker.remainingOpenMillis(System.currentTimeMillis()));
+            recordMetrics(endpoint, result, null, start);
+            return result;
+        }
+        pace(endpoint, url);
+        HttpClientContext context = HttpClientContext.create();
+        NotifyResult result;
+        if (shouldCompress(endpoint, payload)) {
+            GzipEntity entity = new GzipEntity(payload.toEntity());
+            result = execute(url, authToken, jenkinsProxyUsed, entity, context);
+            if (entity.isRejected()) {
+                result = sendUncompressed(endpoint, result, url, authToken, jenkinsProxyUsed, payload, context);
+            } else if (entity.getCompressedBytes() > 0) {
+                recordCompressed(endpoint, entity.getUncompressedBytes(), entity.getCompressedBytes());
+            }
+        } else {
+            result = execute(url, authToken, jenkinsProxyUsed, entityOf(payload), context);
+        }
+        circuitBreaker.record(ticket, result, System.currentTimeMillis());
+        recordMetrics(endpoint, result, context, start);
+        log.info(
+                "Notification {} for URL: {} (circuit {})",
+                result.isSuccess() ? "succeeded" : "failed",
+                url,
+                circuitBreaker.getState());
+        return result;
+    }
+
+    /**
+     * Waits for a permit of the rate limiter of the webhook.
+     */
+    private static void pace(WebhookEndpoint endpoint, String url) {
+        long wait = endpoint.getRateLimiter().acquire();
+        if (wait > 0) {
+            log.debug("Paced notification to URL: {} by {} ms", url, TimeUnit.NANOSECONDS.toMillis(wait));
+        }
+    }
+
+    /**
+     * Stops compressing for a webhook that refused a gzip body, and sends the body again uncompressed, within the rate
+     * limit as it is a request of its own
+     */
+    private static NotifyResult sendUncompressed(
+            WebhookEndpoint endpoint,
+            NotifyResult rejected,
+            String url,
+            String authToken,
+            boolean jenkinsProxyUsed,
+            Payload payload,
+            HttpClientContext context) {
+        log.info("Webhook {} answered HTTP {} to a gzip body, sending it uncompressed", url, rejected.getStatusCode());
+        endpoint.rejectGzip();
+        pace(endpoint, url);
+        return execute(url, authToken, jenkinsProxyUsed, entityOf(payload), context);
+    }
+
+    private static HttpEntity entityOf(Payload payload) {
+        return payload.isEmpty() ? null : payload.toEntity();
+    }
+
+    /**
+     * @return whether the body is over the compression threshold and the webhook did not refuse gzip before
+     */
+    static boolean shouldCompress(WebhookEndpoint endpoint, Payload payload) {
+        return endpoint.isGzipAccepted()
+                && payload.shouldCompress(ZoomGlobalConfiguration.get().getCompressionThreshold());
+    }
+
+    /**
+     * @param body response body, or null
+     * @return whether the response says that the webhook does not accept gzip bodies, which is HTTP 415, or HTTP 400
+     * with a body naming the encoding
+     */
+    static boolean rejectsGzip(int statusCode, String body) {
+        if (statusCode == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE) {
+            return true;
+        }
+        if (statusCode != HttpStatus.SC_BAD_REQUEST || body == null) {
             return false;
         }
-        try (CloseableHttpResponse response =
-                jenkinsProxyUsed ? notifyWithProxy(url, authToken, message) : notifyNoProxy(url, authToken, message)) {
+        String text = body.toLowerCase(Locale.ROOT);
+        return text.contains(GzipEntity.GZIP) || text.contains("encoding");
+    }
+
+    static void recordCompressed(WebhookEndpoint endpoint, long uncompressedBytes, long compressedBytes) {
+        endpoint.getMetrics().recordCompressed(uncompressedBytes, compressedBytes);
+        ZoomMetrics.get().getAll().recordCompressed(uncompressedBytes, compressedBytes);
+    }
+
+    /**
+     * Records the attempt in the metrics of the webhook and in the plugin-wide metrics
+     *
+     * @param context context of the request, or null if no request was made
+     */
+    private static void recordMetrics(
+            WebhookEndpoint endpoint, NotifyResult result, HttpClientContext context, long startNanos) {
+        long end = System.nanoTime();
+        Object connectStart = context == null ? null : context.getAttribute(CONNECT_START);
+        Object requestStart = context == null ? null : context.getAttribute(REQUEST_START);
+        long connect = connectStart instanceof Long && requestStart instanceof Long
+                ? (Long) requestStart - (Long) connectStart
+                : -1;
+        long request = requestStart instanceof Long ? end - (Long) requestStart : -1;
+        recordMetrics(endpoint, result, connect, request, end - startNanos);
+    }
+
+    /**
+     * Records the attempt in the metrics of the webhook and in the plugin-wide metrics
+     *
+     * @param connectNanos time to connect, or -1 if unknown
+     * @param requestNanos time from the connection to the response, or -1 if unknown
+     * @param totalNanos   time since the notification was handed to the client
+     */
+    static void recordMetrics(
+            WebhookEndpoint endpoint, NotifyResult result, long connectNanos, long requestNanos, long totalNanos) {
+        endpoint.getMetrics().record(result, connectNanos, requestNanos, totalNanos);
+        ZoomMetrics.get().getAll().record(result, connectNanos, requestNanos, totalNanos);
+    }
+
+    /**
+     * Executes the request and converts the response or failure into a result, holding a lease on the proxy client
+     * until the response was read
+     */
+    private static NotifyResult execute(
+            String url, String authToken, boolean jenkinsProxyUsed, HttpEntity body, HttpClientContext context) {
+        if (!jenkinsProxyUsed) {
+            return execute(null, url, authToken, body, context);
+        }
+        ProxyHttpClientCache.Proxy proxy =
+                ProxyHttpClientCache.lease(getProxyConfiguration(), ZoomNotifyClient::createProxyHttpClient);
+        if (proxy == null) {
+            log.info("Using direct connection - proxy not applicable for URL: {}", url);
+            return execute(null, url, authToken, body, context);
+        }
+        try {
+            return execute(proxy, url, authToken, body, context);
+        } finally {
+            proxy.release();
+        }
+    }
+
+    /**
+     * @param proxy leased proxy, or null for a direct connection
+     */
+    private static NotifyResult execute(
+            ProxyHttpClientCache.Proxy proxy,
+            String url,
+            String authToken,
+            HttpEntity body,
+            HttpClientContext context) {
+        long start = System.nanoTime();
+        try (CloseableHttpResponse response = proxy != null
+                ? notifyWithProxy(proxy, url, authToken, body, context)
+                : notifyNoProxy(url, authToken, body, context)) {
             if (response == null) {
                 log.error("Received null response from server");
-                return false;
+                return NotifyResult.failure(new IOException("No response from server"), elapsedMillis(start));
             }
             int statusCode = response.getCode();
-            String responseBody = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            String responseBody = response.getEntity() == null
+                    ? ""
+                    : EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
             log.info("Response status: {}, body: {}", statusCode, responseBody);
-            boolean success = statusCode == HttpStatus.SC_OK;
-            log.info("Notification {} for URL: {}", success ? "succeeded" : "failed", url);
-            return success;
+            if (body instanceof GzipEntity && rejectsGzip(statusCode, responseBody)) {
+                ((GzipEntity) body).reject();
+            }
+            Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+            return NotifyResult.response(
+                    statusCode,
+                    NotifyResult.parseRetryAfter(
+                            retryAfter == null ? null : retryAfter.getValue(), System.currentTimeMillis()),
+                    elapsedMillis(start));
         } catch (Exception e) {
             log.error("Failed to send notification to URL: {}", url, e);
-            return false;
+            return NotifyResult.failure(e, elapsedMillis(start));
         }
     }
 
+    static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
     /**
      * Sends notification using proxy configuration
      */
-    private static CloseableHttpResponse notifyWithProxy(String url, String authToken, String message)
+    private static CloseableHttpResponse notifyWithProxy(
+            ProxyHttpClientCache.Proxy proxy, String url, String authToken, HttpEntity body, HttpClientContext context)
             throws IOException {
-        ProxyConfiguration proxyConfig = getProxyConfiguration();
-        if (!isProxyConfigValid(proxyConfig) || isNoProxyHost(url, proxyConfig.getNoProxyHostPatterns())) {
+        if (proxy.isNoProxyHost(url)) {
             log.info("Using direct connection - proxy not applicable for URL: {}", url);
-            return notifyNoProxy(url, authToken, message);
-        }
-        log.info("Using proxy: {}:{}", proxyConfig.name, proxyConfig.port);
-        try (CloseableHttpClient proxyClient = createProxyHttpClient(proxyConfig)) {
-            return doPost(proxyClient, url, authToken, message);
+            return notifyNoProxy(url, authToken, body, context);
         }
+        log.info("Using proxy: {}", proxy);
+        return doPost(proxy.getClient(), url, authToken, body, context);
     }
 
     /**
-     * Retrieves Jenkins proxy configuration
+     * Retrieves Jenkins proxy configuration, from memory when Jenkins is running
      */
     private static ProxyConfiguration getProxyConfiguration() {
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (jenkins != null) {
+            return jenkins.proxy;
+        }
         try {
             return ProxyConfiguration.load();
         } catch (IOException e) {
@@ -153,19 +392,24 @@ public class ZoomNotifyClient {
     }
 
     /**
-     * Validates proxy configuration
-     */
-    private static boolean isProxyConfigValid(ProxyConfiguration config) {
-        return config != null && config.name != null && !config.name.isEmpty() && config.port > 0;
-    }
-
-    /**
-     * Creates HTTP client with proxy configuration
+     * Creates a pooled HTTP client with proxy configuration, on the shared SSL context so it resumes TLS sessions too
      */
     private static CloseableHttpClient createProxyHttpClient(ProxyConfiguration proxyConfig) {
         HttpHost proxyHost = new HttpHost(proxyConfig.name, proxyConfig.port);
         DefaultProxyRoutePlanner routePlanner = new DefaultProxyRoutePlanner(proxyHost);
-        HttpClientBuilder builder = HttpClients.custom().setRoutePlanner(routePlanner);
+        SSLConnectionSocketFactory sslSocketFactory;
+        try {
+            sslSocketFactory = new SSLConnectionSocketFactory(sslContext());
+        } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
+            log.error("Failed to use the shared SSL context for the proxy client", e);
+            sslSocketFactory = SSLConnectionSocketFactory.getSocketFactory();
+        }
+        PoolingHttpClientConnectionManager connectionManager =
+                ConnectionPools.newManager("Proxy " + proxyHost, sslSocketFactory);
+        HttpClientBuilder builder = withTimers(HttpClients.custom())
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(createRequestConfig())
+                .setRoutePlanner(routePlanner);
         String username = proxyConfig.getUserName();
         if (username != null && !username.isEmpty()) {
             BasicCredentialsProvider credsProvider = new BasicCredentialsProvider();
@@ -182,24 +426,25 @@ public class ZoomNotifyClient {
     /**
      * Sends notification without proxy
      */
-    private static CloseableHttpResponse notifyNoProxy(String url, String authToken, String message)
-            throws IOException {
+    private static CloseableHttpResponse notifyNoProxy(
+            String url, String authToken, HttpEntity body, HttpClientContext context) throws IOException {
         log.debug("Sending notification without proxy");
-        return doPost(DEFAULT_HTTP_CLIENT, url, authToken, message);
+        return doPost(DEFAULT_HTTP_CLIENT, url, authToken, body, context);
     }
 
     /**
      * Executes HTTP POST request
      */
     private static CloseableHttpResponse doPost(
-            CloseableHttpClient httpClient, String url, String authToken, String message) throws IOException {
+            CloseableHttpClient httpClient, String url, String authToken, HttpEntity body, HttpClientContext context)
+            throws IOException {
         Objects.requireNonNull(httpClient, "HTTP client must not be null");
         Objects.requireNonNull(url, "URL must not be null");
         HttpPost httpPost = new HttpPost(url);
         try {
-            decoratePost(httpPost, authToken, message);
+            decoratePost(httpPost, authToken, body);
             log.debug("Executing POST request to URL: {}", url);
-            return httpClient.execute(httpPost, HttpClientContext.create());
+            return httpClient.execute(httpPost, context);
         } catch (IOException e) {
             log.error("Failed to execute POST request to URL: {}", url, e);
             throw e;
@@ -208,38 +453,21 @@ public class ZoomNotifyClient {
 
     /**
      * Decorates HTTP POST request with headers and body
+     *
+     * @param body the JSON entity, possibly gzipped, or null if there is no message
      */
-    private static void decoratePost(HttpPost httpPost, String authToken, String message) {
+    private static void decoratePost(HttpPost httpPost, String authToken, HttpEntity body) {
         httpPost.setHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType());
         if (authToken != null && !authToken.isEmpty()) {
             httpPost.setHeader(HttpHeaders.AUTHORIZATION, authToken);
             log.debug("Authorization header set");
         }
-        if (message != null && !message.isEmpty()) {
-            StringEntity entity = new StringEntity(message, ContentType.APPLICATION_JSON);
-            httpPost.setEntity(entity);
-            log.debug("Request body set, length: {}", message.length());
-        }
-    }
-
-    /**
-     * Checks if the given URL's host matches any of the no-proxy patterns
-     *
-     * @param url                 URL to check
-     * @param noProxyHostPatterns List of patterns for no-proxy hosts
-     * @return true if the host should not use a proxy, false otherwise
-     */
-    private static boolean isNoProxyHost(String url, List<Pattern> noProxyHostPatterns) {
-        if (url == null || noProxyHostPatterns == null || noProxyHostPatterns.isEmpty()) {
-            return false;
-        }
-        try {
-            String host = new URL(url).getHost();
-            return noProxyHostPatterns.stream()
-                    .anyMatch(pattern -> pattern.matcher(host).matches());
-        } catch (MalformedURLException e) {
-            log.error("Invalid URL: {}", url, e);
-            return false;
+        if (body != null) {
+            httpPost.setEntity(body);
+            if (body.getContentEncoding() != null) {
+                httpPost.setHeader(HttpHeaders.CONTENT_ENCODING, body.getContentEncoding());
+            }
+            log.debug("Request body set");
         }
     }
 
@@ -249,7 +477,7 @@ public class ZoomNotifyClient {
      * @param url URL to validate
      * @return true if the URL is valid, false otherwise
      */
-    private static boolean isValidUrl(String url) {
+    static boolean isValidUrl(String url) {
         if (url == null || url.isEmpty()) {
             return false;
         }
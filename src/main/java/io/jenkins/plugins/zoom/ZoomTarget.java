@@ -0,0 +1,105 @@
+package io.jenkins.plugins.zoom;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import hudson.util.Secret;
+import io.jenkins.plugins.zoom.dispatch.Notification;
+import io.jenkins.plugins.zoom.dispatch.RetryPolicy;
+import java.net.MalformedURLException;
+import java.net.URL;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * A webhook a notification is delivered to, in addition to the main webhook of a notifier or {@code zoomSend} step.
+ */
+public class ZoomTarget extends AbstractDescribableImpl<ZoomTarget> {
+
+    private static final int VISIBLE_PATH_CHARS = 4;
+
+    private final String webhookUrl;
+    private Secret authToken;
+    private boolean jenkinsProxyUsed;
+    private EventFilter events;
+
+    @DataBoundConstructor
+    public ZoomTarget(String webhookUrl) {
+        this.webhookUrl = webhookUrl;
+    }
+
+    public ZoomTarget(String webhookUrl, Secret authToken, boolean jenkinsProxyUsed, EventFilter events) {
+        this.webhookUrl = webhookUrl;
+        this.authToken = authToken;
+        this.jenkinsProxyUsed = jenkinsProxyUsed;
+        this.events = events;
+    }
+
+    public Notification toNotification(Payload payload, String source, RetryPolicy retryPolicy) {
+        return new Notification(webhookUrl, authToken, jenkinsProxyUsed, payload, source, retryPolicy);
+    }
+
+    /**
+     * @param defaults events of the notifier, used when the target has no filter of its own
+     * @return the events this target is notified about
+     */
+    public EventFilter getEventsOrDefault(EventFilter defaults) {
+        return events != null ? events : defaults;
+    }
+
+    public String getWebhookUrl() {
+        return webhookUrl;
+    }
+
+    public Secret getAuthToken() {
+        return authToken;
+    }
+
+    public boolean isJenkinsProxyUsed() {
+        return jenkinsProxyUsed;
+    }
+
+    public EventFilter getEvents() {
+        return events;
+    }
+
+    @DataBoundSetter
+    public void setAuthToken(String authToken) {
+        this.authToken = Secret.fromString(authToken);
+    }
+
+    @DataBoundSetter
+    public void setJenkinsProxyUsed(boolean jenkinsProxyUsed) {
+        this.jenkinsProxyUsed = jenkinsProxyUsed;
+    }
+
+    @DataBoundSetter
+    public void setEvents(EventFilter events) {
+        this.events = events;
+    }
+
+    /**
+     * @return the host of the webhook and the last characters of its path, so that build logs tell the targets apart
+     * without showing the channel part of the URL
+     */
+    @Override
+    public String toString() {
+        try {
+            URL url = new URL(webhookUrl);
+            String path = url.getPath();
+            return path.length() <= VISIBLE_PATH_CHARS
+                    ? url.getHost() + path
+                    : url.getHost() + "/…" + path.substring(path.length() - VISIBLE_PATH_CHARS);
+        } catch (MalformedURLException e) {
+            return "invalid webhook URL";
+        }
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<ZoomTarget> {
+        @Override
+        public String getDisplayName() {
+            return "Zoom webhook";
+        }
+    }
+}
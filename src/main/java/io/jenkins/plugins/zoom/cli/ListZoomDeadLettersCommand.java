@@ -0,0 +1,50 @@
+package io.jenkins.plugins.zoom.cli;
+
+import hudson.Extension;
+import hudson.cli.CLICommand;
+import io.jenkins.plugins.zoom.dispatch.DeadLetter;
+import io.jenkins.plugins.zoom.dispatch.DeadLetterFilter;
+import io.jenkins.plugins.zoom.dispatch.DeadLetterQueue;
+import java.util.List;
+import jenkins.model.Jenkins;
+import org.kohsuke.args4j.Option;
+
+/**
+ * Lists the Zoom notifications kept in the dead-letter queue, one tab separated line per notification.
+ */
+@Extension
+public class ListZoomDeadLettersCommand extends CLICommand {
+
+    @Option(name = "--job", usage = "Only notifications of the job with this full name")
+    public String job;
+
+    @Option(name = "--webhook", usage = "Only notifications to this webhook URL")
+    public String webhook;
+
+    @Option(name = "--status", usage = "Only notifications whose last attempt had this HTTP status, -1 for none")
+    public String status;
+
+    @Override
+    public String getShortDescription() {
+        return "Lists the Zoom notifications given up on after their last retry.";
+    }
+
+    @Override
+    protected int run() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        List<DeadLetter> letters = DeadLetterQueue.get().list(DeadLetterFilter.of(job, webhook, status));
+        for (DeadLetter letter : letters) {
+            stdout.println(String.join(
+                    "\t",
+                    String.valueOf(letter.getId()),
+                    letter.getJob(),
+                    letter.getBuild() > 0 ? String.valueOf(letter.getBuild()) : "-",
+                    letter.getWebhookDisplayName(),
+                    String.valueOf(letter.getAttempts()),
+                    String.valueOf(letter.getLastStatus()),
+                    letter.getLastResult()));
+        }
+        stderr.println(letters.size() + " notifications");
+        return 0;
+    }
+}
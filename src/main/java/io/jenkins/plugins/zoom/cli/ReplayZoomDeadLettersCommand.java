@@ -0,0 +1,46 @@
+package io.jenkins.plugins.zoom.cli;
+
+import hudson.Extension;
+import hudson.cli.CLICommand;
+import io.jenkins.plugins.zoom.dispatch.DeadLetterFilter;
+import io.jenkins.plugins.zoom.dispatch.DeadLetterQueue;
+import io.jenkins.plugins.zoom.dispatch.DeadLetterReplay;
+import jenkins.model.Jenkins;
+import org.kohsuke.args4j.Option;
+
+/**
+ * Replays the matching Zoom notifications of the dead-letter queue in the background, at a limited rate.
+ */
+@Extension
+public class ReplayZoomDeadLettersCommand extends CLICommand {
+
+    @Option(name = "--job", usage = "Only notifications of the job with this full name")
+    public String job;
+
+    @Option(name = "--webhook", usage = "Only notifications to this webhook URL")
+    public String webhook;
+
+    @Option(name = "--status", usage = "Only notifications whose last attempt had this HTTP status, -1 for none")
+    public String status;
+
+    @Option(name = "--rate", usage = "Notifications sent per second")
+    public double rate = DeadLetterReplay.DEFAULT_RATE;
+
+    @Override
+    public String getShortDescription() {
+        return "Sends the Zoom notifications given up on after their last retry again.";
+    }
+
+    @Override
+    protected int run() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        DeadLetterQueue queue = DeadLetterQueue.get();
+        int queued = queue.replay(DeadLetterFilter.of(job, webhook, status), rate);
+        if (queued == 0) {
+            stdout.println("No notifications to replay");
+            return 0;
+        }
+        stdout.println("Replaying " + queued + " notifications at " + queue.getReplay().getRate() + " per second");
+        return 0;
+    }
+}
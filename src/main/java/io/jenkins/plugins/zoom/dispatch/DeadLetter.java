@@ -0,0 +1,145 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import hudson.util.Secret;
+import io.jenkins.plugins.zoom.Payload;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoint;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * A notification the dispatcher gave up on, kept in the {@link DeadLetterQueue} until it is replayed or evicted.
+ */
+public final class DeadLetter {
+    private final long id;
+    private final String webhookUrl;
+    private final Secret authToken;
+    private final boolean jenkinsProxyUsed;
+    private final String source;
+    private final byte[] message;
+    private final int lastStatus;
+    private final String lastResult;
+    private final int attempts;
+    private final long failedAt;
+
+    DeadLetter(
+            long id,
+            String webhookUrl,
+            Secret authToken,
+            boolean jenkinsProxyUsed,
+            String source,
+            byte[] message,
+            int lastStatus,
+            String lastResult,
+            int attempts,
+            long failedAt) {
+        this.id = id;
+        this.webhookUrl = webhookUrl;
+        this.authToken = authToken;
+        this.jenkinsProxyUsed = jenkinsProxyUsed;
+        this.source = source;
+        this.message = message;
+        this.lastStatus = lastStatus;
+        this.lastResult = lastResult;
+        this.attempts = attempts;
+        this.failedAt = failedAt;
+    }
+
+    /**
+     * @return a new notification with the same message, webhook and source
+     */
+    Notification toNotification() {
+        return new Notification(
+                webhookUrl,
+                authToken,
+                jenkinsProxyUsed,
+                Payload.ofJson(new String(message, StandardCharsets.UTF_8)),
+                source,
+                null);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getWebhookUrl() {
+        return webhookUrl;
+    }
+
+    public String getWebhookDisplayName() {
+        return WebhookEndpoint.displayNameOf(webhookUrl);
+    }
+
+    Secret getAuthToken() {
+        return authToken;
+    }
+
+    boolean isJenkinsProxyUsed() {
+        return jenkinsProxyUsed;
+    }
+
+    /**
+     * @return the externalizable id of the build, or a description for digests
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return full name of the job, or the source if it is not a build
+     */
+    public String getJob() {
+        int hash = source == null ? -1 : source.lastIndexOf('#');
+        return hash < 0 ? source : source.substring(0, hash);
+    }
+
+    /**
+     * @return number of the build, or -1 if the source is not a build
+     */
+    public int getBuild() {
+        int hash = source == null ? -1 : source.lastIndexOf('#');
+        if (hash < 0) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(source.substring(hash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    byte[] getMessage() {
+        return message;
+    }
+
+    public int getSize() {
+        return message.length;
+    }
+
+    /**
+     * @return HTTP status of the last attempt, or {@link io.jenkins.plugins.zoom.NotifyResult#NO_RESPONSE}
+     */
+    public int getLastStatus() {
+        return lastStatus;
+    }
+
+    public String getLastResult() {
+        return lastResult;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getFailedAt() {
+        return failedAt;
+    }
+
+    public Date getFailedAtDate() {
+        return new Date(failedAt);
+    }
+
+    @Override
+    public String toString() {
+        return "DeadLetter[" + id + ": " + source + " -> " + getWebhookDisplayName() + ", " + lastResult + "]";
+    }
+}
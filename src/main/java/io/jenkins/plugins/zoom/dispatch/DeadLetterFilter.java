@@ -0,0 +1,53 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import hudson.Util;
+
+/**
+ * Selects dead letters by job, webhook and last status. Criteria left empty match every entry.
+ */
+public final class DeadLetterFilter {
+    private final String job;
+    private final String webhookUrl;
+    private final Integer status;
+
+    DeadLetterFilter(String job, String webhookUrl, Integer status) {
+        this.job = job;
+        this.webhookUrl = webhookUrl;
+        this.status = status;
+    }
+
+    /**
+     * @param job        full name of the job, or empty
+     * @param webhookUrl webhook URL, or empty
+     * @param status     HTTP status of the last attempt, -1 for attempts without a response, or empty
+     * @throws IllegalArgumentException if the status is not a number
+     */
+    public static DeadLetterFilter of(String job, String webhookUrl, String status) {
+        String trimmedStatus = Util.fixEmptyAndTrim(status);
+        Integer parsedStatus;
+        try {
+            parsedStatus = trimmedStatus == null ? null : Integer.valueOf(trimmedStatus);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Status must be an HTTP status code or -1: " + status, e);
+        }
+        return new DeadLetterFilter(Util.fixEmptyAndTrim(job), Util.fixEmptyAndTrim(webhookUrl), parsedStatus);
+    }
+
+    public boolean matches(DeadLetter letter) {
+        return (job == null || job.equals(letter.getJob()))
+                && (webhookUrl == null || webhookUrl.equals(letter.getWebhookUrl()))
+                && (status == null || status == letter.getLastStatus());
+    }
+
+    public String getJob() {
+        return job;
+    }
+
+    public String getWebhookUrl() {
+        return webhookUrl;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+}
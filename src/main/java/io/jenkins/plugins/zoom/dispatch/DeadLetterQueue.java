@@ -0,0 +1,418 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+import hudson.model.ModelObject;
+import hudson.util.HttpResponses;
+import hudson.util.Secret;
+import io.jenkins.plugins.zoom.NotifyResult;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.POST;
+
+/**
+ * Bounded store of the notifications the dispatcher gave up on, indexed by job and webhook so they can be listed,
+ * filtered and replayed in bulk from the management page or the CLI. The oldest entries are evicted when it is full.
+ *
+ * <p>Entries are kept in {@code JENKINS_HOME/zoom-dead-letters.bin}, read when Jenkins starts and rewritten a few
+ * seconds after a change so a burst of failures during an outage is written once. The file is written from a snapshot
+ * of the entries, so adding an entry does not wait for the disk.
+ */
+@Slf4j
+public final class DeadLetterQueue implements ModelObject {
+
+    static final String FILE_NAME = "zoom-dead-letters.bin";
+    private static final int FORMAT_VERSION = 1;
+    private static final long SAVE_DELAY_SECONDS = 5;
+
+    private static DeadLetterQueue instance;
+
+    private final File file;
+    /** Entries by id, oldest first. */
+    private final Map<Long, DeadLetter> entries = new LinkedHashMap<>();
+    /** Held while the file is written, so snapshots are written in the order they are taken. */
+    private final Object writeLock = new Object();
+
+    private final Map<String, Set<Long>> byJob = new HashMap<>();
+    private final Map<String, Set<Long>> byWebhook = new HashMap<>();
+    /** Entries queued in the running replay and not dispatched yet. */
+    private final Set<Long> replaying = new HashSet<>();
+
+    private long nextId;
+    private long evicted;
+    private boolean saveScheduled;
+    private DeadLetterReplay replay;
+
+    DeadLetterQueue(File file) {
+        this.file = file;
+    }
+
+    public static synchronized DeadLetterQueue get() {
+        if (instance == null) {
+            instance = new DeadLetterQueue(new File(Jenkins.get().getRootDir(), FILE_NAME));
+        }
+        return instance;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Undelivered Zoom notifications";
+    }
+
+    /**
+     * Keeps a notification that will not be retried, evicting the oldest entries beyond the capacity.
+     */
+    synchronized DeadLetter add(Notification notification, int attempts, NotifyResult result, int capacity) {
+        while (!entries.isEmpty() && entries.size() >= capacity) {
+            remove(entries.keySet().iterator().next());
+            evicted++;
+        }
+        DeadLetter letter = new DeadLetter(
+                nextId++,
+                notification.getWebhookUrl(),
+                notification.getAuthToken(),
+                notification.isJenkinsProxyUsed(),
+                notification.getSource(),
+                notification.getPayload().toBytes(),
+                result.getStatusCode(),
+                result.toString(),
+                attempts,
+                System.currentTimeMillis());
+        index(letter);
+        scheduleSave();
+        return letter;
+    }
+
+    /**
+     * @return the matching entries, oldest first
+     */
+    public synchronized List<DeadLetter> list(DeadLetterFilter filter) {
+        Collection<Long> candidates;
+        if (filter.getJob() != null) {
+            candidates = byJob.getOrDefault(filter.getJob(), Collections.emptySet());
+        } else if (filter.getWebhookUrl() != null) {
+            candidates = byWebhook.getOrDefault(filter.getWebhookUrl(), Collections.emptySet());
+        } else {
+            candidates = entries.keySet();
+        }
+        List<DeadLetter> matching = new ArrayList<>();
+        for (Long id : candidates) {
+            DeadLetter letter = entries.get(id);
+            if (filter.matches(letter)) {
+                matching.add(letter);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Lists the entries matching the filter given as text, as entered on the management page.
+     */
+    public List<DeadLetter> find(String job, String webhookUrl, String status) {
+        return list(DeadLetterFilter.of(job, webhookUrl, status));
+    }
+
+    /**
+     * Queues the matching entries for a throttled replay. Entries already queued are not queued again.
+     *
+     * @param perSecond notifications dispatched per second, 0 for the default
+     * @return the number of entries queued
+     */
+    public synchronized int replay(DeadLetterFilter filter, double perSecond) {
+        List<Long> ids = new ArrayList<>();
+        for (DeadLetter letter : list(filter)) {
+            if (replaying.add(letter.getId())) {
+                ids.add(letter.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (replay != null && replay.add(ids)) {
+            replay.setRate(perSecond);
+        } else {
+            replay = new DeadLetterReplay(this, perSecond);
+            replay.add(ids);
+            replay.start();
+        }
+        log.info("Replaying {} Zoom dead letters at {} per second", ids.size(), replay.getRate());
+        return ids.size();
+    }
+
+    /**
+     * Deletes the matching entries.
+     *
+     * @return the number of entries deleted
+     */
+    public synchronized int delete(DeadLetterFilter filter) {
+        List<DeadLetter> matching = list(filter);
+        for (DeadLetter letter : matching) {
+            remove(letter.getId());
+        }
+        if (!matching.isEmpty()) {
+            scheduleSave();
+        }
+        return matching.size();
+    }
+
+    /**
+     * Removes an entry that is being replayed.
+     *
+     * @return the entry, or null if it was deleted or evicted in the meantime
+     */
+    synchronized DeadLetter take(long id) {
+        DeadLetter letter = remove(id);
+        if (letter != null) {
+            scheduleSave();
+        }
+        return letter;
+    }
+
+    @POST
+    public HttpResponse doReplay(
+            @QueryParameter String job,
+            @QueryParameter String webhook,
+            @QueryParameter String status,
+            @QueryParameter double rate) {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        replay(DeadLetterFilter.of(job, webhook, status), rate);
+        return HttpResponses.redirectToDot();
+    }
+
+    @POST
+    public HttpResponse doDelete(
+            @QueryParameter String job, @QueryParameter String webhook, @QueryParameter String status) {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        delete(DeadLetterFilter.of(job, webhook, status));
+        return HttpResponses.redirectToDot();
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * @return entries dropped because the queue was full
+     */
+    public synchronized long getEvicted() {
+        return evicted;
+    }
+
+    /**
+     * @return the latest replay, or null if none was started since Jenkins started
+     */
+    public synchronized DeadLetterReplay getReplay() {
+        return replay;
+    }
+
+    private void index(DeadLetter letter) {
+        entries.put(letter.getId(), letter);
+        byJob.computeIfAbsent(letter.getJob(), k -> new LinkedHashSet<>()).add(letter.getId());
+        byWebhook.computeIfAbsent(letter.getWebhookUrl(), k -> new LinkedHashSet<>()).add(letter.getId());
+    }
+
+    private DeadLetter remove(long id) {
+        replaying.remove(id);
+        DeadLetter letter = entries.remove(id);
+        if (letter != null) {
+            unindex(byJob, letter.getJob(), id);
+            unindex(byWebhook, letter.getWebhookUrl(), id);
+        }
+        return letter;
+    }
+
+    private static void unindex(Map<String, Set<Long>> index, String key, long id) {
+        Set<Long> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private void scheduleSave() {
+        if (!saveScheduled) {
+            saveScheduled = true;
+            Timer.get().schedule(this::save, SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Reads the entries kept by the previous controller run, before the dispatcher can give up on a notification.
+     */
+    @Initializer(after = InitMilestone.PLUGINS_STARTED, before = InitMilestone.JOB_LOADED)
+    public static void loadAtStartup() {
+        get().load();
+    }
+
+    /**
+     * Reads the entries from the file. Called once, before any entry is added.
+     */
+    synchronized void load() {
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            readFrom(in);
+        } catch (NoSuchFileException e) {
+            // nothing was given up on yet
+        } catch (IOException e) {
+            log.warn("Failed to read {}, starting with an empty dead-letter queue", file, e);
+            entries.clear();
+            byJob.clear();
+            byWebhook.clear();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the entries, taken under the lock of the queue and written outside it.
+     */
+    void save() {
+        synchronized (writeLock) {
+            long snapshotNextId;
+            long snapshotEvicted;
+            List<DeadLetter> letters;
+            synchronized (this) {
+                saveScheduled = false;
+                snapshotNextId = nextId;
+                snapshotEvicted = evicted;
+                letters = new ArrayList<>(entries.values());
+            }
+            File temp = new File(file.getParentFile(), FILE_NAME + ".tmp");
+            try {
+                try (DataOutputStream out =
+                        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+                    writeTo(out, snapshotNextId, snapshotEvicted, letters);
+                }
+                Files.move(
+                        temp.toPath(),
+                        file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("Failed to write {}", file, e);
+            }
+        }
+    }
+
+    private static void writeTo(DataOutputStream out, long nextId, long evicted, List<DeadLetter> letters)
+            throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(nextId);
+        out.writeLong(evicted);
+        out.writeInt(letters.size());
+        for (DeadLetter letter : letters) {
+            Secret token = letter.getAuthToken();
+            out.writeLong(letter.getId());
+            writeString(out, letter.getWebhookUrl());
+            writeString(out, token == null ? null : token.getEncryptedValue());
+            out.writeBoolean(letter.isJenkinsProxyUsed());
+            writeString(out, letter.getSource());
+            writeBytes(out, letter.getMessage());
+            out.writeInt(letter.getLastStatus());
+            writeString(out, letter.getLastResult());
+            out.writeInt(letter.getAttempts());
+            out.writeLong(letter.getFailedAt());
+        }
+    }
+
+    private void readFrom(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported dead-letter format " + version);
+        }
+        nextId = in.readLong();
+        evicted = in.readLong();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            long id = in.readLong();
+            String webhookUrl = readString(in);
+            String token = readString(in);
+            boolean jenkinsProxyUsed = in.readBoolean();
+            String source = readString(in);
+            byte[] message = readBytes(in);
+            int lastStatus = in.readInt();
+            String lastResult = readString(in);
+            int attempts = in.readInt();
+            long failedAt = in.readLong();
+            index(new DeadLetter(
+                    id,
+                    webhookUrl,
+                    token == null ? null : Secret.fromString(token),
+                    jenkinsProxyUsed,
+                    source,
+                    message == null ? new byte[0] : message,
+                    lastStatus,
+                    lastResult,
+                    attempts,
+                    failedAt));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes the entries changed since the last save before Jenkins stops.
+     */
+    @Terminator(requires = NotificationDispatcher.DISPATCHER_STOPPED)
+    public static void flush() {
+        DeadLetterQueue queue;
+        synchronized (DeadLetterQueue.class) {
+            queue = instance;
+        }
+        if (queue != null && queue.isSaveScheduled()) {
+            queue.save();
+        }
+    }
+
+    private synchronized boolean isSaveScheduled() {
+        return saveScheduled;
+    }
+}
@@ -0,0 +1,142 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import io.jenkins.plugins.zoom.ZoomGlobalConfiguration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import jenkins.util.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands dead letters back to the {@link NotificationDispatcher} at a fixed rate, and only while the dispatch queue is
+ * less than half full, so a backlog of thousands of messages does not flood Zoom or push out new notifications.
+ * Each dead letter leaves the {@link DeadLetterQueue} when it is dispatched; if it fails again it comes back as a new
+ * entry.
+ */
+@Slf4j
+public final class DeadLetterReplay {
+
+    public static final double DEFAULT_RATE = 5;
+    private static final long TICK_MILLIS = 100;
+
+    private final DeadLetterQueue queue;
+    private final Deque<Long> ids = new ArrayDeque<>();
+    private final AtomicInteger dispatched = new AtomicInteger();
+    private final AtomicInteger delivered = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private double perSecond;
+    private double allowance;
+    private int total;
+    private boolean finished;
+    private ScheduledFuture<?> task;
+
+    DeadLetterReplay(DeadLetterQueue queue, double perSecond) {
+        this.queue = queue;
+        setRate(perSecond);
+    }
+
+    /**
+     * Queues more dead letters for this replay.
+     *
+     * @return false if the replay has finished and a new one must be started
+     */
+    synchronized boolean add(Collection<Long> more) {
+        if (finished) {
+            return false;
+        }
+        ids.addAll(more);
+        total += more.size();
+        return true;
+    }
+
+    synchronized void setRate(double perSecond) {
+        this.perSecond = perSecond > 0 ? perSecond : DEFAULT_RATE;
+    }
+
+    synchronized void start() {
+        task = Timer.get().scheduleWithFixedDelay(this::tick, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void tick() {
+        try {
+            for (Long id : due(room())) {
+                DeadLetter letter = queue.take(id);
+                if (letter == null) {
+                    // deleted or evicted since the replay started
+                    continue;
+                }
+                dispatched.incrementAndGet();
+                NotificationDispatcher.get().dispatch(letter.toNotification()).thenAccept(result -> {
+                    if (result.isSuccess()) {
+                        delivered.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to replay Zoom dead letters", e);
+        }
+    }
+
+    /**
+     * @return free places in the first half of the dispatch queue
+     */
+    private static int room() {
+        int capacity = ZoomGlobalConfiguration.get().getQueueCapacity();
+        return Math.max(0, capacity / 2 - NotificationDispatcher.get().getPending());
+    }
+
+    /**
+     * Takes the ids allowed by the rate in this tick, and finishes the replay once none are left.
+     */
+    private synchronized List<Long> due(int room) {
+        double perTick = perSecond * TICK_MILLIS / 1000;
+        allowance = Math.min(allowance + perTick, Math.max(1, perTick));
+        List<Long> due = new ArrayList<>();
+        while (allowance >= 1 && room > due.size() && !ids.isEmpty()) {
+            due.add(ids.poll());
+            allowance--;
+        }
+        if (ids.isEmpty()) {
+            finished = true;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+        return due;
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    public synchronized double getRate() {
+        return perSecond;
+    }
+
+    public synchronized int getTotal() {
+        return total;
+    }
+
+    public synchronized int getRemaining() {
+        return ids.size();
+    }
+
+    public int getDispatched() {
+        return dispatched.get();
+    }
+
+    public int getDelivered() {
+        return delivered.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+}
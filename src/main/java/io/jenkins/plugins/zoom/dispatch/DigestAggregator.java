@@ -0,0 +1,260 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import hudson.init.Terminator;
+import hudson.util.Secret;
+import io.jenkins.plugins.zoom.Payload;
+import io.jenkins.plugins.zoom.ReportRenderer;
+import io.jenkins.plugins.zoom.ZoomGlobalConfiguration;
+import io.jenkins.plugins.zoom.model.BuildReport;
+import io.jenkins.plugins.zoom.model.DigestReport;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects build reports per webhook and sends them as a single {@link DigestReport}. Reports share a digest only if
+ * they go to the same webhook with the same token, proxy setting and retry policy.
+ *
+ * <p>With the outbox enabled, each collected report is journaled as its own notification until the digest that
+ * contains it is dispatched, so a crash while a digest is open sends the builds individually after the restart.
+ */
+@Slf4j
+public final class DigestAggregator {
+
+    public static final String STATUS_DIGEST = "Digest";
+
+    static final String DIGESTS_FLUSHED = "zoom-digests-flushed";
+
+    private static final DigestAggregator INSTANCE = new DigestAggregator(
+            notification -> NotificationDispatcher.get().dispatch(notification), NotificationOutbox::get);
+
+    private final Consumer<Notification> dispatcher;
+    private final Supplier<NotificationOutbox> outbox;
+
+    /** Open digests by webhook settings, guarded by {@code this}. */
+    private final Map<Key, Digest> digests = new HashMap<>();
+
+    /**
+     * @param dispatcher queues the digests for sending
+     * @param outbox     journal of the reports collected in open digests
+     */
+    DigestAggregator(Consumer<Notification> dispatcher, Supplier<NotificationOutbox> outbox) {
+        this.dispatcher = dispatcher;
+        this.outbox = outbox;
+    }
+
+    public static DigestAggregator get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds a report to the open digest of the webhook settings, starting a new digest if there is none.
+     */
+    public void add(
+            String webhookUrl,
+            Secret authToken,
+            boolean jenkinsProxyUsed,
+            RetryPolicy retryPolicy,
+            DigestMode mode,
+            BuildReport report) {
+        Notification entry = journal(webhookUrl, authToken, jenkinsProxyUsed, retryPolicy, report);
+        Key key = new Key(webhookUrl, authToken, jenkinsProxyUsed, retryPolicy);
+        Digest full = null;
+        synchronized (this) {
+            Digest digest = digests.get(key);
+            if (digest == null) {
+                digest = new Digest(key);
+                digests.put(key, digest);
+                Digest scheduled = digest;
+                Timer.get().schedule(() -> flush(scheduled), mode.getWindowSeconds(), TimeUnit.SECONDS);
+            }
+            digest.reports.add(report);
+            if (entry != null) {
+                digest.entries.add(entry);
+            }
+            if (digest.reports.size() >= mode.getMaxEvents()) {
+                digests.remove(key);
+                full = digest;
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+    }
+
+    /**
+     * @return the report journaled as a single notification, or null if the outbox is disabled
+     */
+    private Notification journal(
+            String webhookUrl,
+            Secret authToken,
+            boolean jenkinsProxyUsed,
+            RetryPolicy retryPolicy,
+            BuildReport report) {
+        if (!ZoomGlobalConfiguration.get().isOutboxEnabled()) {
+            return null;
+        }
+        Notification entry = new Notification(
+                webhookUrl,
+                authToken,
+                jenkinsProxyUsed,
+                Payload.of(report),
+                "digest entry of " + report.getName(),
+                retryPolicy);
+        try {
+            outbox.get().append(entry);
+        } catch (IOException e) {
+            log.warn("Failed to write {} to the outbox, it will not survive a restart", entry, e);
+        }
+        return entry;
+    }
+
+    public synchronized int getOpenDigests() {
+        return digests.size();
+    }
+
+    private void flush(Digest digest) {
+        synchronized (this) {
+            if (digests.get(digest.key) != digest) {
+                // already sent because it was full
+                return;
+            }
+            digests.remove(digest.key);
+        }
+        send(digest);
+    }
+
+    private void send(Digest digest) {
+        DigestReport report = render(digest.reports);
+        Key key = digest.key;
+        Notification notification = new Notification(
+                key.webhookUrl,
+                key.authToken,
+                key.jenkinsProxyUsed,
+                Payload.of(report),
+                "digest of " + digest.reports.size() + " builds",
+                key.retryPolicy);
+        log.debug("Sending {}", notification);
+        dispatcher.accept(notification);
+        // the digest is journaled now and replaces its entries
+        for (Notification entry : digest.entries) {
+            outbox.get().acknowledge(entry);
+        }
+    }
+
+    static DigestReport render(List<BuildReport> reports) {
+        DigestReport digest = new DigestReport();
+        digest.setName(reports.size() == 1 ? "1 build" : reports.size() + " builds");
+        digest.setStatus(STATUS_DIGEST);
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        digest.setFullUrl(jenkins == null ? null : jenkins.getRootUrl());
+        for (BuildReport report : reports) {
+            digest.addBuild(report);
+        }
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, List<DigestReport.Entry>> group : digest.getBuilds().entrySet()) {
+            if (summary.length() > 0) {
+                summary.append('\n');
+            }
+            summary.append(group.getKey())
+                    .append(" (")
+                    .append(group.getValue().size())
+                    .append("): ");
+            String separator = "";
+            for (DigestReport.Entry entry : group.getValue()) {
+                summary.append(separator);
+                if (entry.getFullUrl() != null) {
+                    summary.append('<')
+                            .append(entry.getFullUrl())
+                            .append('|')
+                            .append(entry.getName())
+                            .append('>');
+                } else {
+                    summary.append(entry.getName());
+                }
+                separator = ", ";
+            }
+        }
+        digest.setSummary(summary.toString());
+        return digest;
+    }
+
+    /**
+     * Sends the open digests before Jenkins stops, so their builds are not replayed one by one after the restart.
+     */
+    @Terminator(requires = ReportRenderer.REPORTS_RENDERED, attains = DIGESTS_FLUSHED)
+    public static void flushAll() {
+        INSTANCE.close();
+    }
+
+    /**
+     * Sends the open digests now.
+     */
+    void close() {
+        List<Digest> open;
+        synchronized (this) {
+            open = new ArrayList<>(digests.values());
+            digests.clear();
+        }
+        for (Digest digest : open) {
+            send(digest);
+        }
+    }
+
+    /**
+     * The webhook settings a digest is sent with. The token is compared as a {@link Secret} and left out of the hash.
+     */
+    private static final class Key {
+        private final String webhookUrl;
+        private final Secret authToken;
+        private final boolean jenkinsProxyUsed;
+        private final RetryPolicy retryPolicy;
+
+        Key(String webhookUrl, Secret authToken, boolean jenkinsProxyUsed, RetryPolicy retryPolicy) {
+            this.webhookUrl = webhookUrl;
+            this.authToken = authToken;
+            this.jenkinsProxyUsed = jenkinsProxyUsed;
+            this.retryPolicy = retryPolicy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return jenkinsProxyUsed == that.jenkinsProxyUsed
+                    && Objects.equals(webhookUrl, that.webhookUrl)
+                    && Objects.equals(authToken, that.authToken)
+                    && Objects.equals(retryPolicy, that.retryPolicy);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(webhookUrl, jenkinsProxyUsed, retryPolicy);
+        }
+    }
+
+    private static final class Digest {
+        private final Key key;
+        private final List<BuildReport> reports = new ArrayList<>();
+        /** The reports journaled as single notifications. */
+        private final List<Notification> entries = new ArrayList<>();
+
+        Digest(Key key) {
+            this.key = key;
+        }
+    }
+}
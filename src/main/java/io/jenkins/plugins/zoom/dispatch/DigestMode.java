@@ -0,0 +1,48 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Buffers the build events sent to a webhook and sends them as one message per window.
+ */
+public class DigestMode extends AbstractDescribableImpl<DigestMode> {
+
+    public static final int DEFAULT_WINDOW_SECONDS = 300;
+    public static final int DEFAULT_MAX_EVENTS = 50;
+
+    private int windowSeconds = DEFAULT_WINDOW_SECONDS;
+    private int maxEvents = DEFAULT_MAX_EVENTS;
+
+    @DataBoundConstructor
+    public DigestMode() {}
+
+    public int getWindowSeconds() {
+        return windowSeconds > 0 ? windowSeconds : DEFAULT_WINDOW_SECONDS;
+    }
+
+    public int getMaxEvents() {
+        return maxEvents > 0 ? maxEvents : DEFAULT_MAX_EVENTS;
+    }
+
+    @DataBoundSetter
+    public void setWindowSeconds(int windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    @DataBoundSetter
+    public void setMaxEvents(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<DigestMode> {
+        @Override
+        public String getDisplayName() {
+            return "Digest mode";
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+/**
+ * What the dispatcher does with a new notification when its queue is full and holds no notification of lower
+ * {@link NotificationPriority} to shed instead.
+ */
+public enum DropPolicy {
+    DROP_OLDEST("Drop the oldest queued notification of the same priority"),
+    DROP_NEWEST("Drop the new notification"),
+    CALLER_RUNS("Send the new notification on the calling thread");
+
+    private final String displayName;
+
+    DropPolicy(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,144 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import hudson.util.Secret;
+import io.jenkins.plugins.zoom.NotifyResult;
+import io.jenkins.plugins.zoom.Payload;
+import java.util.concurrent.CompletableFuture;
+import lombok.Getter;
+
+/**
+ * A notification captured on the build thread, waiting to be sent by the {@link NotificationDispatcher}.
+ */
+@Getter
+public class Notification {
+
+    /**
+     * What a notification reports, which decides whether a newer notification makes it redundant.
+     */
+    public enum Kind {
+        /** A message of its own, such as one of the {@code zoomSend} step, never replaced. */
+        MESSAGE,
+        /** The start of a build, replaced by the result of the build while both are queued. */
+        BUILD_START,
+        /** The result of a build. */
+        BUILD_RESULT
+    }
+
+    private final String webhookUrl;
+    private final Secret authToken;
+    private final boolean jenkinsProxyUsed;
+    private final Payload payload;
+    private final String source;
+    private final long createdAt;
+    private final RetryPolicy retryPolicy;
+    private final CompletableFuture<NotifyResult> completion = new CompletableFuture<>();
+    private volatile long outboxId = -1;
+    private volatile int attempts;
+    private volatile long firstAttemptAt;
+    private volatile String agent;
+    private volatile NotificationPriority priority = NotificationPriority.ROUTINE;
+    private volatile Kind kind = Kind.MESSAGE;
+
+    public Notification(
+            String webhookUrl, Secret authToken, boolean jenkinsProxyUsed, String message, String source) {
+        this(webhookUrl, authToken, jenkinsProxyUsed, message, source, null);
+    }
+
+    /**
+     * @param retryPolicy retry policy overriding the global one, or null
+     */
+    public Notification(
+            String webhookUrl,
+            Secret authToken,
+            boolean jenkinsProxyUsed,
+            String message,
+            String source,
+            RetryPolicy retryPolicy) {
+        this(webhookUrl, authToken, jenkinsProxyUsed, Payload.ofJson(message), source, retryPolicy);
+    }
+
+    /**
+     * @param payload     report to send, serialized only when it is journaled or sent
+     * @param retryPolicy retry policy overriding the global one, or null
+     */
+    public Notification(
+            String webhookUrl,
+            Secret authToken,
+            boolean jenkinsProxyUsed,
+            Payload payload,
+            String source,
+            RetryPolicy retryPolicy) {
+        this(webhookUrl, authToken, jenkinsProxyUsed, payload, source, retryPolicy, System.currentTimeMillis());
+    }
+
+    Notification(
+            String webhookUrl,
+            Secret authToken,
+            boolean jenkinsProxyUsed,
+            Payload payload,
+            String source,
+            RetryPolicy retryPolicy,
+            long createdAt) {
+        this.webhookUrl = webhookUrl;
+        this.authToken = authToken;
+        this.jenkinsProxyUsed = jenkinsProxyUsed;
+        this.payload = payload;
+        this.source = source;
+        this.retryPolicy = retryPolicy;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * @return the serialized JSON message
+     */
+    public String getMessage() {
+        return payload.toString();
+    }
+
+    /**
+     * @return number of attempts made, including this one
+     */
+    int recordAttempt() {
+        if (attempts == 0) {
+            firstAttemptAt = System.currentTimeMillis();
+        }
+        return ++attempts;
+    }
+
+    /**
+     * Sends the notification from an agent instead of the controller. Not journaled, a replayed notification is sent
+     * from the controller.
+     *
+     * @param agent name of the agent that ran the build, or null
+     */
+    public void setAgent(String agent) {
+        this.agent = agent;
+    }
+
+    /**
+     * @param priority rank of the notification in the dispatch queue, not journaled
+     */
+    public void setPriority(NotificationPriority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * @param kind what the notification reports, not journaled
+     */
+    public void setKind(Kind kind) {
+        this.kind = kind;
+    }
+
+    void setOutboxId(long outboxId) {
+        this.outboxId = outboxId;
+    }
+
+    boolean isJournaled() {
+        return outboxId >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Notification[" + source + " -> " + webhookUrl + "]";
+    }
+}
@@ -0,0 +1,525 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.zoom.AgentNotifyClient;
+import io.jenkins.plugins.zoom.NotifyClient;
+import io.jenkins.plugins.zoom.NotifyResult;
+import io.jenkins.plugins.zoom.Permits;
+import io.jenkins.plugins.zoom.ZoomGlobalConfiguration;
+import io.jenkins.plugins.zoom.endpoint.DedupWindow;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoint;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoints;
+import io.jenkins.plugins.zoom.metrics.ZoomMetrics;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import jenkins.util.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Plugin-wide queue that sends notifications off the build executor.
+ * The queue depth, worker pool size and drop policy come from {@link ZoomGlobalConfiguration}.
+ * Failed attempts are retried according to a {@link RetryPolicy}, scheduled on the Jenkins timer.
+ * Workers only hand notifications to the {@link NotifyClient}; with a non-blocking transport they do not wait for the
+ * response, which is handled back on a worker when it arrives. Each send holds one of
+ * {@link ZoomGlobalConfiguration#getMaxInFlight()} permits until its response arrives, and workers wait for a permit,
+ * so notifications beyond that stay in the queue where its capacity and drop policy apply.
+ * Queued notifications are sent by {@link NotificationPriority}, oldest first within a priority, and a full queue
+ * sheds the lowest priority first.
+ */
+@Slf4j
+public final class NotificationDispatcher {
+
+    public static final String DISPATCHER_STOPPED = "zoom-dispatcher-stopped";
+
+    private static final NotificationDispatcher INSTANCE =
+            new NotificationDispatcher(AgentNotifyClient::forNode, NotificationOutbox::get);
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final long IN_FLIGHT_POLL_MILLIS = 50;
+    private static final int INITIAL_QUEUE_CAPACITY = 64;
+    private static final int SHED_ATTEMPTS = 3;
+
+    private final Function<String, NotifyClient> clients;
+    private final Supplier<NotificationOutbox> outbox;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Permits sendPermits = new Permits();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<NotificationPriority, AtomicLong> shed = new EnumMap<>(NotificationPriority.class);
+
+    /**
+     * @param clients client sending from the named agent, or from the controller if the name is null
+     * @param outbox  journal of the notifications that were not delivered yet
+     */
+    NotificationDispatcher(Function<String, NotifyClient> clients, Supplier<NotificationOutbox> outbox) {
+        this.clients = clients;
+        this.outbox = outbox;
+        int workers = ZoomGlobalConfiguration.DEFAULT_WORKER_THREADS;
+        executor = new ThreadPoolExecutor(
+                workers,
+                workers,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(INITIAL_QUEUE_CAPACITY, NotificationDispatcher::compareTasks),
+                new NamingThreadFactory(new DaemonThreadFactory(), "ZoomNotificationDispatcher"));
+        executor.allowCoreThreadTimeOut(true);
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            shed.put(priority, new AtomicLong());
+        }
+    }
+
+    public static NotificationDispatcher get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues a notification for sending.
+     *
+     * @param notification notification to send
+     * @return completed with the result of the last attempt, or immediately if the notification was dropped
+     */
+    public CompletableFuture<NotifyResult> dispatch(Notification notification) {
+        return dispatch(notification, true);
+    }
+
+    /**
+     * Queues a notification like {@link #dispatch(Notification)}, but never sends it on the calling thread: with
+     * {@link DropPolicy#CALLER_RUNS} it is dropped when the queue is full. For threads that do other work in the
+     * background, such as the report rendering threads.
+     *
+     * @param notification notification to send
+     * @return completed with the result of the last attempt, or immediately if the notification was dropped
+     */
+    public CompletableFuture<NotifyResult> enqueue(Notification notification) {
+        return dispatch(notification, false);
+    }
+
+    /**
+     * @param callerRuns whether a full queue sends the notification on the calling thread with
+     *     {@link DropPolicy#CALLER_RUNS}
+     */
+    private CompletableFuture<NotifyResult> dispatch(Notification notification, boolean callerRuns) {
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        resize(config.getWorkerThreads());
+        sendPermits.resize(config.getMaxInFlight());
+        if (!notification.isJournaled() && isDuplicate(notification)) {
+            log.info("Suppressing {}, the same message was sent to the webhook recently", notification);
+            notification.getCompletion().complete(NotifyResult.notSent("duplicate of a recent notification"));
+            return notification.getCompletion();
+        }
+        if (config.isOutboxEnabled() && !notification.isJournaled()) {
+            journal(notification);
+        }
+        if (!reserve(config.getQueueCapacity())) {
+            DropPolicy policy = config.getDropPolicy();
+            if (shedFor(notification, policy)) {
+                pending.incrementAndGet();
+            } else if (policy == DropPolicy.CALLER_RUNS && callerRuns) {
+                log.warn("Dispatch queue is full, sending {} on the calling thread", notification);
+                attempt(notification);
+                return notification.getCompletion();
+            } else {
+                drop(notification, "dispatch queue is full");
+                return notification.getCompletion();
+            }
+        }
+        try {
+            executor.execute(new DispatchTask(notification));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            log.warn("Dispatcher is shut down, {} stays in the outbox", notification);
+            notification.getCompletion().complete(NotifyResult.notSent("dispatcher is shut down"));
+        }
+        return notification.getCompletion();
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return queued starts of a build replaced by the result of the build to the same webhook
+     */
+    public long getMerged() {
+        return merged.get();
+    }
+
+    /**
+     * @return notifications dropped from a full queue, by priority
+     */
+    public Map<NotificationPriority, Long> getShed() {
+        Map<NotificationPriority, Long> counts = new EnumMap<>(NotificationPriority.class);
+        shed.forEach((priority, count) -> counts.put(priority, count.get()));
+        return counts;
+    }
+
+    public long getRetried() {
+        return retried.get();
+    }
+
+    public int getActiveWorkers() {
+        return executor.getActiveCount();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return sends allowed in flight at once
+     */
+    public int getMaxInFlight() {
+        return sendPermits.getLimit();
+    }
+
+    /**
+     * Checks the payload against the dedup window of the webhook. A payload that is not a duplicate is recorded, and
+     * forgotten again if it is not delivered, so an identical notification sent after a failure or a drop goes out.
+     * Retries do not come through here, and replayed notifications were checked before the restart.
+     */
+    private static boolean isDuplicate(Notification notification) {
+        if (notification.getWebhookUrl() == null || notification.getPayload().isEmpty()) {
+            return false;
+        }
+        WebhookEndpoint endpoint = WebhookEndpoints.get(notification.getWebhookUrl());
+        DedupWindow window = endpoint.getDedupWindow();
+        if (window.getWindowMillis() <= 0) {
+            return false;
+        }
+        long hash = notification.getPayload().hash();
+        if (!window.isDuplicate(hash, System.currentTimeMillis())) {
+            notification.getCompletion().whenComplete((result, failure) -> {
+                if (failure != null || !result.isSuccess()) {
+                    window.forget(hash);
+                }
+            });
+            return false;
+        }
+        endpoint.getMetrics().recordSuppressed();
+        ZoomMetrics.get().getAll().recordSuppressed();
+        return true;
+    }
+
+    private boolean reserve(int capacity) {
+        while (true) {
+            int current = pending.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (pending.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Makes room in the full queue for a new notification. A queued start of the build whose result is the new
+     * notification is replaced first, then the oldest notification of the lowest priority if it
+     * is below the new one, or equal to it when the oldest are dropped.
+     *
+     * @return whether a queued notification was removed, false if the new one should not be queued
+     */
+    private boolean shedFor(Notification incoming, DropPolicy policy) {
+        for (int i = 0; i < SHED_ATTEMPTS; i++) {
+            DispatchTask superseded = null;
+            DispatchTask lowest = null;
+            for (Runnable queued : executor.getQueue()) {
+                if (!(queued instanceof DispatchTask)) {
+                    continue;
+                }
+                DispatchTask task = (DispatchTask) queued;
+                if (superseded == null && supersedes(incoming, task.notification)) {
+                    superseded = task;
+                }
+                if (lowest == null
+                        || task.priority.compareTo(lowest.priority) < 0
+                        || (task.priority == lowest.priority && task.sequence < lowest.sequence)) {
+                    lowest = task;
+                }
+            }
+            DispatchTask victim;
+            if (superseded != null) {
+                victim = superseded;
+            } else if (lowest != null
+                    && (lowest.priority.compareTo(incoming.getPriority()) < 0
+                            || (lowest.priority == incoming.getPriority() && policy == DropPolicy.DROP_OLDEST))) {
+                victim = lowest;
+            } else {
+                return false;
+            }
+            // a worker may have taken it in the meantime, then look again
+            if (executor.getQueue().remove(victim)) {
+                pending.decrementAndGet();
+                if (victim == superseded) {
+                    merged.incrementAndGet();
+                    log.info("Dispatch queue is full, {} replaces {}", incoming, victim.notification);
+                    outbox.get().acknowledge(victim.notification);
+                    victim.notification
+                            .getCompletion()
+                            .complete(NotifyResult.notSent("replaced by the result of the build"));
+                } else {
+                    drop(victim.notification, "shed from a full dispatch queue");
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the queued notification is made redundant by the new one, which is only the case for the start
+     * of a build and its result to the same webhook
+     */
+    private static boolean supersedes(Notification incoming, Notification queued) {
+        return queued.getKind() == Notification.Kind.BUILD_START
+                && incoming.getKind() == Notification.Kind.BUILD_RESULT
+                && incoming.getSource() != null
+                && incoming.getSource().equals(queued.getSource())
+                && incoming.getWebhookUrl() != null
+                && incoming.getWebhookUrl().equals(queued.getWebhookUrl());
+    }
+
+    private void drop(Notification notification, String reason) {
+        dropped.incrementAndGet();
+        shed.get(notification.getPriority()).incrementAndGet();
+        log.warn("Dispatch queue is full, dropping {} ({})", notification, notification.getPriority());
+        outbox.get().acknowledge(notification);
+        notification.getCompletion().complete(NotifyResult.notSent(reason));
+    }
+
+    /**
+     * Orders the executor queue: handling of responses first, then notifications by priority and age.
+     */
+    private static int compareTasks(Runnable a, Runnable b) {
+        boolean dispatchA = a instanceof DispatchTask;
+        boolean dispatchB = b instanceof DispatchTask;
+        if (!dispatchA || !dispatchB) {
+            return Boolean.compare(dispatchA, dispatchB);
+        }
+        DispatchTask taskA = (DispatchTask) a;
+        DispatchTask taskB = (DispatchTask) b;
+        int byPriority = taskB.priority.compareTo(taskA.priority);
+        return byPriority != 0 ? byPriority : Long.compare(taskA.sequence, taskB.sequence);
+    }
+
+    private void journal(Notification notification) {
+        try {
+            outbox.get().append(notification);
+        } catch (IOException e) {
+            log.warn("Failed to write {} to the outbox, it will not survive a restart", notification, e);
+        }
+    }
+
+    private synchronized void resize(int workers) {
+        if (executor.getMaximumPoolSize() == workers) {
+            return;
+        }
+        if (workers > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(workers);
+            executor.setCorePoolSize(workers);
+        } else {
+            executor.setCorePoolSize(workers);
+            executor.setMaximumPoolSize(workers);
+        }
+        log.info("Resized Zoom dispatcher to {} worker threads", workers);
+    }
+
+    private void attempt(Notification notification) {
+        WebhookEndpoint endpoint = WebhookEndpoints.find(notification.getWebhookUrl());
+        long wait = endpoint == null ? 0 : endpoint.getRateLimiter().peekWait(System.nanoTime());
+        if (wait > 0) {
+            // the webhook has no tokens left, wait on the timer instead of parking a worker
+            Timer.get().schedule(() -> requeue(notification), wait, TimeUnit.NANOSECONDS);
+            return;
+        }
+        try {
+            sendPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting to send {}, it stays in the outbox", notification);
+            notification.getCompletion().complete(NotifyResult.notSent("dispatcher is shut down"));
+            return;
+        }
+        int attempts = notification.recordAttempt();
+        CompletableFuture<NotifyResult> sent;
+        try {
+            sent = clients.apply(notification.getAgent())
+                    .send(
+                            notification.getWebhookUrl(),
+                            notification.getAuthToken(),
+                            notification.isJenkinsProxyUsed(),
+                            notification.getPayload());
+        } catch (RuntimeException e) {
+            sendPermits.release();
+            throw e;
+        }
+        inFlight.incrementAndGet();
+        // released on the thread completing the send, as the workers may all be waiting for a permit
+        sent.whenComplete((result, failure) -> sendPermits.release());
+        // a blocking transport completes on this worker, an async one on an I/O thread that must not touch the outbox
+        Executor completion = sent.isDone() ? Runnable::run : this::runCompletion;
+        sent.whenCompleteAsync(
+                (result, failure) -> {
+                    inFlight.decrementAndGet();
+                    if (failure != null) {
+                        log.error("Unexpected error sending {}", notification, failure);
+                        outbox.get().acknowledge(notification);
+                        notification.getCompletion().completeExceptionally(failure);
+                    } else {
+                        onResult(notification, attempts, result);
+                    }
+                },
+                completion);
+    }
+
+    private void onResult(Notification notification, int attempts, NotifyResult result) {
+        if (result.isSuccess()) {
+            outbox.get().acknowledge(notification);
+            notification.getCompletion().complete(result);
+            return;
+        }
+        RetryPolicy policy = notification.getRetryPolicy() != null
+                ? notification.getRetryPolicy()
+                : ZoomGlobalConfiguration.get().getRetryPolicy();
+        long delay = policy.nextDelayMillis(attempts, notification.getFirstAttemptAt(), result);
+        if (delay < 0) {
+            log.warn("Giving up on {} after {} attempts, last attempt {}", notification, attempts, result);
+            deadLetter(notification, attempts, result);
+            // it will not be retried, not even after a restart
+            outbox.get().acknowledge(notification);
+            notification.getCompletion().complete(result);
+            return;
+        }
+        retried.incrementAndGet();
+        log.info("Retrying {} in {} ms, attempt {} {}", notification, delay, attempts, result);
+        Timer.get().schedule(() -> requeue(notification), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Keeps a notification that is given up on in the dead-letter queue, if it is enabled, before the caller removes
+     * it from the outbox. Notifications that never reached the client, such as those with an invalid URL, are not
+     * kept.
+     */
+    private static void deadLetter(Notification notification, int attempts, NotifyResult result) {
+        int capacity = ZoomGlobalConfiguration.get().getDeadLetterCapacity();
+        if (capacity <= 0 || !result.isSent()) {
+            return;
+        }
+        DeadLetterQueue.get().add(notification, attempts, result, capacity);
+    }
+
+    /**
+     * Handles a response on a worker, or on the calling thread once the workers are shut down.
+     */
+    private void runCompletion(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * Puts a notification due for retry back in the queue. Retries are never dropped, they were accepted already.
+     */
+    private void requeue(Notification notification) {
+        pending.incrementAndGet();
+        try {
+            executor.execute(new DispatchTask(notification));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            log.warn("Dispatcher is shut down, not retrying {}", notification);
+            notification.getCompletion().complete(NotifyResult.notSent("dispatcher is shut down"));
+        }
+    }
+
+    /**
+     * Sends the notifications left in the outbox by the previous controller run.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void replayOutbox() {
+        if (!ZoomGlobalConfiguration.get().isOutboxEnabled()) {
+            return;
+        }
+        try {
+            List<Notification> unsent = NotificationOutbox.get().recover();
+            if (!unsent.isEmpty()) {
+                log.info("Replaying {} Zoom notifications from the outbox", unsent.size());
+            }
+            for (Notification notification : unsent) {
+                INSTANCE.dispatch(notification);
+            }
+        } catch (IOException e) {
+            log.error("Failed to read the Zoom notification outbox", e);
+        }
+    }
+
+    @Terminator(requires = DigestAggregator.DIGESTS_FLUSHED, attains = DISPATCHER_STOPPED)
+    public static void shutdown() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+        INSTANCE.executor.shutdown();
+        if (!INSTANCE.executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("{} Zoom notifications were not sent before shutdown", INSTANCE.pending.get());
+        }
+        // responses of an async transport are handled on the calling thread from now on
+        while (INSTANCE.inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(IN_FLIGHT_POLL_MILLIS);
+        }
+        if (INSTANCE.inFlight.get() > 0) {
+            log.warn("{} Zoom notifications were still in flight at shutdown", INSTANCE.inFlight.get());
+        }
+        try {
+            NotificationOutbox.get().close();
+        } catch (IOException e) {
+            log.warn("Failed to close the Zoom notification outbox", e);
+        }
+    }
+
+    private class DispatchTask implements Runnable {
+        private final Notification notification;
+        private final NotificationPriority priority;
+        private final long sequence = NotificationDispatcher.this.sequence.incrementAndGet();
+        private final long queuedAt = System.nanoTime();
+
+        DispatchTask(Notification notification) {
+            this.notification = notification;
+            this.priority = notification.getPriority();
+        }
+
+        @Override
+        public void run() {
+            pending.decrementAndGet();
+            ZoomMetrics.get().getQueueWait().recordNanos(System.nanoTime() - queuedAt);
+            try {
+                attempt(notification);
+            } catch (RuntimeException e) {
+                log.error("Unexpected error sending {}", notification, e);
+                notification.getCompletion().completeExceptionally(e);
+            }
+        }
+    }
+}
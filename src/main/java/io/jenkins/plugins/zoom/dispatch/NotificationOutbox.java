@@ -0,0 +1,341 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import hudson.util.Secret;
+import io.jenkins.plugins.zoom.Payload;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import jenkins.model.Jenkins;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of notifications that have not been delivered yet.
+ *
+ * <p>Every notification is written to the current segment before it is dispatched, and an acknowledgement
+ * record is appended once Zoom answers with HTTP 200. Entries without an acknowledgement are replayed at
+ * startup. When a segment fills up, the older segments are compacted by copying their few live entries
+ * forward and deleting the files.
+ */
+@Slf4j
+public final class NotificationOutbox {
+
+    static final String DIRECTORY = "zoom-outbox";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final long DEFAULT_SEGMENT_SIZE = 4L * 1024 * 1024;
+    private static final byte PUT = 1;
+    private static final byte ACK = 2;
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private static NotificationOutbox instance;
+
+    private final File directory;
+    private final long segmentSize;
+    /** Segment number holding the latest copy of each unacknowledged entry. */
+    private final Map<Long, Long> liveEntries = new HashMap<>();
+
+    private long nextId;
+    private long currentSegment = -1;
+    private long currentSize;
+    private OutputStream out;
+
+    NotificationOutbox(File directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    public static synchronized NotificationOutbox get() {
+        if (instance == null) {
+            instance = new NotificationOutbox(new File(Jenkins.get().getRootDir(), DIRECTORY), DEFAULT_SEGMENT_SIZE);
+        }
+        return instance;
+    }
+
+    /**
+     * Reads the existing segments and opens a fresh one for writing.
+     *
+     * @return notifications that were never acknowledged, oldest first
+     */
+    public synchronized List<Notification> recover() throws IOException {
+        closeSegment();
+        liveEntries.clear();
+        Files.createDirectories(directory.toPath());
+        Map<Long, Notification> pending = new LinkedHashMap<>();
+        long lastSegment = -1;
+        for (File segment : segments()) {
+            long number = segmentNumber(segment);
+            lastSegment = Math.max(lastSegment, number);
+            readSegment(segment, (type, id, body) -> {
+                nextId = Math.max(nextId, id + 1);
+                if (type == PUT) {
+                    pending.put(id, decode(id, body));
+                    liveEntries.put(id, number);
+                } else {
+                    pending.remove(id);
+                    liveEntries.remove(id);
+                }
+            });
+        }
+        // never append after a tail that may have been torn by a crash
+        openSegment(lastSegment + 1);
+        compact();
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Journals a notification and assigns its outbox id.
+     */
+    public synchronized void append(Notification notification) throws IOException {
+        ensureOpen();
+        long id = nextId++;
+        writeRecord(encode(PUT, id, notification));
+        liveEntries.put(id, currentSegment);
+        notification.setOutboxId(id);
+        if (currentSize >= segmentSize) {
+            openSegment(currentSegment + 1);
+            compact();
+        }
+    }
+
+    /**
+     * Marks a journaled notification as delivered.
+     */
+    public synchronized void acknowledge(Notification notification) {
+        if (!notification.isJournaled() || liveEntries.remove(notification.getOutboxId()) == null) {
+            return;
+        }
+        try {
+            ensureOpen();
+            writeRecord(encode(ACK, notification.getOutboxId(), null));
+        } catch (IOException e) {
+            log.warn("Failed to acknowledge {} in the outbox, it may be sent again after a restart", notification, e);
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return liveEntries.size();
+    }
+
+    synchronized void close() throws IOException {
+        closeSegment();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (out == null) {
+            recover();
+        }
+    }
+
+    private void compact() throws IOException {
+        for (File segment : segments()) {
+            long number = segmentNumber(segment);
+            if (number >= currentSegment) {
+                continue;
+            }
+            List<byte[]> forward = new ArrayList<>();
+            List<Long> forwardIds = new ArrayList<>();
+            readSegment(segment, (type, id, body) -> {
+                Long holder = liveEntries.get(id);
+                if (type == PUT && holder != null && holder == number) {
+                    forward.add(body);
+                    forwardIds.add(id);
+                }
+            });
+            for (int i = 0; i < forward.size(); i++) {
+                writeRecord(forward.get(i));
+                liveEntries.put(forwardIds.get(i), currentSegment);
+            }
+            Files.delete(segment.toPath());
+            log.debug("Compacted outbox segment {}, {} live entries moved forward", segment.getName(), forward.size());
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        closeSegment();
+        currentSegment = number;
+        currentSize = 0;
+        out = new FileOutputStream(new File(directory, segmentName(number)), true);
+    }
+
+    private void closeSegment() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void writeRecord(byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        byte[] record = new byte[HEADER_SIZE + body.length];
+        writeInt(record, 0, body.length);
+        writeLong(record, Integer.BYTES, crc.getValue());
+        System.arraycopy(body, 0, record, HEADER_SIZE, body.length);
+        out.write(record);
+        currentSize += record.length;
+    }
+
+    private List<File> segments() {
+        File[] files = directory.listFiles(
+                (dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+        return Arrays.asList(files);
+    }
+
+    private static String segmentName(long number) {
+        return String.format("%s%016d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void readSegment(File segment, RecordVisitor visitor) throws IOException {
+        try (InputStream in = Files.newInputStream(segment.toPath());
+                DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            while (true) {
+                int length;
+                try {
+                    length = data.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    log.warn("Ignoring corrupt tail of outbox segment {}", segment.getName());
+                    return;
+                }
+                byte[] body = new byte[length];
+                long checksum;
+                try {
+                    checksum = data.readLong();
+                    data.readFully(body);
+                } catch (EOFException e) {
+                    log.warn("Ignoring truncated record at the end of outbox segment {}", segment.getName());
+                    return;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if (crc.getValue() != checksum) {
+                    log.warn("Ignoring corrupt tail of outbox segment {}", segment.getName());
+                    return;
+                }
+                visitor.visit(body[0], readLong(body, 1), body);
+            }
+        }
+    }
+
+    private static byte[] encode(byte type, long id, Notification notification) throws IOException {
+        byte[] message = notification == null ? null : notification.getPayload().toBytes();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(message == null ? 16 : message.length + 256);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeByte(type);
+        data.writeLong(id);
+        if (notification != null) {
+            Secret token = notification.getAuthToken();
+            writeString(data, notification.getWebhookUrl());
+            writeString(data, token == null ? null : token.getEncryptedValue());
+            data.writeBoolean(notification.isJenkinsProxyUsed());
+            writeString(data, notification.getSource());
+            data.writeLong(notification.getCreatedAt());
+            writeBytes(data, message);
+        }
+        data.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Notification decode(long id, byte[] body) throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(body));
+        data.readByte();
+        data.readLong();
+        String webhookUrl = readString(data);
+        String token = readString(data);
+        boolean jenkinsProxyUsed = data.readBoolean();
+        String source = readString(data);
+        long createdAt = data.readLong();
+        String message = readString(data);
+        Notification notification = new Notification(
+                webhookUrl,
+                token == null ? null : Secret.fromString(token),
+                jenkinsProxyUsed,
+                Payload.ofJson(message),
+                source,
+                null,
+                createdAt);
+        notification.setOutboxId(id);
+        return notification;
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        writeBytes(data, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(DataOutputStream data, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            data.writeInt(-1);
+            return;
+        }
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        for (int i = 0; i < Integer.BYTES; i++) {
+            buffer[offset + i] = (byte) (value >>> (8 * (Integer.BYTES - 1 - i)));
+        }
+    }
+
+    private static void writeLong(byte[] buffer, int offset, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            buffer[offset + i] = (byte) (value >>> (8 * (Long.BYTES - 1 - i)));
+        }
+    }
+
+    private static long readLong(byte[] buffer, int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (buffer[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(byte type, long id, byte[] body) throws IOException;
+    }
+}
@@ -0,0 +1,47 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import hudson.model.ResultTrend;
+import hudson.model.Run;
+import io.jenkins.plugins.zoom.trend.ResultHistories;
+
+/**
+ * Order in which queued notifications are sent, and in reverse in which they are shed when the queue is full.
+ * Declared from the lowest to the highest priority.
+ */
+public enum NotificationPriority {
+    START("Build started"),
+    ROUTINE("Success or unchanged result"),
+    FIXED("Back to normal"),
+    FAILURE("Failure or regression");
+
+    private final String displayName;
+
+    NotificationPriority(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public static NotificationPriority of(ResultTrend trend) {
+        switch (trend) {
+            case FAILURE:
+            case STILL_FAILING:
+            case NOW_UNSTABLE:
+            case UNSTABLE:
+                return FAILURE;
+            case FIXED:
+                return FIXED;
+            default:
+                return ROUTINE;
+        }
+    }
+
+    /**
+     * @return the priority of the build's result so far, routine while no result was set
+     */
+    public static NotificationPriority of(Run<?, ?> run) {
+        return run.getResult() == null ? ROUTINE : of(ResultHistories.trendOf(run));
+    }
+}
@@ -0,0 +1,53 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import io.jenkins.plugins.zoom.NotifyResult;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import javax.net.ssl.SSLException;
+
+/**
+ * Decides which failed attempts are worth retrying.
+ */
+public final class RetryClassifier {
+
+    private RetryClassifier() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Request timeouts, throttling and transient server errors are retryable, other responses are not.
+     * Network failures are retryable except for TLS problems and invalid URLs, which will not fix themselves.
+     */
+    public static boolean isRetryable(NotifyResult result) {
+        if (result.isSuccess() || !result.isSent()) {
+            return false;
+        }
+        if (result.getStatusCode() != NotifyResult.NO_RESPONSE) {
+            return isRetryableStatus(result.getStatusCode());
+        }
+        return isRetryableFailure(result.getFailure());
+    }
+
+    static boolean isRetryableStatus(int statusCode) {
+        switch (statusCode) {
+            case 408: // Request Timeout
+            case 425: // Too Early
+            case 429: // Too Many Requests
+            case 500: // Internal Server Error
+            case 502: // Bad Gateway
+            case 503: // Service Unavailable
+            case 504: // Gateway Timeout
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean isRetryableFailure(Throwable failure) {
+        if (failure instanceof SSLException || failure instanceof MalformedURLException) {
+            return false;
+        }
+        // connection refused, timeouts, resets and DNS failures are usually transient
+        return failure instanceof IOException;
+    }
+}
@@ -0,0 +1,145 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+import io.jenkins.plugins.zoom.NotifyResult;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Jittered exponential backoff for notifications that failed with a retryable error.
+ * A {@code Retry-After} header sent by Zoom is honoured as a lower bound for the next delay.
+ */
+public class RetryPolicy extends AbstractDescribableImpl<RetryPolicy> {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final long DEFAULT_INITIAL_DELAY_MILLIS = 1000;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 60000;
+    public static final double DEFAULT_MULTIPLIER = 2.0;
+    public static final long DEFAULT_DEADLINE_SECONDS = 600;
+
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long initialDelayMillis = DEFAULT_INITIAL_DELAY_MILLIS;
+    private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    private double multiplier = DEFAULT_MULTIPLIER;
+    private long deadlineSeconds = DEFAULT_DEADLINE_SECONDS;
+
+    @DataBoundConstructor
+    public RetryPolicy() {}
+
+    /**
+     * Computes the delay before the next attempt.
+     *
+     * @param attempts       number of attempts made so far
+     * @param firstAttemptAt time of the first attempt in milliseconds
+     * @param result         result of the last attempt
+     * @return delay in milliseconds, or -1 to give up
+     */
+    public long nextDelayMillis(int attempts, long firstAttemptAt, NotifyResult result) {
+        return nextDelayMillis(
+                attempts,
+                firstAttemptAt,
+                result,
+                System.currentTimeMillis(),
+                () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    long nextDelayMillis(int attempts, long firstAttemptAt, NotifyResult result, long now, DoubleSupplier random) {
+        if (attempts >= getMaxAttempts() || !RetryClassifier.isRetryable(result)) {
+            return -1;
+        }
+        double exponential = getInitialDelayMillis() * Math.pow(getMultiplier(), attempts - 1);
+        long base = (long) Math.min(getMaxDelayMillis(), exponential);
+        // equal jitter: keep half of the backoff and randomize the other half
+        long delay = base / 2 + (long) (random.getAsDouble() * (base - base / 2));
+        if (result.getRetryAfterMillis() > delay) {
+            delay = result.getRetryAfterMillis();
+        }
+        if (now + delay > firstAttemptAt + getDeadlineSeconds() * 1000) {
+            return -1;
+        }
+        return delay;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts > 0 ? maxAttempts : DEFAULT_MAX_ATTEMPTS;
+    }
+
+    public long getInitialDelayMillis() {
+        return initialDelayMillis > 0 ? initialDelayMillis : DEFAULT_INITIAL_DELAY_MILLIS;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis > 0 ? maxDelayMillis : DEFAULT_MAX_DELAY_MILLIS;
+    }
+
+    public double getMultiplier() {
+        return multiplier >= 1 ? multiplier : DEFAULT_MULTIPLIER;
+    }
+
+    public long getDeadlineSeconds() {
+        return deadlineSeconds > 0 ? deadlineSeconds : DEFAULT_DEADLINE_SECONDS;
+    }
+
+    @DataBoundSetter
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    @DataBoundSetter
+    public void setInitialDelayMillis(long initialDelayMillis) {
+        this.initialDelayMillis = initialDelayMillis;
+    }
+
+    @DataBoundSetter
+    public void setMaxDelayMillis(long maxDelayMillis) {
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    @DataBoundSetter
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    @DataBoundSetter
+    public void setDeadlineSeconds(long deadlineSeconds) {
+        this.deadlineSeconds = deadlineSeconds;
+    }
+
+    /**
+     * Policies with the same effective settings are equal, so notifications configured alike can share a digest.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RetryPolicy)) {
+            return false;
+        }
+        RetryPolicy that = (RetryPolicy) o;
+        return getMaxAttempts() == that.getMaxAttempts()
+                && getInitialDelayMillis() == that.getInitialDelayMillis()
+                && getMaxDelayMillis() == that.getMaxDelayMillis()
+                && Double.compare(getMultiplier(), that.getMultiplier()) == 0
+                && getDeadlineSeconds() == that.getDeadlineSeconds();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                getMaxAttempts(), getInitialDelayMillis(), getMaxDelayMillis(), getMultiplier(), getDeadlineSeconds());
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<RetryPolicy> {
+        @Override
+        public String getDisplayName() {
+            return "Retry policy";
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package io.jenkins.plugins.zoom.endpoint;
+
+import io.jenkins.plugins.zoom.NotifyResult;
+
+/**
+ * Circuit breaker for one webhook, driven by a sliding window of the most recent outcomes.
+ *
+ * <p>While {@link State#CLOSED} every call goes through. Once the failure rate in the window reaches the
+ * threshold the circuit opens and calls fail fast until the open duration has elapsed. Then a single probe is
+ * let through in {@link State#HALF_OPEN}: its success closes the circuit, its failure opens it again.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /** Ticket of a call that must fail fast. */
+    public static final long REJECTED = -1;
+
+    /** Ticket of an ordinary call, made while the circuit is closed. */
+    public static final long CALL = 0;
+
+    private volatile State state = State.CLOSED;
+    private volatile Settings settings;
+    private boolean[] window;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private boolean probeInFlight;
+    /** Number of the last probe, so that only its outcome decides a half-open circuit. */
+    private long probe;
+    private long rejected;
+    private long opened;
+
+    public CircuitBreaker(Settings settings) {
+        this.settings = settings;
+        this.window = new boolean[settings.getWindowSize()];
+    }
+
+    /**
+     * Whether a call may proceed. Cheap when the circuit is closed.
+     *
+     * @return {@link #REJECTED} if the call must fail fast, otherwise the ticket to pass to {@link #record} or
+     *     {@link #release}: {@link #CALL} for an ordinary call, or the number of the probe of a half-open circuit
+     */
+    public long tryAcquire(long now) {
+        if (state == State.CLOSED) {
+            return CALL;
+        }
+        synchronized (this) {
+            switch (state) {
+                case CLOSED:
+                    return CALL;
+                case OPEN:
+                    if (now - openedAt >= settings.getOpenMillis()) {
+                        state = State.HALF_OPEN;
+                        return startProbe();
+                    }
+                    rejected++;
+                    return REJECTED;
+                case HALF_OPEN:
+                default:
+                    if (!probeInFlight) {
+                        return startProbe();
+                    }
+                    rejected++;
+                    return REJECTED;
+            }
+        }
+    }
+
+    private long startProbe() {
+        probeInFlight = true;
+        return ++probe;
+    }
+
+    /**
+     * Gives back a call allowed by {@link #tryAcquire(long)} that was not made, so another call can probe a half-open
+     * circuit.
+     *
+     * @param ticket returned by {@link #tryAcquire(long)}
+     */
+    public synchronized void release(long ticket) {
+        if (isProbe(ticket)) {
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Records the outcome of a call that was allowed by {@link #tryAcquire(long)}. A call that failed before leaving
+     * Jenkins is given back as by {@link #release(long)} instead.
+     *
+     * <p>Only the probe decides whether a half-open circuit closes or opens again. Calls that were already in flight
+     * when the circuit opened finish later and are ignored until the circuit closes, so they neither flip the state
+     * nor refill the window.
+     *
+     * @param ticket returned by {@link #tryAcquire(long)}
+     */
+    public synchronized void record(long ticket, NotifyResult result, long now) {
+        if (result.isLocalFailure()) {
+            release(ticket);
+            return;
+        }
+        boolean failure = isEndpointFailure(result);
+        if (state == State.HALF_OPEN) {
+            if (!isProbe(ticket)) {
+                return;
+            }
+            probeInFlight = false;
+            if (failure) {
+                open(now);
+            } else {
+                state = State.CLOSED;
+                clearWindow();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        if (calls == window.length && window[next]) {
+            failures--;
+        }
+        window[next] = failure;
+        next = (next + 1) % window.length;
+        calls = Math.min(calls + 1, window.length);
+        if (failure) {
+            failures++;
+        }
+        if (calls >= settings.getMinimumCalls() && failures * 100 >= settings.getFailureRatePercent() * calls) {
+            open(now);
+        }
+    }
+
+    private boolean isProbe(long ticket) {
+        return state == State.HALF_OPEN && probeInFlight && ticket == probe;
+    }
+
+    /**
+     * @return milliseconds until a probe is allowed, or 0 if the circuit is not open
+     */
+    public synchronized long remainingOpenMillis(long now) {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, settings.getOpenMillis() - (now - openedAt));
+    }
+
+    public synchronized void reconfigure(Settings settings) {
+        if (settings.getWindowSize() != window.length) {
+            window = new boolean[settings.getWindowSize()];
+            clearWindow();
+        }
+        this.settings = settings;
+    }
+
+    public synchronized void reset() {
+        state = State.CLOSED;
+        probeInFlight = false;
+        clearWindow();
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public synchronized int getFailureRatePercent() {
+        return calls == 0 ? 0 : failures * 100 / calls;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    public synchronized long getOpened() {
+        return opened;
+    }
+
+    private void open(long now) {
+        state = State.OPEN;
+        openedAt = now;
+        opened++;
+        clearWindow();
+    }
+
+    private void clearWindow() {
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+
+    /**
+     * Network failures, server errors and revoked webhooks count against the endpoint.
+     * Throttling and rejected payloads show that the endpoint is alive.
+     */
+    static boolean isEndpointFailure(NotifyResult result) {
+        int status = result.getStatusCode();
+        if (status == NotifyResult.NO_RESPONSE) {
+            return true;
+        }
+        return status >= 500 || status == 401 || status == 403 || status == 404 || status == 410;
+    }
+
+    /**
+     * Immutable breaker settings.
+     */
+    public static final class Settings {
+        private final int windowSize;
+        private final int minimumCalls;
+        private final int failureRatePercent;
+        private final long openMillis;
+
+        public Settings(int windowSize, int minimumCalls, int failureRatePercent, long openMillis) {
+            this.windowSize = Math.max(1, windowSize);
+            this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+            this.failureRatePercent = failureRatePercent;
+            this.openMillis = openMillis;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public int getFailureRatePercent() {
+            return failureRatePercent;
+        }
+
+        public long getOpenMillis() {
+            return openMillis;
+        }
+    }
+}
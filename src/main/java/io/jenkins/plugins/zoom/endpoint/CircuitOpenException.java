@@ -0,0 +1,15 @@
+package io.jenkins.plugins.zoom.endpoint;
+
+import java.io.IOException;
+
+/**
+ * Reported instead of sending a request while the circuit of a webhook is open.
+ */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,158 @@
+package io.jenkins.plugins.zoom.endpoint;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the 64-bit hashes of the payloads recently sent to a webhook, to suppress identical notifications.
+ * The hashes and their expiry times live in two parallel arrays used as an open-addressing table with linear probing.
+ * Expired entries are only dropped when the table is rebuilt, which keeps lookups free of tombstones.
+ */
+public final class DedupWindow {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_CAPACITY = 1 << 16;
+    private static final long EMPTY = 0;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private volatile long windowMillis;
+
+    /** Guarded by {@code this}, like the other table fields. */
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    private long[] expiries = new long[INITIAL_CAPACITY];
+    private int size;
+    private long suppressed;
+
+    public DedupWindow(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public void configure(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Records a payload, unless the same payload was recorded within the window.
+     *
+     * @param hash      hash of the payload, see {@link #hash(byte[])}
+     * @param nowMillis current time
+     * @return true if the payload is a duplicate that should not be sent
+     */
+    public synchronized boolean isDuplicate(long hash, long nowMillis) {
+        long window = windowMillis;
+        if (window <= 0) {
+            return false;
+        }
+        long key = hash == EMPTY ? 1 : hash;
+        int mask = hashes.length - 1;
+        int slot = spread(key) & mask;
+        while (hashes[slot] != EMPTY) {
+            if (hashes[slot] == key) {
+                if (expiries[slot] > nowMillis) {
+                    suppressed++;
+                    return true;
+                }
+                expiries[slot] = nowMillis + window;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((size + 1) * 2 > hashes.length) {
+            rebuild(nowMillis);
+            insert(key, nowMillis + window);
+        } else {
+            hashes[slot] = key;
+            expiries[slot] = nowMillis + window;
+        }
+        size++;
+        return false;
+    }
+
+    /**
+     * Forgets a payload recorded by {@link #isDuplicate(long, long)} that was not delivered, so an identical
+     * notification can be sent again within the window. The entry stays in the table as expired until it is rebuilt.
+     */
+    public synchronized void forget(long hash) {
+        long key = hash == EMPTY ? 1 : hash;
+        int mask = hashes.length - 1;
+        int slot = spread(key) & mask;
+        while (hashes[slot] != EMPTY) {
+            if (hashes[slot] == key) {
+                expiries[slot] = 0;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Drops the expired entries and grows the table if it is still half full.
+     * A table at its maximum capacity is cleared, the window then restarts for all payloads.
+     */
+    private void rebuild(long nowMillis) {
+        long[] oldHashes = hashes;
+        long[] oldExpiries = expiries;
+        int live = 0;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != EMPTY && oldExpiries[i] > nowMillis) {
+                live++;
+            }
+        }
+        int capacity = oldHashes.length;
+        if ((live + 1) * 2 > capacity) {
+            capacity *= 2;
+        }
+        if (capacity > MAX_CAPACITY) {
+            Arrays.fill(oldHashes, EMPTY);
+            size = 0;
+            return;
+        }
+        hashes = new long[capacity];
+        expiries = new long[capacity];
+        size = 0;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != EMPTY && oldExpiries[i] > nowMillis) {
+                insert(oldHashes[i], oldExpiries[i]);
+                size++;
+            }
+        }
+    }
+
+    private void insert(long key, long expiry) {
+        int mask = hashes.length - 1;
+        int slot = spread(key) & mask;
+        while (hashes[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = key;
+        expiries[slot] = expiry;
+    }
+
+    private static int spread(long key) {
+        return (int) (key ^ (key >>> 32));
+    }
+
+    /**
+     * 64-bit FNV-1a hash of a payload.
+     */
+    public static long hash(byte[] bytes) {
+        Hasher hasher = new Hasher();
+        hasher.write(bytes, 0, bytes.length);
+        return hasher.getHash();
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * @return number of payloads suppressed as duplicates
+     */
+    public synchronized long getSuppressed() {
+        return suppressed;
+    }
+}
@@ -0,0 +1,138 @@
+package io.jenkins.plugins.zoom.endpoint;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free token bucket, implemented as a generic cell rate algorithm over a single atomic timestamp.
+ *
+ * <p>Up to {@code burst} permits are available at once and they refill at {@code permitsPerSecond}.
+ * {@link #reserve(long)} always grants a permit and returns how long the caller must wait before using it,
+ * so concurrent senders are spread out instead of being rejected.
+ */
+public final class RateLimiter {
+
+    /** Time at which the bucket will be full again, in {@link System#nanoTime()} units. */
+    private final AtomicLong theoreticalArrival;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder waitedNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    private volatile long intervalNanos;
+    private volatile long burstToleranceNanos;
+
+    /**
+     * @param permitsPerSecond sustained rate, or 0 for no limit
+     * @param burst            permits available at once
+     */
+    public RateLimiter(double permitsPerSecond, int burst, long now) {
+        this.theoreticalArrival = new AtomicLong(now);
+        configure(permitsPerSecond, burst);
+    }
+
+    public void configure(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            intervalNanos = 0;
+            burstToleranceNanos = 0;
+            return;
+        }
+        long interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        burstToleranceNanos = interval * (Math.max(1, burst) - 1);
+        intervalNanos = interval;
+    }
+
+    /**
+     * Reserves a permit.
+     *
+     * @param now current {@link System#nanoTime()}
+     * @return nanoseconds to wait before the permit may be used
+     */
+    public long reserve(long now) {
+        long interval = intervalNanos;
+        if (interval == 0) {
+            acquired.increment();
+            return 0;
+        }
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long start = arrival - now > 0 ? arrival : now;
+            if (theoreticalArrival.compareAndSet(arrival, start + interval)) {
+                long wait = Math.max(0, start - burstToleranceNanos - now);
+                acquired.increment();
+                if (wait > 0) {
+                    delayed.increment();
+                    waitedNanos.add(wait);
+                    maxWaitNanos.accumulate(wait);
+                }
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Reserves a permit and parks the calling thread until it may be used. Spurious wakeups and interrupts do not end
+     * the wait early, since the permit is taken either way; the interrupt status is restored on return.
+     *
+     * @return nanoseconds the permit had to wait
+     */
+    public long acquire() {
+        long now = System.nanoTime();
+        long wait = reserve(now);
+        long deadline = now + wait;
+        boolean interrupted = false;
+        for (long remaining = wait; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(this, remaining);
+            interrupted |= Thread.interrupted();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return wait;
+    }
+
+    /**
+     * Gives back a permit reserved by {@link #reserve(long)} that was not used, because the request is sent by another
+     * transport that reserves its own.
+     */
+    public void cancel() {
+        long interval = intervalNanos;
+        acquired.decrement();
+        if (interval > 0) {
+            theoreticalArrival.addAndGet(-interval);
+        }
+    }
+
+    /**
+     * How long a permit reserved now would have to wait, without reserving it.
+     */
+    public long peekWait(long now) {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+        long arrival = theoreticalArrival.get();
+        long start = arrival - now > 0 ? arrival : now;
+        return Math.max(0, start - burstToleranceNanos - now);
+    }
+
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    public long getDelayed() {
+        return delayed.sum();
+    }
+
+    public long getAverageWaitMillis() {
+        long count = delayed.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(waitedNanos.sum() / count);
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+}
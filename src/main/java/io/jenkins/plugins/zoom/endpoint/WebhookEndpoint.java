@@ -0,0 +1,102 @@
+package io.jenkins.plugins.zoom.endpoint;
+
+import io.jenkins.plugins.zoom.ZoomGlobalConfiguration;
+import io.jenkins.plugins.zoom.metrics.NotifyMetrics;
+
+/**
+ * Delivery state kept for one webhook URL.
+ */
+public final class WebhookEndpoint {
+
+    private static final int VISIBLE_SUFFIX_CHARS = 4;
+
+    private final String url;
+    private final CircuitBreaker circuitBreaker;
+    private final RateLimiter rateLimiter;
+    private final DedupWindow dedupWindow;
+    private final NotifyMetrics metrics = new NotifyMetrics();
+
+    /** Set when the webhook refused a gzip body, cleared when the settings change. */
+    private volatile boolean gzipRejected;
+
+    /** {@link System#currentTimeMillis()} of the last lookup for a send. */
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    WebhookEndpoint(String url, ZoomGlobalConfiguration config) {
+        this.url = url;
+        this.circuitBreaker = new CircuitBreaker(config.getCircuitBreakerSettings());
+        this.rateLimiter = new RateLimiter(config.getRateLimit(), config.getRateLimitBurst(), System.nanoTime());
+        this.dedupWindow = new DedupWindow(config.getDedupWindowSeconds() * 1000L);
+    }
+
+    void reconfigure(ZoomGlobalConfiguration config) {
+        circuitBreaker.reconfigure(config.getCircuitBreakerSettings());
+        rateLimiter.configure(config.getRateLimit(), config.getRateLimitBurst());
+        dedupWindow.configure(config.getDedupWindowSeconds() * 1000L);
+        gzipRejected = false;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * The webhook URL with the secret part of its last path segment hidden, for display.
+     */
+    public String getDisplayName() {
+        return displayNameOf(url);
+    }
+
+    /**
+     * @return the URL with the secret part of its last path segment hidden, for display
+     */
+    public static String displayNameOf(String url) {
+        if (url == null) {
+            return null;
+        }
+        int slash = url.lastIndexOf('/');
+        if (slash < 0 || url.length() - slash - 1 <= VISIBLE_SUFFIX_CHARS) {
+            return url;
+        }
+        return url.substring(0, slash + 1 + VISIBLE_SUFFIX_CHARS) + "…";
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public DedupWindow getDedupWindow() {
+        return dedupWindow;
+    }
+
+    /**
+     * @return false once the webhook rejected a gzip body, so later bodies are sent uncompressed
+     */
+    public boolean isGzipAccepted() {
+        return !gzipRejected;
+    }
+
+    public void rejectGzip() {
+        gzipRejected = true;
+    }
+
+    public NotifyMetrics getMetrics() {
+        return metrics;
+    }
+
+    void touch(long now) {
+        lastUsed = now;
+    }
+
+    /**
+     * @return whether the webhook was not used for the given time and keeps no state worth remembering, which is an
+     *     open circuit
+     */
+    boolean isIdle(long now, long idleMillis) {
+        return now - lastUsed >= idleMillis && circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+    }
+}
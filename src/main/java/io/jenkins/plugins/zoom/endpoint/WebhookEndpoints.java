@@ -0,0 +1,92 @@
+package io.jenkins.plugins.zoom.endpoint;
+
+import hudson.Extension;
+import hudson.model.PeriodicWork;
+import io.jenkins.plugins.zoom.ZoomGlobalConfiguration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of the webhooks notifications have been sent to, keyed by URL.
+ * Webhooks not used for {@value #IDLE_HOURS} hours are forgotten, unless their circuit is open, so URLs that are no
+ * longer configured, or were only used once by a {@code zoomSend} step, do not pile up.
+ */
+@Slf4j
+public final class WebhookEndpoints {
+
+    static final long IDLE_HOURS = 24;
+    private static final long EVICTION_PERIOD_HOURS = 1;
+
+    private static final Map<String, WebhookEndpoint> ENDPOINTS = new ConcurrentHashMap<>();
+
+    private WebhookEndpoints() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static WebhookEndpoint get(String url) {
+        WebhookEndpoint endpoint =
+                ENDPOINTS.computeIfAbsent(url, key -> new WebhookEndpoint(key, ZoomGlobalConfiguration.get()));
+        endpoint.touch(System.currentTimeMillis());
+        return endpoint;
+    }
+
+    /**
+     * @return the endpoint for the URL, or null if nothing has been sent to it yet
+     */
+    public static WebhookEndpoint find(String url) {
+        return url == null ? null : ENDPOINTS.get(url);
+    }
+
+    public static List<WebhookEndpoint> all() {
+        List<WebhookEndpoint> endpoints = new ArrayList<>(ENDPOINTS.values());
+        endpoints.sort(Comparator.comparing(WebhookEndpoint::getUrl));
+        return endpoints;
+    }
+
+    /**
+     * Forgets the webhooks that were idle for the given time. A send that looked a webhook up just before keeps
+     * using the forgotten endpoint, and the next one starts a new endpoint.
+     *
+     * @return the number of webhooks forgotten
+     */
+    static int evictIdle(long now, long idleMillis) {
+        int evicted = 0;
+        for (Map.Entry<String, WebhookEndpoint> entry : ENDPOINTS.entrySet()) {
+            if (entry.getValue().isIdle(now, idleMillis) && ENDPOINTS.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Applies changed global settings to the endpoints already known.
+     */
+    public static void reconfigure(ZoomGlobalConfiguration config) {
+        for (WebhookEndpoint endpoint : ENDPOINTS.values()) {
+            endpoint.reconfigure(config);
+        }
+    }
+
+    @Extension
+    public static class Evictor extends PeriodicWork {
+
+        @Override
+        public long getRecurrencePeriod() {
+            return TimeUnit.HOURS.toMillis(EVICTION_PERIOD_HOURS);
+        }
+
+        @Override
+        protected void doRun() {
+            int evicted = evictIdle(System.currentTimeMillis(), TimeUnit.HOURS.toMillis(IDLE_HOURS));
+            if (evicted > 0) {
+                log.debug("Forgot {} Zoom webhooks not used for {} hours", evicted, IDLE_HOURS);
+            }
+        }
+    }
+}
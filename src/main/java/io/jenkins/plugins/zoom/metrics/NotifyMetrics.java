@@ -0,0 +1,121 @@
+package io.jenkins.plugins.zoom.metrics;
+
+import io.jenkins.plugins.zoom.NotifyResult;
+import io.jenkins.plugins.zoom.endpoint.CircuitOpenException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the notifications sent to one webhook, or to all of them.
+ * Connect and request times are only known for attempts that reached the HTTP client.
+ */
+public final class NotifyMetrics {
+
+    private final LatencyHistogram connect = new LatencyHistogram();
+    private final LatencyHistogram request = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * @param connectNanos time to obtain a connection, or -1 if unknown
+     * @param requestNanos time from a ready connection to the response, or -1 if unknown
+     * @param totalNanos   time spent in the client, including pacing
+     */
+    public void record(NotifyResult result, long connectNanos, long requestNanos, long totalNanos) {
+        if (connectNanos >= 0) {
+            connect.recordNanos(connectNanos);
+        }
+        if (requestNanos >= 0) {
+            request.recordNanos(requestNanos);
+        }
+        total.recordNanos(totalNanos);
+        if (result.isSuccess()) {
+            succeeded.increment();
+        } else {
+            failed.increment();
+        }
+        outcomes.computeIfAbsent(outcomeOf(result), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Counts a notification that was not sent because an identical one was sent recently.
+     */
+    public void recordSuppressed() {
+        suppressed.increment();
+    }
+
+    /**
+     * Counts a notification sent with a gzip body.
+     *
+     * @param uncompressedBytes size of the JSON
+     * @param compressedBytes   size of the body sent
+     */
+    public void recordCompressed(long uncompressedBytes, long compressedBytes) {
+        compressed.increment();
+        bytesSaved.add(uncompressedBytes - compressedBytes);
+    }
+
+    static String outcomeOf(NotifyResult result) {
+        if (!result.isSent()) {
+            return "not sent";
+        }
+        if (result.getStatusCode() != NotifyResult.NO_RESPONSE) {
+            return "HTTP " + result.getStatusCode();
+        }
+        if (result.getFailure() instanceof CircuitOpenException) {
+            return "circuit open";
+        }
+        return result.getFailure() == null ? "no response" : result.getFailure().getClass().getSimpleName();
+    }
+
+    public LatencyHistogram getConnect() {
+        return connect;
+    }
+
+    public LatencyHistogram getRequest() {
+        return request;
+    }
+
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    public long getCompressed() {
+        return compressed.sum();
+    }
+
+    /**
+     * @return bytes not sent thanks to gzip, negative if compression made the bodies larger
+     */
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    /**
+     * @return number of attempts per outcome, such as {@code HTTP 200} or {@code SocketTimeoutException}
+     */
+    public Map<String, Long> getOutcomes() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> snapshot.put(outcome, count.sum()));
+        return snapshot;
+    }
+}
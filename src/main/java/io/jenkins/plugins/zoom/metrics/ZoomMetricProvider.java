@@ -0,0 +1,84 @@
+package io.jenkins.plugins.zoom.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import io.jenkins.plugins.zoom.ConnectionPools;
+import io.jenkins.plugins.zoom.ReportRenderer;
+import io.jenkins.plugins.zoom.dispatch.NotificationDispatcher;
+import io.jenkins.plugins.zoom.dispatch.NotificationPriority;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import jenkins.metrics.api.MetricProvider;
+
+/**
+ * Publishes the plugin-wide notification metrics through the Metrics plugin, when it is installed.
+ * Latencies are in milliseconds. Per-webhook metrics are only shown on the management page.
+ */
+@Extension(optional = true)
+public class ZoomMetricProvider extends MetricProvider {
+
+    private static final String PREFIX = "zoom";
+
+    private final MetricSet metricSet = () -> {
+        ZoomMetrics metrics = ZoomMetrics.get();
+        NotificationDispatcher dispatcher = NotificationDispatcher.get();
+        Map<String, Metric> gauges = new HashMap<>();
+        gauges.put(MetricRegistry.name(PREFIX, "dispatcher", "queued"), (Gauge<Integer>) dispatcher::getPending);
+        gauges.put(MetricRegistry.name(PREFIX, "dispatcher", "active"), (Gauge<Integer>) dispatcher::getActiveWorkers);
+        gauges.put(MetricRegistry.name(PREFIX, "dispatcher", "dropped"), (Gauge<Long>) dispatcher::getDropped);
+        gauges.put(MetricRegistry.name(PREFIX, "dispatcher", "merged"), (Gauge<Long>) dispatcher::getMerged);
+        for (NotificationPriority priority : NotificationPriority.values()) {
+            gauges.put(
+                    MetricRegistry.name(PREFIX, "dispatcher", "shed", priority.name().toLowerCase(Locale.ROOT)),
+                    (Gauge<Long>) () -> dispatcher.getShed().get(priority));
+        }
+        gauges.put(MetricRegistry.name(PREFIX, "dispatcher", "retried"), (Gauge<Long>) dispatcher::getRetried);
+        gauges.put(
+                MetricRegistry.name(PREFIX, "notifications", "succeeded"),
+                (Gauge<Long>) metrics.getAll()::getSucceeded);
+        gauges.put(MetricRegistry.name(PREFIX, "notifications", "failed"), (Gauge<Long>) metrics.getAll()::getFailed);
+        gauges.put(
+                MetricRegistry.name(PREFIX, "notifications", "suppressed"),
+                (Gauge<Long>) metrics.getAll()::getSuppressed);
+        gauges.put(
+                MetricRegistry.name(PREFIX, "notifications", "compressed"),
+                (Gauge<Long>) metrics.getAll()::getCompressed);
+        gauges.put(
+                MetricRegistry.name(PREFIX, "notifications", "bytes-saved"),
+                (Gauge<Long>) metrics.getAll()::getBytesSaved);
+        addHistogram(gauges, "total", metrics.getAll().getTotal());
+        addHistogram(gauges, "connect", metrics.getAll().getConnect());
+        addHistogram(gauges, "request", metrics.getAll().getRequest());
+        addHistogram(gauges, "queue-wait", metrics.getQueueWait());
+        addHistogram(gauges, "executor-blocked", metrics.getExecutorBlocked());
+        addHistogram(gauges, "lease-wait", metrics.getLeaseWait());
+        addHistogram(gauges, "rendering", metrics.getRendering());
+        gauges.put(
+                MetricRegistry.name(PREFIX, "renderer", "queued"), (Gauge<Integer>) ReportRenderer.get()::getPending);
+        gauges.put(MetricRegistry.name(PREFIX, "renderer", "dropped"), (Gauge<Long>) ReportRenderer.get()::getDropped);
+        gauges.put(MetricRegistry.name(PREFIX, "pool", "leased"), (Gauge<Integer>) ConnectionPools::getLeased);
+        gauges.put(MetricRegistry.name(PREFIX, "pool", "available"), (Gauge<Integer>) ConnectionPools::getAvailable);
+        gauges.put(MetricRegistry.name(PREFIX, "pool", "pending"), (Gauge<Integer>) ConnectionPools::getPending);
+        return gauges;
+    };
+
+    private static void addHistogram(Map<String, Metric> gauges, String name, LatencyHistogram histogram) {
+        gauges.put(MetricRegistry.name(PREFIX, "latency", name, "count"), (Gauge<Long>) histogram::getCount);
+        gauges.put(MetricRegistry.name(PREFIX, "latency", name, "mean"), (Gauge<Double>) histogram::getMeanMillis);
+        gauges.put(MetricRegistry.name(PREFIX, "latency", name, "p50"), (Gauge<Double>) histogram::getP50);
+        gauges.put(MetricRegistry.name(PREFIX, "latency", name, "p90"), (Gauge<Double>) histogram::getP90);
+        gauges.put(MetricRegistry.name(PREFIX, "latency", name, "p99"), (Gauge<Double>) histogram::getP99);
+        gauges.put(MetricRegistry.name(PREFIX, "latency", name, "max"), (Gauge<Double>) histogram::getMaxMillis);
+    }
+
+    @NonNull
+    @Override
+    public MetricSet getMetricSet() {
+        return metricSet;
+    }
+}
@@ -0,0 +1,56 @@
+package io.jenkins.plugins.zoom.metrics;
+
+/**
+ * Plugin-wide metrics: the combined metrics of all webhooks and the cost of notifications to builds.
+ */
+public final class ZoomMetrics {
+
+    private static final ZoomMetrics INSTANCE = new ZoomMetrics();
+
+    private final NotifyMetrics all = new NotifyMetrics();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram executorBlocked = new LatencyHistogram();
+    private final LatencyHistogram leaseWait = new LatencyHistogram();
+    private final LatencyHistogram rendering = new LatencyHistogram();
+
+    private ZoomMetrics() {}
+
+    public static ZoomMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Metrics of every attempt, whatever the webhook.
+     */
+    public NotifyMetrics getAll() {
+        return all;
+    }
+
+    /**
+     * Time notifications waited in the dispatcher queue before a worker picked them up.
+     */
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * Time build executors and {@code zoomSend} steps were blocked handing over or sending a notification.
+     */
+    public LatencyHistogram getExecutorBlocked() {
+        return executorBlocked;
+    }
+
+    /**
+     * Time requests waited for a pooled connection, whatever the client.
+     */
+    public LatencyHistogram getLeaseWait() {
+        return leaseWait;
+    }
+
+    /**
+     * Time spent rendering build reports in the background, after the build step returned.
+     */
+    public LatencyHistogram getRendering() {
+        return rendering;
+    }
+}
@@ -1,8 +1,11 @@
 package io.jenkins.plugins.zoom.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import hudson.scm.ChangeLogSet;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import lombok.Data;
 import org.apache.commons.lang.StringUtils;
@@ -21,22 +24,37 @@ public class BuildReport {
     private String cause;
     private Set<Change> changes;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer moreChanges;
+
     @JsonProperty("test_summary")
     private TestSummary testSummary = new TestSummary();
 
     public void addChange(ChangeLogSet.Entry entry) {
+        addChange(entry, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds a change with at most {@code maxFiles} of its affected files, counting the others.
+     */
+    public void addChange(ChangeLogSet.Entry entry, int maxFiles) {
         Change c = new Change();
         c.setAuthor(entry.getAuthor().getDisplayName());
         c.setCommitId(entry.getCommitId());
         c.setMessage(entry.getMsgEscaped());
-        for (ChangeLogSet.AffectedFile file : entry.getAffectedFiles()) {
+        Collection<? extends ChangeLogSet.AffectedFile> files = entry.getAffectedFiles();
+        for (ChangeLogSet.AffectedFile file : files) {
+            if (c.getFiles().size() >= maxFiles) {
+                c.setMoreFiles(files.size() - maxFiles);
+                break;
+            }
             c.addAffectedFile(file);
         }
         changes.add(c);
     }
 
     public void initChanges() {
-        changes = new HashSet<>();
+        changes = new LinkedHashSet<>();
     }
 
     public void initTestSummary() {
@@ -64,6 +82,9 @@ public class BuildReport {
         private String commitId;
         private Set<AffectedFile> files = new HashSet<>();
 
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer moreFiles;
+
         public void addAffectedFile(ChangeLogSet.AffectedFile file) {
             AffectedFile f = new AffectedFile();
             f.setName(file.getPath());
@@ -83,15 +104,40 @@ public class BuildReport {
         private Integer skip;
         private Set<TestResult> failedResults;
 
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer moreFailedResults;
+
+        /** Failed tests that also failed in the previous build, set when only new failures are listed. */
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer stillFailing;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Set<TestResult> fixedResults;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer moreFixedResults;
+
         public void initFailedResults() {
-            failedResults = new HashSet<>();
+            failedResults = new LinkedHashSet<>();
         }
 
         public void addFailedTestResults(hudson.tasks.test.TestResult result) {
+            failedResults.add(toTestResult(result));
+        }
+
+        public void initFixedResults() {
+            fixedResults = new LinkedHashSet<>();
+        }
+
+        public void addFixedTestResults(hudson.tasks.test.TestResult result) {
+            fixedResults.add(toTestResult(result));
+        }
+
+        private static TestResult toTestResult(hudson.tasks.test.TestResult result) {
             TestResult r = new TestResult();
             r.setName(getTestClassAndMethod(result));
             r.setDuration(String.valueOf(result.getDuration()));
-            failedResults.add(r);
+            return r;
         }
     }
 
@@ -0,0 +1,43 @@
+package io.jenkins.plugins.zoom.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * Several build events for the same webhook merged into a single message.
+ */
+@Data
+public class DigestReport {
+    private String name;
+    private String status;
+    private String summary;
+
+    @JsonProperty("full_url")
+    private String fullUrl;
+
+    private Map<String, List<Entry>> builds = new LinkedHashMap<>();
+
+    public void addBuild(BuildReport report) {
+        Entry entry = new Entry();
+        entry.setName(report.getName());
+        entry.setNumber(report.getNumber());
+        entry.setFullUrl(report.getFullUrl());
+        entry.setDuration(report.getDuration());
+        builds.computeIfAbsent(report.getStatus(), status -> new ArrayList<>()).add(entry);
+    }
+
+    @Data
+    public static class Entry {
+        private String name;
+        private String number;
+
+        @JsonProperty("full_url")
+        private String fullUrl;
+
+        private long duration;
+    }
+}
@@ -0,0 +1,102 @@
+package io.jenkins.plugins.zoom.trend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Failed tests of a build compared with the previous recorded build: new failures, the number of tests still failing,
+ * and the tests fixed since.
+ *
+ * @param <T> type of the tests
+ */
+public final class FailedTestDelta<T> {
+
+    private final List<T> newFailures;
+    private final int stillFailing;
+    private final List<T> fixed;
+    private final int fixedCount;
+
+    FailedTestDelta(List<T> newFailures, int stillFailing, List<T> fixed, int fixedCount) {
+        this.newFailures = newFailures;
+        this.stillFailing = stillFailing;
+        this.fixed = fixed;
+        this.fixedCount = fixedCount;
+    }
+
+    /**
+     * Classifies the failed tests against the hashes of the previous failures.
+     * Passed tests are only listed, and scanned until all fixed tests are found, when some previous failure is gone.
+     *
+     * @param previous sorted hashes of the previously failed tests, see {@link FailedTestIndex#hash(String)}
+     * @param failed   currently failed tests
+     * @param passed   supplies the currently passed tests
+     * @param id       identifier of a test
+     */
+    static <T> FailedTestDelta<T> compute(
+            long[] previous, List<? extends T> failed, Supplier<List<? extends T>> passed, Function<T, String> id) {
+        boolean[] matched = new boolean[previous.length];
+        int matchedCount = 0;
+        int stillFailing = 0;
+        List<T> newFailures = new ArrayList<>();
+        for (T test : failed) {
+            int index = Arrays.binarySearch(previous, FailedTestIndex.hash(id.apply(test)));
+            if (index < 0) {
+                newFailures.add(test);
+                continue;
+            }
+            stillFailing++;
+            if (!matched[index]) {
+                matched[index] = true;
+                matchedCount++;
+            }
+        }
+        int fixedCount = previous.length - matchedCount;
+        List<T> fixed = new ArrayList<>();
+        if (fixedCount > 0) {
+            for (T test : passed.get()) {
+                int index = Arrays.binarySearch(previous, FailedTestIndex.hash(id.apply(test)));
+                if (index >= 0 && !matched[index]) {
+                    matched[index] = true;
+                    fixed.add(test);
+                    if (fixed.size() == fixedCount) {
+                        break;
+                    }
+                }
+            }
+        }
+        // previous failures neither failed nor passed now were skipped or removed, they count as fixed but unnamed
+        return new FailedTestDelta<>(newFailures, stillFailing, fixed, fixedCount);
+    }
+
+    /**
+     * @return the failed tests that did not fail in the previous recorded build
+     */
+    public List<T> getNewFailures() {
+        return newFailures;
+    }
+
+    /**
+     * @return the number of failed tests that also failed in the previous recorded build
+     */
+    public int getStillFailing() {
+        return stillFailing;
+    }
+
+    /**
+     * @return the passed tests that failed in the previous recorded build
+     */
+    public List<T> getFixed() {
+        return fixed;
+    }
+
+    /**
+     * @return the number of tests that failed in the previous recorded build and no longer fail, including skipped and
+     *     removed tests missing from {@link #getFixed()}
+     */
+    public int getFixedCount() {
+        return fixedCount;
+    }
+}
@@ -0,0 +1,250 @@
+package io.jenkins.plugins.zoom.trend;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.listeners.ItemListener;
+import hudson.tasks.test.AbstractTestResultAction;
+import hudson.tasks.test.TestResult;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hashed identifiers of the failed tests of the last two recorded builds of every job, kept as sorted
+ * {@code long} arrays in memory and in a small file in the job directory.
+ * The failures of a build are compared with the previous recorded build without loading its test results.
+ */
+@Slf4j
+public final class FailedTestIndex {
+
+    static final String FILE_NAME = "zoom-failed-tests.bin";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final Map<String, Snapshots> INDEX = new ConcurrentHashMap<>();
+
+    private FailedTestIndex() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Records the failed tests of a build, if not recorded yet, and compares them with the previous recorded build.
+     * The first build recorded for a job is compared with the test results of its previous build, once.
+     *
+     * @return the delta, or null if the build has no test results
+     */
+    public static FailedTestDelta<TestResult> record(Run<?, ?> run) {
+        AbstractTestResultAction<?> action = run.getAction(AbstractTestResultAction.class);
+        if (action == null) {
+            return null;
+        }
+        List<? extends TestResult> failed = action.getFailedTests();
+        long[] current = hashes(failed);
+        Job<?, ?> job = run.getParent();
+        Snapshots snapshots = INDEX.computeIfAbsent(job.getFullName(), name -> load(job));
+        long[] previous;
+        synchronized (snapshots) {
+            Snapshot before = snapshots.before(run.getNumber());
+            if (before != null) {
+                previous = before.failed;
+            } else {
+                AbstractTestResultAction<?> previousAction = action.getPreviousResult();
+                previous = previousAction == null ? new long[0] : hashes(previousAction.getFailedTests());
+            }
+            if (snapshots.put(run.getNumber(), current)) {
+                save(job, snapshots);
+            }
+        }
+        return FailedTestDelta.compute(previous, failed, action::getPassedTests, TestResult::getId);
+    }
+
+    /**
+     * @return the sorted, distinct hashes of the test identifiers
+     */
+    static long[] hashes(List<? extends TestResult> tests) {
+        long[] hashes = new long[tests.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = hash(tests.get(i).getId());
+        }
+        Arrays.sort(hashes);
+        int distinct = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (i == 0 || hashes[i] != hashes[i - 1]) {
+                hashes[distinct++] = hashes[i];
+            }
+        }
+        return distinct == hashes.length ? hashes : Arrays.copyOf(hashes, distinct);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of a test identifier.
+     */
+    static long hash(String id) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            hash ^= c & 0xff;
+            hash *= FNV_PRIME;
+            hash ^= c >>> 8;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static Snapshots load(Job<?, ?> job) {
+        File file = new File(job.getRootDir(), FILE_NAME);
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            return Snapshots.readFrom(in);
+        } catch (NoSuchFileException e) {
+            return new Snapshots();
+        } catch (IOException e) {
+            log.warn("Failed to read {}, starting a new failed test index for {}", file, job.getFullName(), e);
+            return new Snapshots();
+        }
+    }
+
+    private static void save(Job<?, ?> job, Snapshots snapshots) {
+        File file = new File(job.getRootDir(), FILE_NAME);
+        File temp = new File(job.getRootDir(), FILE_NAME + ".tmp");
+        try {
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+                snapshots.writeTo(out);
+            }
+            Files.move(
+                    temp.toPath(),
+                    file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write {}", file, e);
+        }
+    }
+
+    /**
+     * The newest and the previous recorded build of a job, guarded by the instance.
+     */
+    static final class Snapshots {
+        private Snapshot newest;
+        private Snapshot previous;
+
+        /**
+         * @return the newest recorded build older than the given build, or null if there is none
+         */
+        Snapshot before(int number) {
+            if (newest != null && newest.number < number) {
+                return newest;
+            }
+            if (previous != null && previous.number < number) {
+                return previous;
+            }
+            return null;
+        }
+
+        /**
+         * @return whether the snapshots changed
+         */
+        boolean put(int number, long[] failed) {
+            if (newest == null || newest.number < number) {
+                previous = newest;
+                newest = new Snapshot(number, failed);
+                return true;
+            }
+            if (newest.number == number || (previous != null && previous.number >= number)) {
+                // recorded already, or older than both snapshots
+                return false;
+            }
+            previous = new Snapshot(number, failed);
+            return true;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt((previous == null ? 0 : 1) + (newest == null ? 0 : 1));
+            if (previous != null) {
+                previous.writeTo(out);
+            }
+            if (newest != null) {
+                newest.writeTo(out);
+            }
+        }
+
+        static Snapshots readFrom(DataInputStream in) throws IOException {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported failed test index format");
+            }
+            Snapshots snapshots = new Snapshots();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Snapshot snapshot = Snapshot.readFrom(in);
+                snapshots.put(snapshot.number, snapshot.failed);
+            }
+            return snapshots;
+        }
+    }
+
+    static final class Snapshot {
+        private final int number;
+        private final long[] failed;
+
+        Snapshot(int number, long[] failed) {
+            this.number = number;
+            this.failed = failed;
+        }
+
+        int getNumber() {
+            return number;
+        }
+
+        long[] getFailed() {
+            return failed;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(number);
+            out.writeInt(failed.length);
+            for (long hash : failed) {
+                out.writeLong(hash);
+            }
+        }
+
+        static Snapshot readFrom(DataInputStream in) throws IOException {
+            int number = in.readInt();
+            long[] failed = new long[in.readInt()];
+            for (int i = 0; i < failed.length; i++) {
+                failed[i] = in.readLong();
+            }
+            return new Snapshot(number, failed);
+        }
+    }
+
+    @Extension
+    public static class JobListener extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            INDEX.remove(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // the file moved with the job directory
+            INDEX.remove(oldFullName);
+        }
+    }
+}
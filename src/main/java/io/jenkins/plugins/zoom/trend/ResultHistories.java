@@ -0,0 +1,156 @@
+package io.jenkins.plugins.zoom.trend;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.model.ResultTrend;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of the {@link ResultHistory} of every job, kept in memory and in a small file in the job directory.
+ * A history missing on disk is seeded once from the previous builds of the job.
+ */
+@Slf4j
+public final class ResultHistories {
+
+    static final String FILE_NAME = "zoom-results.bin";
+
+    private static final Map<String, ResultHistory> HISTORIES = new ConcurrentHashMap<>();
+
+    private ResultHistories() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Classifies a completed build from the history of its job, loading older builds only when the history does not
+     * reach back to the predecessor of the build.
+     */
+    public static ResultTrend trendOf(Run<?, ?> run) {
+        Result result = run.getResult();
+        if (result == null) {
+            return ResultTrend.getResultTrend(run);
+        }
+        ResultTrend trend = get(run.getParent()).trendOf(run.getNumber(), result);
+        return trend != null ? trend : ResultTrend.getResultTrend(run);
+    }
+
+    /**
+     * @return the number of consecutive failed builds ending with this build, aborted and not built builds skipped
+     */
+    public static int failureStreakOf(Run<?, ?> run) {
+        ResultHistory history = get(run.getParent());
+        if (run.getResult() != null) {
+            history.record(run.getNumber(), run.getResult());
+        }
+        return history.failureStreakOf(run.getNumber());
+    }
+
+    static ResultHistory get(Job<?, ?> job) {
+        return HISTORIES.computeIfAbsent(job.getFullName(), name -> load(job));
+    }
+
+    private static ResultHistory load(Job<?, ?> job) {
+        File file = new File(job.getRootDir(), FILE_NAME);
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            return ResultHistory.readFrom(in);
+        } catch (NoSuchFileException e) {
+            return seed(job);
+        } catch (IOException e) {
+            log.warn("Failed to read {}, rebuilding it from the builds of {}", file, job.getFullName(), e);
+            return seed(job);
+        }
+    }
+
+    /**
+     * Builds a history from the most recent completed builds, the only time builds are loaded for it.
+     */
+    private static ResultHistory seed(Job<?, ?> job) {
+        List<Run<?, ?>> recent = new ArrayList<>();
+        Run<?, ?> run = job.getLastCompletedBuild();
+        while (run != null && recent.size() < ResultHistory.CAPACITY) {
+            recent.add(run);
+            run = run.getPreviousCompletedBuild();
+        }
+        ResultHistory history = new ResultHistory(run == null);
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            history.record(recent.get(i).getNumber(), recent.get(i).getResult());
+        }
+        return history;
+    }
+
+    private static void save(Job<?, ?> job, ResultHistory history) {
+        File file = new File(job.getRootDir(), FILE_NAME);
+        File temp = new File(job.getRootDir(), FILE_NAME + ".tmp");
+        try {
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+                history.writeTo(out);
+            }
+            Files.move(
+                    temp.toPath(),
+                    file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write {}", file, e);
+        }
+    }
+
+    @Extension
+    public static class Listener extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onCompleted(Run<?, ?> run, TaskListener listener) {
+            Result result = run.getResult();
+            if (result == null) {
+                return;
+            }
+            ResultHistory history = get(run.getParent());
+            history.record(run.getNumber(), result);
+            save(run.getParent(), history);
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            ResultHistory history = HISTORIES.get(run.getParent().getFullName());
+            if (history != null) {
+                history.remove(run.getNumber());
+                save(run.getParent(), history);
+            }
+        }
+    }
+
+    @Extension
+    public static class JobListener extends ItemListener {
+
+        @Override
+        public void onDeleted(Item item) {
+            HISTORIES.remove(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // the file moved with the job directory
+            HISTORIES.remove(oldFullName);
+        }
+    }
+}
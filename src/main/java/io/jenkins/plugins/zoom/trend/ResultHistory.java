@@ -0,0 +1,225 @@
+package io.jenkins.plugins.zoom.trend;
+
+import hudson.model.Result;
+import hudson.model.ResultTrend;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Results of the most recent completed builds of one job, ordered by build number.
+ * Each entry keeps the build number, the result and the number of consecutive failures ending with that build, so
+ * the trend of a build is classified from the entries alone instead of loading the previous builds.
+ */
+public final class ResultHistory {
+
+    static final int CAPACITY = 32;
+    private static final int FORMAT_VERSION = 2;
+    private static final Result[] RESULTS = {
+        Result.SUCCESS, Result.UNSTABLE, Result.FAILURE, Result.NOT_BUILT, Result.ABORTED
+    };
+
+    private final int[] numbers = new int[CAPACITY];
+    private final byte[] results = new byte[CAPACITY];
+    private final int[] failureStreaks = new int[CAPACITY];
+    private int size;
+
+    /** Consecutive failures ending with the build before the oldest entry, once older entries were dropped. */
+    private int streakBefore;
+
+    /** Whether the entries go back to the first build of the job, so a missing predecessor means there is none. */
+    private boolean complete;
+
+    ResultHistory(boolean complete) {
+        this.complete = complete;
+    }
+
+    /**
+     * Adds or replaces the result of a build. Builds completing out of order are inserted at their position.
+     */
+    public synchronized void record(int number, Result result) {
+        int index = indexOf(number);
+        if (index < 0) {
+            index = -index - 1;
+            if (size == CAPACITY) {
+                if (index == 0) {
+                    // older than everything kept
+                    return;
+                }
+                dropOldest();
+                index--;
+            }
+            System.arraycopy(numbers, index, numbers, index + 1, size - index);
+            System.arraycopy(results, index, results, index + 1, size - index);
+            System.arraycopy(failureStreaks, index, failureStreaks, index + 1, size - index);
+            size++;
+        }
+        numbers[index] = number;
+        results[index] = (byte) result.ordinal;
+        updateStreaks(index);
+    }
+
+    /**
+     * Forgets a deleted build.
+     */
+    public synchronized void remove(int number) {
+        int index = indexOf(number);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(numbers, index + 1, numbers, index, size - index - 1);
+        System.arraycopy(results, index + 1, results, index, size - index - 1);
+        System.arraycopy(failureStreaks, index + 1, failureStreaks, index, size - index - 1);
+        size--;
+        if (index < size) {
+            updateStreaks(index);
+        }
+    }
+
+    /**
+     * Classifies a completed build like {@link ResultTrend#getResultTrend}, aborted and not built builds do not
+     * count as predecessors.
+     *
+     * @return the trend, or null if the predecessor of the build is older than the entries kept
+     */
+    public synchronized ResultTrend trendOf(int number, Result result) {
+        if (result == Result.ABORTED) {
+            return ResultTrend.ABORTED;
+        }
+        if (result == Result.NOT_BUILT) {
+            return ResultTrend.NOT_BUILT;
+        }
+        int previous = previousCounted(number);
+        if (previous == -2) {
+            return null;
+        }
+        Result previousResult = previous < 0 ? null : RESULTS[results[previous]];
+        if (result == Result.SUCCESS) {
+            return previousResult != null && previousResult.isWorseThan(Result.SUCCESS)
+                    ? ResultTrend.FIXED
+                    : ResultTrend.SUCCESS;
+        }
+        if (result == Result.UNSTABLE) {
+            if (previousResult == Result.UNSTABLE) {
+                return ResultTrend.STILL_UNSTABLE;
+            }
+            return previousResult == Result.FAILURE ? ResultTrend.NOW_UNSTABLE : ResultTrend.UNSTABLE;
+        }
+        return previousResult == Result.FAILURE ? ResultTrend.STILL_FAILING : ResultTrend.FAILURE;
+    }
+
+    /**
+     * @return the number of consecutive failures ending with the build, counting at most what is kept, or 0 if the
+     *     build is not known or did not fail
+     */
+    public synchronized int failureStreakOf(int number) {
+        int index = indexOf(number);
+        return index < 0 || results[index] != Result.FAILURE.ordinal ? 0 : failureStreaks[index];
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * @return index of the closest older build that is neither aborted nor not built, -1 if there is none, or -2 if
+     *     it is older than the entries kept
+     */
+    private int previousCounted(int number) {
+        int index = indexOf(number);
+        int start = index < 0 ? -index - 2 : index - 1;
+        for (int i = start; i >= 0; i--) {
+            if (counts(results[i])) {
+                return i;
+            }
+        }
+        return complete ? -1 : -2;
+    }
+
+    private void updateStreaks(int from) {
+        for (int i = from; i < size; i++) {
+            if (!counts(results[i])) {
+                failureStreaks[i] = i > 0 ? failureStreaks[i - 1] : streakBefore;
+            } else if (results[i] == Result.FAILURE.ordinal) {
+                failureStreaks[i] = (i > 0 ? failureStreaks[i - 1] : streakBefore) + 1;
+            } else {
+                failureStreaks[i] = 0;
+            }
+        }
+    }
+
+    private void dropOldest() {
+        streakBefore = failureStreaks[0];
+        System.arraycopy(numbers, 1, numbers, 0, size - 1);
+        System.arraycopy(results, 1, results, 0, size - 1);
+        System.arraycopy(failureStreaks, 1, failureStreaks, 0, size - 1);
+        size--;
+        complete = false;
+    }
+
+    private static boolean counts(byte result) {
+        return result != Result.ABORTED.ordinal && result != Result.NOT_BUILT.ordinal;
+    }
+
+    private int indexOf(int number) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (numbers[mid] < number) {
+                low = mid + 1;
+            } else if (numbers[mid] > number) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeBoolean(complete);
+        out.writeInt(size);
+        // the streak at the oldest entry, which cannot be recounted from the entries kept
+        out.writeInt(size == 0 ? 0 : failureStreaks[0]);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(numbers[i]);
+            out.writeByte(results[i]);
+        }
+    }
+
+    static ResultHistory readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported result history format");
+        }
+        ResultHistory history = new ResultHistory(in.readBoolean());
+        int size = in.readInt();
+        int oldestStreak = in.readInt();
+        for (int i = 0; i < size; i++) {
+            int number = in.readInt();
+            byte result = in.readByte();
+            if (result < 0 || result >= RESULTS.length) {
+                throw new IOException("Invalid result " + result);
+            }
+            history.record(number, RESULTS[result]);
+        }
+        history.seedStreaks(oldestStreak);
+        return history;
+    }
+
+    /**
+     * Recounts the streaks from the streak at the oldest entry, as read from a file.
+     */
+    private synchronized void seedStreaks(int oldestStreak) {
+        if (size == 0) {
+            return;
+        }
+        if (results[0] == Result.FAILURE.ordinal) {
+            streakBefore = Math.max(0, oldestStreak - 1);
+        } else {
+            streakBefore = counts(results[0]) ? 0 : oldestStreak;
+        }
+        updateStreaks(0);
+    }
+}
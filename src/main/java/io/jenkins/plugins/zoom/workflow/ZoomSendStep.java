@@ -1,16 +1,35 @@
 package io.jenkins.plugins.zoom.workflow;
 
 import com.google.common.collect.ImmutableSet;
+import hudson.AbortException;
 import hudson.Extension;
+import hudson.Util;
+import hudson.model.Computer;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.security.Permission;
 import hudson.util.FormValidation;
 import hudson.util.Secret;
 import io.jenkins.plugins.zoom.MessageBuilder;
-import io.jenkins.plugins.zoom.ZoomNotifyClient;
+import io.jenkins.plugins.zoom.NotifyClient;
+import io.jenkins.plugins.zoom.NotifyResult;
+import io.jenkins.plugins.zoom.Payload;
+import io.jenkins.plugins.zoom.ZoomTarget;
+import io.jenkins.plugins.zoom.dispatch.Notification;
+import io.jenkins.plugins.zoom.dispatch.NotificationDispatcher;
+import io.jenkins.plugins.zoom.dispatch.NotificationPriority;
+import io.jenkins.plugins.zoom.dispatch.RetryPolicy;
+import io.jenkins.plugins.zoom.model.BuildReport;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import jenkins.model.Jenkins;
+import jenkins.util.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.jenkinsci.plugins.workflow.steps.*;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -25,6 +44,10 @@ public class ZoomSendStep extends Step {
     private Secret authToken;
     private boolean jenkinsProxyUsed;
     private String message;
+    private RetryPolicy retryPolicy;
+    private boolean wait = true;
+    private boolean sendFromAgent;
+    private List<ZoomTarget> targets;
 
     @DataBoundConstructor
     public ZoomSendStep() {}
@@ -34,30 +57,133 @@ public class ZoomSendStep extends Step {
         return new ZoomSendStepExecution(this, stepContext);
     }
 
-    private static class ZoomSendStepExecution extends SynchronousNonBlockingStepExecution {
+    /**
+     * Builds the message and hands it to the dispatcher on the Jenkins timer, as the step starts on the thread running
+     * every pipeline, and completes the step from the callback of the send, so no thread waits for Zoom while the step
+     * is running.
+     */
+    private static class ZoomSendStepExecution extends StepExecution {
 
         private static final long serialVersionUID = 1L;
+
         private final transient ZoomSendStep step;
+        /** Kept apart from the step, which does not survive a restart. */
+        private final boolean wait;
+        /** Set by whichever of the send, {@link #stop} and {@link #onResume} completes the context first. */
+        private final AtomicBoolean completed = new AtomicBoolean();
 
         protected ZoomSendStepExecution(ZoomSendStep step, StepContext context) {
             super(context);
             this.step = step;
+            this.wait = step.isWait();
         }
 
-        // do the work of the step
         @Override
-        protected Object run() throws Exception {
-            Run run = getContext().get(Run.class);
+        public boolean start() throws Exception {
+            Run<?, ?> run = getContext().get(Run.class);
             log.info("Call sendMessage: {}", run.getFullDisplayName());
             TaskListener listener = getContext().get(TaskListener.class);
+            String agent = null;
+            if (this.step.isSendFromAgent()) {
+                // only known inside a node block, the controller sends otherwise
+                Computer computer = getContext().get(Computer.class);
+                agent = computer == null ? null : computer.getName();
+            }
+            String sendingAgent = agent;
+            Timer.get().execute(() -> {
+                try {
+                    send(run, listener, sendingAgent);
+                } catch (RuntimeException e) {
+                    fail(e);
+                }
+            });
+            return false;
+        }
+
+        private void send(Run<?, ?> run, TaskListener listener, String agent) {
             MessageBuilder messageBuilder = new MessageBuilder(null, run, listener);
-            String msg = messageBuilder.buildPipeMsg(this.step.getMessage());
-            ZoomNotifyClient.notify(
-                    this.step.getWebhookUrl(), this.step.getAuthToken(), this.step.isJenkinsProxyUsed(), msg);
-            return null;
+            BuildReport report = messageBuilder.pipeReport(this.step.getMessage());
+            List<ZoomTarget> targets = this.step.allTargets();
+            Payload payload = Payload.of(report);
+            if (targets.size() > 1) {
+                // serialize once for all targets instead of streaming the report into every request
+                payload.toBytes();
+            }
+            NotificationPriority priority = NotificationPriority.of(run);
+            List<CompletableFuture<NotifyResult>> sent = new ArrayList<>();
+            for (ZoomTarget target : targets) {
+                Notification notification =
+                        target.toNotification(payload, run.getExternalizableId(), this.step.getRetryPolicy());
+                notification.setAgent(agent);
+                notification.setPriority(priority);
+                sent.add(NotificationDispatcher.get().dispatch(notification));
+            }
+            if (!wait) {
+                succeed(null);
+                return;
+            }
+            // retries are scheduled by the dispatcher, the step completes with the outcome of the last attempts
+            CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0]))
+                    .whenComplete((ignored, failure) -> {
+                        if (failure != null) {
+                            fail(failure);
+                            return;
+                        }
+                        List<Map<String, Object>> results = new ArrayList<>();
+                        for (int i = 0; i < targets.size(); i++) {
+                            NotifyResult result = sent.get(i).join();
+                            listener.getLogger().println("Zoom notification to " + targets.get(i) + " " + result);
+                            Map<String, Object> map = toMap(result);
+                            map.put("target", targets.get(i).toString());
+                            results.add(map);
+                        }
+                        succeed(results);
+                    });
+        }
+
+        private void succeed(Object result) {
+            if (completed.compareAndSet(false, true)) {
+                getContext().onSuccess(result);
+            }
+        }
+
+        private void fail(Throwable cause) {
+            if (completed.compareAndSet(false, true)) {
+                getContext().onFailure(cause);
+            }
+        }
+
+        @Override
+        public void stop(Throwable cause) throws Exception {
+            // the notification stays queued, only the step stops waiting for it
+            fail(cause);
+        }
+
+        @Override
+        public void onResume() {
+            // the send did not survive the restart, the notification is replayed from the outbox if it is enabled
+            if (wait) {
+                fail(new AbortException(
+                        "Jenkins restarted while the Zoom notification was being sent, its outcome is unknown"));
+            } else {
+                succeed(null);
+            }
         }
     }
 
+    /**
+     * Converts the outcome into a value a pipeline can inspect without script approval.
+     */
+    static Map<String, Object> toMap(NotifyResult result) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("success", result.isSuccess());
+        map.put("sent", result.isSent());
+        map.put("status", result.getStatusCode());
+        map.put("latencyMillis", result.getLatencyMillis());
+        map.put("result", result.toString());
+        return map;
+    }
+
     @Extension
     public static class DescriptorImpl extends StepDescriptor {
 
@@ -82,7 +208,10 @@ public class ZoomSendStep extends Step {
                 @QueryParameter("authToken") final String authToken,
                 @QueryParameter("jenkinsProxyUsed") final boolean jenkinsProxyUsed) {
             Jenkins.get().checkPermission(Permission.CONFIGURE);
-            if (ZoomNotifyClient.notify(webhookUrl, authToken, jenkinsProxyUsed, null)) {
+            NotifyResult result = NotifyClient.get()
+                    .send(webhookUrl, Secret.fromString(authToken), jenkinsProxyUsed, Payload.ofJson(null))
+                    .join();
+            if (result.isSuccess()) {
                 return FormValidation.ok("Connection is ok");
             }
             return FormValidation.error("Connect failed");
@@ -124,4 +253,62 @@ public class ZoomSendStep extends Step {
     public void setMessage(String message) {
         this.message = message;
     }
+
+    public boolean isWait() {
+        return wait;
+    }
+
+    /**
+     * @param wait whether the step waits for the outcome of the send and returns it, or returns immediately
+     */
+    @DataBoundSetter
+    public void setWait(boolean wait) {
+        this.wait = wait;
+    }
+
+    public boolean isSendFromAgent() {
+        return sendFromAgent;
+    }
+
+    /**
+     * @param sendFromAgent whether the agent of the enclosing {@code node} block posts the message instead of the
+     *                      controller
+     */
+    @DataBoundSetter
+    public void setSendFromAgent(boolean sendFromAgent) {
+        this.sendFromAgent = sendFromAgent;
+    }
+
+    public List<ZoomTarget> getTargets() {
+        return targets != null ? targets : Collections.emptyList();
+    }
+
+    /**
+     * @param targets further webhooks that receive the same message, their event filters do not apply to the step
+     */
+    @DataBoundSetter
+    public void setTargets(List<ZoomTarget> targets) {
+        this.targets = targets;
+    }
+
+    /**
+     * @return the main webhook, if set, followed by the additional targets
+     */
+    List<ZoomTarget> allTargets() {
+        List<ZoomTarget> all = new ArrayList<>();
+        if (Util.fixEmptyAndTrim(webhookUrl) != null || getTargets().isEmpty()) {
+            all.add(new ZoomTarget(webhookUrl, authToken, jenkinsProxyUsed, null));
+        }
+        all.addAll(getTargets());
+        return all;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    @DataBoundSetter
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
 }
@@ -0,0 +1,129 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpServer;
+import hudson.slaves.DumbSlave;
+import io.jenkins.plugins.zoom.endpoint.CircuitBreaker;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoint;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoints;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+public class AgentNotifyClientTest {
+
+    private static final byte[] BODY = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private static AgentNotifyClient.Outcome post(String url, String token, byte[] body) {
+        AgentNotifyClient.Outcome outcome = new AgentNotifyClient.Outcome();
+        new AgentNotifyClient.Post(url, token, body, outcome).call();
+        return outcome;
+    }
+
+    /**
+     * @return a local port nothing listens on
+     */
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    public void testReturnsStatusAndRetryAfter() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Retry-After", "3");
+            exchange.sendResponseHeaders(429, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/hook";
+            AgentNotifyClient.Post.Response response = post(url, "token", BODY).get(10, TimeUnit.SECONDS);
+            assertThat(response.getStatus(), is(429));
+            assertThat(response.getRetryAfter(), is("3"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testNoRouteWhenConnectionRefused() throws Exception {
+        AgentNotifyClient.Outcome outcome = post("http://localhost:" + closedPort() + "/hook", null, BODY);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> outcome.get(10, TimeUnit.SECONDS));
+        assertThat(e.getCause(), instanceOf(AgentNotifyClient.NoRouteException.class));
+    }
+
+    @Test
+    public void testNoRetryAfterHeader() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/hook";
+            AgentNotifyClient.Post.Response response = post(url, null, new byte[0]).get(10, TimeUnit.SECONDS);
+            assertThat(response.getStatus(), is(200));
+            assertThat(response.getRetryAfter(), nullValue());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testNoRouteFallsBackToController(JenkinsRule r) throws Exception {
+        DumbSlave agent = r.createOnlineSlave();
+        String url = "http://localhost:" + closedPort() + "/fallback";
+        WebhookEndpoint endpoint = WebhookEndpoints.get(url);
+        CircuitBreaker circuitBreaker = endpoint.getCircuitBreaker();
+        // open the circuit long ago, so the send from the agent takes the probe of the half-open circuit
+        for (int i = 0; i < ZoomGlobalConfiguration.DEFAULT_CIRCUIT_MINIMUM_CALLS; i++) {
+            circuitBreaker.record(circuitBreaker.tryAcquire(0), NotifyResult.response(503, 0, 1), 0);
+        }
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+        List<String> controllerSends = new CopyOnWriteArrayList<>();
+        NotifyClient controller = (target, authToken, jenkinsProxyUsed, payload) -> {
+            controllerSends.add(target);
+            return CompletableFuture.completedFuture(NotifyResult.response(200, -1, 1));
+        };
+        AgentNotifyClient client = new AgentNotifyClient(agent.getNodeName(), () -> controller);
+
+        NotifyResult result = client.send(url, null, false, Payload.ofJson("{}")).get(30, TimeUnit.SECONDS);
+        assertThat(result.isSuccess(), is(true));
+        assertThat(controllerSends, contains(url));
+        // the agent attempt gave back its rate limit permit and its probe
+        assertThat(endpoint.getRateLimiter().getAcquired(), is(0L));
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        long probe = circuitBreaker.tryAcquire(System.currentTimeMillis());
+        assertThat(probe, is(not(CircuitBreaker.REJECTED)));
+        circuitBreaker.release(probe);
+
+        // the agent is skipped for a while, the next send goes to the controller right away
+        assertThat(client.send(url, null, false, Payload.ofJson("{}")).get(30, TimeUnit.SECONDS).isSuccess(), is(true));
+        assertThat(controllerSends, contains(url, url));
+        assertThat(endpoint.getRateLimiter().getAcquired(), is(0L));
+    }
+}
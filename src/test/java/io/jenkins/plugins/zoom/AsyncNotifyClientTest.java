@@ -0,0 +1,155 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoint;
+import io.jenkins.plugins.zoom.endpoint.WebhookEndpoints;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+public class AsyncNotifyClientTest {
+
+    private static final Payload PAYLOAD = Payload.ofJson("{\"text\":\"build finished\"}");
+
+    private final List<String> encodings = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private AsyncNotifyClient client;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        client = new AsyncNotifyClient();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        client.close();
+        server.stop(0);
+    }
+
+    /**
+     * Answers 415 to gzip bodies and 200 to all others, except under {@code /invalid} which answers 400 to all.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        encodings.add(encoding == null ? "identity" : encoding);
+        if (exchange.getRequestURI().getPath().startsWith("/invalid")) {
+            byte[] body = "invalid message".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(400, body.length);
+            exchange.getResponseBody().write(body);
+        } else {
+            exchange.sendResponseHeaders("gzip".equals(encoding) ? 415 : 200, -1);
+        }
+        exchange.close();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + "/" + path;
+    }
+
+    @Test
+    public void testGzipRejectionIsSentAgainUncompressed(JenkinsRule r) throws Exception {
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        config.setCompressionThreshold(1);
+        config.save();
+        String url = url("gzip");
+
+        NotifyResult result = client.send(url, null, false, PAYLOAD).get(10, TimeUnit.SECONDS);
+        assertThat(result.isSuccess(), is(true));
+        assertThat(encodings, contains("gzip", "identity"));
+        assertThat(WebhookEndpoints.get(url).isGzipAccepted(), is(false));
+
+        // the webhook is known not to take gzip, the next body goes out uncompressed right away
+        encodings.clear();
+        assertThat(client.send(url, null, false, PAYLOAD).get(10, TimeUnit.SECONDS).isSuccess(), is(true));
+        assertThat(encodings, contains("identity"));
+    }
+
+    @Test
+    public void testBadRequestIsNotSentAgain(JenkinsRule r) throws Exception {
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        config.setCompressionThreshold(1);
+        config.save();
+        String url = url("invalid");
+
+        NotifyResult result = client.send(url, null, false, PAYLOAD).get(10, TimeUnit.SECONDS);
+        assertThat(result.getStatusCode(), is(400));
+        assertThat(encodings, contains("gzip"));
+        assertThat(WebhookEndpoints.get(url).isGzipAccepted(), is(true));
+    }
+
+    @Test
+    public void testUncompressedResendIsPaced(JenkinsRule r) throws Exception {
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        config.setCompressionThreshold(1);
+        config.setRateLimit(2);
+        config.setRateLimitBurst(1);
+        config.save();
+        String url = url("gzip-paced");
+
+        long start = System.nanoTime();
+        assertThat(client.send(url, null, false, PAYLOAD).get(10, TimeUnit.SECONDS).isSuccess(), is(true));
+        assertThat(encodings, contains("gzip", "identity"));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(400L)));
+        assertThat(WebhookEndpoints.get(url).getRateLimiter().getDelayed(), is(1L));
+    }
+
+    @Test
+    public void testGzipRejection() {
+        assertThat(ZoomNotifyClient.rejectsGzip(415, null), is(true));
+        assertThat(ZoomNotifyClient.rejectsGzip(400, "Unsupported Content-Encoding"), is(true));
+        assertThat(ZoomNotifyClient.rejectsGzip(400, "could not read GZIP body"), is(true));
+        assertThat(ZoomNotifyClient.rejectsGzip(400, "invalid message"), is(false));
+        assertThat(ZoomNotifyClient.rejectsGzip(400, null), is(false));
+        assertThat(ZoomNotifyClient.rejectsGzip(500, "gzip"), is(false));
+    }
+
+    @Test
+    public void testSendsArePaced(JenkinsRule r) throws Exception {
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        config.setRateLimit(2);
+        config.setRateLimitBurst(1);
+        config.save();
+        String url = url("paced");
+
+        long start = System.nanoTime();
+        CompletableFuture<NotifyResult> first = client.send(url, null, false, PAYLOAD);
+        CompletableFuture<NotifyResult> second = client.send(url, null, false, PAYLOAD);
+        assertThat(first.get(10, TimeUnit.SECONDS).isSuccess(), is(true));
+        assertThat(second.get(10, TimeUnit.SECONDS).isSuccess(), is(true));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(greaterThanOrEqualTo(400L)));
+        WebhookEndpoint endpoint = WebhookEndpoints.get(url);
+        assertThat(endpoint.getRateLimiter().getDelayed(), is(1L));
+    }
+
+    @Test
+    public void testNoSendAfterShutdown(JenkinsRule r) throws Exception {
+        String url = url("closed");
+        assertThat(client.send(url, null, false, PAYLOAD).get(10, TimeUnit.SECONDS).isSuccess(), is(true));
+        client.close();
+
+        NotifyResult result = client.send(url, null, false, PAYLOAD).get(10, TimeUnit.SECONDS);
+        assertThat(result.isSent(), is(false));
+        assertThat(encodings.size(), is(1));
+    }
+}
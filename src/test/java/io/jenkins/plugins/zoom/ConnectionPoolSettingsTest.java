@@ -0,0 +1,34 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Test;
+
+public class ConnectionPoolSettingsTest {
+
+    @Test
+    public void testPerRouteLimitIsCappedByTotal() {
+        ConnectionPoolSettings settings = new ConnectionPoolSettings();
+        settings.setMaxTotal(8);
+        assertThat(settings.getMaxPerRoute(), is(8));
+        settings.setMaxTotal(0);
+        assertThat(settings.getMaxTotal(), is(ConnectionPoolSettings.DEFAULT_MAX_TOTAL));
+        assertThat(settings.getMaxPerRoute(), is(ConnectionPoolSettings.DEFAULT_MAX_PER_ROUTE));
+    }
+
+    @Test
+    public void testZeroDisablesLifetimeAndValidation() {
+        ConnectionPoolSettings settings = new ConnectionPoolSettings();
+        assertThat(settings.toConnectionConfig().getTimeToLive(), equalTo(TimeValue.ofSeconds(300)));
+        assertThat(settings.toConnectionConfig().getValidateAfterInactivity(), equalTo(TimeValue.ofSeconds(2)));
+        settings.setTimeToLiveSeconds(0);
+        settings.setValidateAfterInactivitySeconds(0);
+        assertThat(TimeValue.isPositive(settings.toConnectionConfig().getTimeToLive()), is(false));
+        assertThat(TimeValue.isNonNegative(settings.toConnectionConfig().getValidateAfterInactivity()), is(false));
+        settings.setIdleTimeoutSeconds(-1);
+        assertThat(settings.getIdleTimeoutSeconds(), is(ConnectionPoolSettings.DEFAULT_IDLE_TIMEOUT_SECONDS));
+    }
+}
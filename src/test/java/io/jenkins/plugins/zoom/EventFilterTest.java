@@ -0,0 +1,65 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import hudson.model.ResultTrend;
+import org.junit.jupiter.api.Test;
+
+public class EventFilterTest {
+
+    @Test
+    public void testFailuresOnly() {
+        EventFilter events = new EventFilter();
+        events.setNotifyFailure(true);
+        assertThat(events.matches(ResultTrend.FAILURE), equalTo(true));
+        assertThat(events.matches(ResultTrend.STILL_FAILING), equalTo(false));
+        assertThat(events.matches(ResultTrend.SUCCESS), equalTo(false));
+        assertThat(events.matches(ResultTrend.FIXED), equalTo(false));
+    }
+
+    @Test
+    public void testFixedMatchesSuccessOrBackToNormal() {
+        EventFilter success = new EventFilter();
+        success.setNotifySuccess(true);
+        EventFilter backToNormal = new EventFilter();
+        backToNormal.setNotifyBackToNormal(true);
+        assertThat(success.matches(ResultTrend.FIXED), equalTo(true));
+        assertThat(backToNormal.matches(ResultTrend.FIXED), equalTo(true));
+        assertThat(backToNormal.matches(ResultTrend.SUCCESS), equalTo(false));
+    }
+
+    @Test
+    public void testAllUnstableTrendsMatchUnstable() {
+        EventFilter events = new EventFilter();
+        events.setNotifyUnstable(true);
+        assertThat(events.matches(ResultTrend.UNSTABLE), equalTo(true));
+        assertThat(events.matches(ResultTrend.NOW_UNSTABLE), equalTo(true));
+        assertThat(events.matches(ResultTrend.STILL_UNSTABLE), equalTo(true));
+    }
+
+    @Test
+    public void testRepeatedFailuresEveryNthBuild() {
+        EventFilter events = new EventFilter();
+        events.setNotifyRepeatedFailure(true);
+        events.setRepeatedFailureInterval(3);
+        assertThat(events.matches(ResultTrend.STILL_FAILING, 2), equalTo(true));
+        assertThat(events.matches(ResultTrend.STILL_FAILING, 3), equalTo(false));
+        assertThat(events.matches(ResultTrend.STILL_FAILING, 4), equalTo(false));
+        assertThat(events.matches(ResultTrend.STILL_FAILING, 5), equalTo(true));
+        assertThat(events.matches(ResultTrend.STILL_FAILING, 0), equalTo(true));
+    }
+
+    @Test
+    public void testTargetWithoutFilterUsesTheDefaults() {
+        EventFilter defaults = new EventFilter();
+        EventFilter own = new EventFilter();
+        ZoomTarget inheriting = new ZoomTarget("https://example.com/hook");
+        ZoomTarget filtered = new ZoomTarget("https://example.com/hook");
+        filtered.setEvents(own);
+        assertThat(inheriting.getEventsOrDefault(defaults), sameInstance(defaults));
+        assertThat(filtered.getEventsOrDefault(defaults), sameInstance(own));
+        assertThat(filtered.toString(), equalTo("example.com"));
+    }
+}
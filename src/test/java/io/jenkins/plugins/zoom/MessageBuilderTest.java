@@ -26,12 +26,17 @@ package io.jenkins.plugins.zoom;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import hudson.model.FreeStyleProject;
 import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import io.jenkins.plugins.zoom.benchmark.LegacyEscaper;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -114,10 +119,89 @@ public class MessageBuilderTest {
         assertThat(messageBuilder.build(), containsString("No cause information is available"));
     }
 
+    @Test
+    public void testCaptureThenRender() throws Exception {
+        ReportSnapshot snapshot = messageBuilder.captureBuild();
+        assertThat(MessageBuilder.toJson(snapshot.render()), is(messageBuilder.build()));
+    }
+
+    @Test
+    public void testRenderInBackground() throws Exception {
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        ReportRenderer.get().render(messageBuilder.capturePrebuild(), report -> {
+            if (ReportRenderer.isRendering()) {
+                thread.complete(Thread.currentThread().getName());
+            } else {
+                thread.completeExceptionally(new AssertionError("not on a rendering thread"));
+            }
+        });
+        assertThat(thread.get(10, TimeUnit.SECONDS), containsString("ZoomReportRenderer"));
+        assertThat(ReportRenderer.isRendering(), is(false));
+    }
+
     @Test
     public void testEscape() throws Exception {
         assertThat(messageBuilder.escape("a < b"), is("a &lt; b"));
         assertThat(messageBuilder.escape("b > a"), is("b &gt; a"));
         assertThat(messageBuilder.escape("c & d"), is("c &amp; d"));
     }
+
+    @Test
+    public void testEscapeLinks() throws Exception {
+        assertThat(
+                messageBuilder.escape("see <a href=\"https://ci/job/1/\">#1</a> & more"),
+                is("see <https://ci/job/1/|#1> &amp; more"));
+        assertThat(messageBuilder.escape("<A HREF=https://ci>ci</A>"), is("<https://ci|ci>"));
+        assertThat(messageBuilder.escape("<a name=\"x\">x</a>"), is("&lt;a name=\"x\"&gt;x&lt;/a&gt;"));
+    }
+
+    @Test
+    public void testEscapeKeepsApostrophesAndBraces() throws Exception {
+        assertThat(messageBuilder.escape("Don't {break}"), is("Don't {break}"));
+    }
+
+    @Test
+    public void testEscapeMatchesLegacyEscaper() throws Exception {
+        String[] edgeCases = {
+            "<a href=\"https://ci/job/1/\">#1</a>",
+            "<A HREF = 'https://ci/job/1/'>it's #1</A>",
+            "<<a href=https://ci>ci</a>>",
+            "<a href=x><a href=y>nested</a></a>",
+            "<a title=\"x\" href=\"y\" href=z>t</a>",
+            "<a href=\"x>y\">t</a>",
+            "<a href=>t</a>",
+            "<a>t</a>",
+            "<a href=x></a>",
+            "<a href=x>line\nbreak</a>",
+            "<a href='{x}'>{y}</a>",
+            "a & b &amp; <b>c</b> > d",
+            "",
+        };
+        for (String text : edgeCases) {
+            assertThat(text, messageBuilder.escape(text), is(LegacyEscaper.escape(text)));
+        }
+        // apostrophes and braces outside of links are not swallowed by MessageFormat any more
+        String[] tokens = {
+            "<a", "<A", "<ab", " href=", " HREF = ", "href", "=", "\"", "https://ci/job/1/", ">", "</a>", "</A>",
+            "<", "&", "&amp;", " ", "\n", "text", "#1"
+        };
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            StringBuilder builder = new StringBuilder();
+            int length = 1 + random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                builder.append(tokens[random.nextInt(tokens.length)]);
+            }
+            String text = builder.toString();
+            assertThat(text, messageBuilder.escape(text), is(LegacyEscaper.escape(text)));
+        }
+    }
+
+    @Test
+    public void testEscapeFixesLegacyApostrophesAndBraces() throws Exception {
+        assertThat(LegacyEscaper.escape("Don't"), is("Dont"));
+        assertThat(messageBuilder.escape("Don't"), is("Don't"));
+        assertThrows(NullPointerException.class, () -> LegacyEscaper.escape("{break}"));
+        assertThat(messageBuilder.escape("{break}"), is("{break}"));
+    }
 }
@@ -0,0 +1,19 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.jupiter.api.Test;
+
+public class NotifyResultTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    public void testParseRetryAfter() {
+        assertThat(NotifyResult.parseRetryAfter("120", NOW), is(120000L));
+        assertThat(NotifyResult.parseRetryAfter("Thu, 01 Jan 1970 00:16:50 GMT", NOW), is(10000L));
+        assertThat(NotifyResult.parseRetryAfter("soon", NOW), is(-1L));
+        assertThat(NotifyResult.parseRetryAfter(null, NOW), is(-1L));
+    }
+}
@@ -0,0 +1,87 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import io.jenkins.plugins.zoom.model.BuildReport;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PayloadBudgetTest {
+
+    private static final List<Integer> DURATIONS = Arrays.asList(3, 1, 5, 2, 4);
+
+    private static BuildReport reportWithFailedTests(int count) {
+        BuildReport report = new BuildReport();
+        report.getTestSummary().initFailedResults();
+        for (int i = 0; i < count; i++) {
+            BuildReport.TestResult test = new BuildReport.TestResult();
+            test.setName("SomeTest.test" + i);
+            test.setDuration(String.valueOf(i));
+            report.getTestSummary().getFailedResults().add(test);
+        }
+        return report;
+    }
+
+    @Test
+    public void testHighestRankedItemsAreKept() {
+        List<Integer> selected = PayloadBudget.select(DURATIONS, Comparator.naturalOrder(), 3);
+        assertThat(selected, contains(5, 4, 3));
+    }
+
+    @Test
+    public void testReversedRankKeepsTheLowestItems() {
+        List<Integer> selected = PayloadBudget.select(DURATIONS, Comparator.<Integer>naturalOrder().reversed(), 2);
+        assertThat(selected, contains(1, 2));
+    }
+
+    @Test
+    public void testUnrankedSelectionStopsAtTheLimit() {
+        List<Integer> selected = PayloadBudget.select(DURATIONS, null, 2);
+        assertThat(selected, contains(3, 1));
+    }
+
+    @Test
+    public void testOversizedReportIsShrunk() {
+        BuildReport report = reportWithFailedTests(200);
+        PayloadBudget budget = new PayloadBudget();
+        budget.setMaxBytes(2048);
+        budget.fit(report);
+        assertThat(PayloadBudget.sizeOf(report), lessThanOrEqualTo(2048L));
+        int kept = report.getTestSummary().getFailedResults().size();
+        assertThat(kept + report.getTestSummary().getMoreFailedResults(), equalTo(200));
+    }
+
+    @Test
+    public void testReportWithinBudgetIsUnchanged() {
+        BuildReport report = reportWithFailedTests(1);
+        new PayloadBudget().fit(report);
+        assertThat(report.getTestSummary().getFailedResults(), hasSize(1));
+        assertThat(report.getTestSummary().getMoreFailedResults(), nullValue());
+    }
+
+    @Test
+    public void testDroppedChangesAreCounted() throws Exception {
+        BuildReport report = new BuildReport();
+        report.initChanges();
+        for (int i = 0; i < 50; i++) {
+            BuildReport.Change change = new BuildReport.Change();
+            change.setCommitId("commit" + i);
+            change.setMessage("Change number " + i + " of a large merge");
+            report.getChanges().add(change);
+        }
+        PayloadBudget budget = new PayloadBudget();
+        budget.setMaxBytes(2048);
+        budget.fit(report);
+        assertThat(report.getChanges().size() + report.getMoreChanges(), equalTo(50));
+        // named like the other counts of items left out
+        assertThat(MessageBuilder.JSON_WRITER.writeValueAsString(report), containsString("\"moreChanges\":"));
+    }
+}
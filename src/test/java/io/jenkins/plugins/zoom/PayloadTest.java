@@ -0,0 +1,100 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+
+import io.jenkins.plugins.zoom.endpoint.DedupWindow;
+import io.jenkins.plugins.zoom.model.BuildReport;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.junit.jupiter.api.Test;
+
+public class PayloadTest {
+
+    private static BuildReport report() {
+        BuildReport report = new BuildReport();
+        report.setName("folder/job");
+        report.setSummary("Broken since build #12");
+        report.getTestSummary().initFailedResults();
+        for (int i = 0; i < 200; i++) {
+            BuildReport.TestResult test = new BuildReport.TestResult();
+            test.setName("SomeTest.test" + i);
+            test.setDuration("0.5");
+            report.getTestSummary().getFailedResults().add(test);
+        }
+        return report;
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testHashKeepsSerializedBytes() {
+        BuildReport report = report();
+        Payload payload = Payload.of(report);
+        long hash = payload.hash();
+        byte[] bytes = payload.toBytes();
+        assertThat(hash, equalTo(DedupWindow.hash(MessageBuilder.toJsonBytes(report))));
+        assertThat(hash, equalTo(DedupWindow.hash(bytes)));
+        // the outbox and the request reuse the bytes hashed for the dedup window
+        assertThat(payload.toBytes(), sameInstance(bytes));
+        assertThat(payload.toEntity(), instanceOf(ByteArrayEntity.class));
+        assertThat(Payload.ofJson(MessageBuilder.toJson(report)).hash(), equalTo(hash));
+    }
+
+    @Test
+    public void testSizeIsCountedWithoutSerializing() {
+        BuildReport report = report();
+        Payload payload = Payload.of(report);
+        long size = payload.size();
+        assertThat(size, equalTo((long) MessageBuilder.toJsonBytes(report).length));
+        assertThat(payload.shouldCompress(0), is(false));
+        assertThat(payload.shouldCompress((int) size), is(true));
+        assertThat(payload.shouldCompress((int) size + 1), is(false));
+        assertThat(Payload.ofJson(null).shouldCompress(1), is(false));
+    }
+
+    @Test
+    public void testGzipEntityStreamsAndCountsTheBody() throws IOException {
+        Payload payload = Payload.of(report());
+        GzipEntity entity = new GzipEntity(payload.toEntity());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+
+        byte[] json = payload.toBytes();
+        assertThat(gunzip(out.toByteArray()), equalTo(json));
+        assertThat(entity.getUncompressedBytes(), equalTo((long) json.length));
+        assertThat(entity.getCompressedBytes(), equalTo((long) out.size()));
+        assertThat(entity.getCompressedBytes(), lessThan(entity.getUncompressedBytes()));
+        assertThat(entity.getContentEncoding(), equalTo("gzip"));
+    }
+
+    @Test
+    public void testGzipEntityContentCanBeRead() throws IOException {
+        Payload payload = Payload.of(report());
+        GzipEntity entity = new GzipEntity(payload.toEntity());
+        try (InputStream content = entity.getContent()) {
+            assertThat(gunzip(content.readAllBytes()), equalTo(payload.toBytes()));
+        }
+        assertThat(entity.getCompressedBytes(), equalTo(0L));
+    }
+
+    @Test
+    public void testGzipBytes() throws IOException {
+        Payload payload = Payload.ofJson("{\"summary\":\"" + "x".repeat(1000) + "\"}");
+        byte[] gzip = payload.toGzipBytes();
+        assertThat(gunzip(gzip), equalTo(payload.toBytes()));
+        assertThat(gzip.length, lessThan(payload.toBytes().length));
+    }
+}
@@ -0,0 +1,44 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.jupiter.api.Test;
+
+public class PermitsTest {
+
+    @Test
+    public void testResizeAddsPermits() {
+        Permits permits = new Permits();
+        assertThat(permits.tryAcquire(), is(false));
+        permits.resize(2);
+        assertThat(permits.tryAcquire(), is(true));
+        permits.resize(3);
+        assertThat(permits.availablePermits(), is(2));
+        assertThat(permits.getHeld(), is(1));
+    }
+
+    @Test
+    public void testShrinkingBelowHeldWaitsForReleases() {
+        Permits permits = new Permits();
+        permits.resize(3);
+        assertThat(permits.tryAcquire(3), is(true));
+        permits.resize(1);
+        assertThat(permits.getLimit(), is(1));
+        permits.release();
+        permits.release();
+        // two of the three held permits are gone with the smaller limit
+        assertThat(permits.tryAcquire(), is(false));
+        permits.release();
+        assertThat(permits.tryAcquire(), is(true));
+        assertThat(permits.tryAcquire(), is(false));
+    }
+
+    @Test
+    public void testResizeToSameLimitKeepsPermits() {
+        Permits permits = new Permits();
+        permits.resize(2);
+        permits.resize(2);
+        assertThat(permits.availablePermits(), is(2));
+    }
+}
@@ -0,0 +1,118 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import hudson.ProxyConfiguration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+public class ProxyHttpClientCacheTest {
+
+    @Test
+    public void testClientIsReusedUntilSettingsChange(JenkinsRule r) throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        Function<ProxyConfiguration, CloseableHttpClient> factory = settings -> {
+            created.incrementAndGet();
+            return new TrackingClient();
+        };
+        ProxyHttpClientCache.Proxy first = ProxyHttpClientCache.get(
+                new ProxyConfiguration("proxy-a.example.com", 3128, "user", "secret", null), factory);
+        ProxyHttpClientCache.Proxy again = ProxyHttpClientCache.get(
+                new ProxyConfiguration("proxy-a.example.com", 3128, "user", "secret", null), factory);
+        assertThat(again, is(sameInstance(first)));
+        assertThat(created.get(), is(1));
+
+        ProxyHttpClientCache.Proxy changed = ProxyHttpClientCache.get(
+                new ProxyConfiguration("proxy-a.example.com", 3128, "user", "changed", null), factory);
+        assertThat(changed, is(not(sameInstance(first))));
+        assertThat(changed.getClient(), is(not(sameInstance(first.getClient()))));
+        assertThat(created.get(), is(2));
+    }
+
+    @Test
+    public void testReplacedIdleClientIsClosed(JenkinsRule r) throws Exception {
+        TrackingClient retired = new TrackingClient();
+        TrackingClient current = new TrackingClient();
+        ProxyHttpClientCache.get(new ProxyConfiguration("proxy-b.example.com", 3128), settings -> retired);
+        ProxyHttpClientCache.get(new ProxyConfiguration("proxy-b.example.com", 8080), settings -> current);
+        assertThat(retired.closed.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(current.closed.getCount(), is(1L));
+    }
+
+    @Test
+    public void testReplacedClientIsClosedAfterItsRequests(JenkinsRule r) throws Exception {
+        TrackingClient retired = new TrackingClient();
+        ProxyConfiguration config = new ProxyConfiguration("proxy-d.example.com", 3128);
+        ProxyHttpClientCache.Proxy first = ProxyHttpClientCache.lease(config, settings -> retired);
+        ProxyHttpClientCache.Proxy second = ProxyHttpClientCache.lease(config, settings -> retired);
+        assertThat(second, is(sameInstance(first)));
+
+        ProxyHttpClientCache.get(new ProxyConfiguration("proxy-d.example.com", 8080), settings -> new TrackingClient());
+        first.release();
+        assertThat(retired.closed.getCount(), is(1L));
+        assertThat(first.tryLease(), is(true));
+        first.release();
+        second.release();
+        assertThat(retired.closed.getCount(), is(0L));
+        // a client that was closed is not leased again
+        assertThat(first.tryLease(), is(false));
+    }
+
+    @Test
+    public void testNoProxyHosts(JenkinsRule r) throws Exception {
+        ProxyHttpClientCache.Proxy proxy = ProxyHttpClientCache.get(
+                new ProxyConfiguration("proxy-c.example.com", 3128, null, null, "*.internal.example.com\nlocalhost"),
+                settings -> new TrackingClient());
+        assertThat(proxy.isNoProxyHost("https://hooks.internal.example.com/v1/abc"), is(true));
+        assertThat(proxy.isNoProxyHost("http://localhost:8080/hook"), is(true));
+        assertThat(proxy.isNoProxyHost("https://integrations.zoom.us/chat/webhooks/incomingwebhook/abc"), is(false));
+        // the decision is cached per host
+        assertThat(proxy.isNoProxyHost("https://hooks.internal.example.com/v1/def"), is(true));
+        assertThat(proxy.isNoProxyHost("https://integrations.zoom.us/chat/webhooks/incomingwebhook/def"), is(false));
+        assertThat(proxy.isNoProxyHost("not a url"), is(false));
+        assertThat(proxy.isNoProxyHost(null), is(false));
+    }
+
+    @Test
+    public void testNoProxyWithoutHost(JenkinsRule r) {
+        assertThat(ProxyHttpClientCache.get(null, settings -> new TrackingClient()), is(nullValue()));
+        assertThat(
+                ProxyHttpClientCache.get(new ProxyConfiguration("", 3128), settings -> new TrackingClient()),
+                is(nullValue()));
+    }
+
+    private static final class TrackingClient extends CloseableHttpClient {
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        protected CloseableHttpResponse doExecute(HttpHost target, ClassicHttpRequest request, HttpContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        @Override
+        public void close(CloseMode closeMode) {
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import io.jenkins.plugins.zoom.dispatch.DropPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+public class ReportRendererTest {
+
+    private static final String JOB = "folder/app";
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final List<String> ran = new CopyOnWriteArrayList<>();
+
+    private static void configure(int queueCapacity, DropPolicy dropPolicy) {
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        config.setQueueCapacity(queueCapacity);
+        config.setDropPolicy(dropPolicy);
+        config.save();
+    }
+
+    private Runnable record(String name) {
+        return () -> ran.add(name + (ReportRenderer.isRendering() ? "" : " on caller"));
+    }
+
+    /**
+     * Runs a task of the job that holds its lane until the latch is released.
+     */
+    private CountDownLatch block(ReportRenderer renderer) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        renderer.execute(JOB, "blocker", () -> {
+            started.countDown();
+            try {
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ran.add("blocker");
+        });
+        assertThat(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+        return release;
+    }
+
+    @Test
+    public void testTasksOfAJobRunInOrder(JenkinsRule r) throws Exception {
+        configure(100, DropPolicy.DROP_NEWEST);
+        ReportRenderer renderer = new ReportRenderer();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            renderer.execute(JOB, "task " + i, record("task " + i));
+            // tasks of other jobs share the lanes without reordering the job
+            renderer.execute("other-" + i, "other " + i, () -> {});
+            expected.add("task " + i);
+        }
+        renderer.close();
+        assertThat(ran, is(expected));
+        assertThat(renderer.getPending(), is(0));
+        assertThat(renderer.getDropped(), is(0L));
+    }
+
+    @Test
+    public void testDropOldestReplacesQueuedTask(JenkinsRule r) throws Exception {
+        configure(3, DropPolicy.DROP_OLDEST);
+        ReportRenderer renderer = new ReportRenderer();
+        CountDownLatch release = block(renderer);
+        renderer.execute(JOB, "oldest", record("oldest"));
+        renderer.execute(JOB, "older", record("older"));
+
+        renderer.execute(JOB, "newest", record("newest"));
+        assertThat(renderer.getDropped(), is(1L));
+        assertThat(renderer.getPending(), is(3));
+
+        release.countDown();
+        renderer.close();
+        assertThat(ran, contains("blocker", "older", "newest"));
+        assertThat(renderer.getPending(), is(0));
+    }
+
+    @Test
+    public void testDropNewestKeepsQueuedTasks(JenkinsRule r) throws Exception {
+        configure(2, DropPolicy.DROP_NEWEST);
+        ReportRenderer renderer = new ReportRenderer();
+        CountDownLatch release = block(renderer);
+        renderer.execute(JOB, "queued", record("queued"));
+
+        renderer.execute(JOB, "newest", record("newest"));
+        assertThat(renderer.getDropped(), is(1L));
+
+        release.countDown();
+        renderer.close();
+        assertThat(ran, contains("blocker", "queued"));
+    }
+
+    @Test
+    public void testCallerRunsWhenFull(JenkinsRule r) throws Exception {
+        configure(1, DropPolicy.CALLER_RUNS);
+        ReportRenderer renderer = new ReportRenderer();
+        CountDownLatch release = block(renderer);
+
+        renderer.execute(JOB, "newest", record("newest"));
+        assertThat(ran, contains("newest on caller"));
+        assertThat(renderer.getDropped(), is(0L));
+
+        release.countDown();
+        renderer.close();
+        assertThat(ran, contains("newest on caller", "blocker"));
+    }
+
+    @Test
+    public void testShutdownRendersQueuedTasks(JenkinsRule r) throws Exception {
+        configure(100, DropPolicy.DROP_NEWEST);
+        ReportRenderer renderer = new ReportRenderer();
+        CountDownLatch release = block(renderer);
+        for (int i = 0; i < 5; i++) {
+            renderer.execute(JOB, "queued " + i, record("queued " + i));
+        }
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        releaser.start();
+
+        renderer.close();
+        assertThat(ran, contains("blocker", "queued 0", "queued 1", "queued 2", "queued 3", "queued 4"));
+        assertThat(renderer.getPending(), is(0));
+
+        // once stopped, tasks run on the calling thread
+        renderer.execute(JOB, "late", record("late"));
+        assertThat(ran.get(ran.size() - 1), is("late on caller"));
+        assertThat(renderer.getPending(), is(0));
+        releaser.join();
+    }
+}
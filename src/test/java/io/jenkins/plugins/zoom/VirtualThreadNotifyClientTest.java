@@ -0,0 +1,120 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+public class VirtualThreadNotifyClientTest {
+
+    private static final Payload PAYLOAD = Payload.ofJson("{\"text\":\"build finished\"}");
+
+    private final CountDownLatch answer = new CountDownLatch(1);
+    private final CountDownLatch received = new CountDownLatch(1);
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private HttpServer server;
+    private VirtualThreadNotifyClient client;
+    private String url;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            received.countDown();
+            try {
+                answer.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(handlers);
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/hook";
+        client = new VirtualThreadNotifyClient();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        answer.countDown();
+        client.close();
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    private static void limitSends(int maxConcurrentSends) {
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        config.setMaxConcurrentSends(maxConcurrentSends);
+        config.setRateLimit(0);
+        config.save();
+    }
+
+    @Test
+    public void testQueuedSendStartsAfterRelease(JenkinsRule r) throws Exception {
+        limitSends(1);
+        CompletableFuture<NotifyResult> first = client.send(url, null, false, PAYLOAD);
+        CompletableFuture<NotifyResult> second = client.send(url, null, false, PAYLOAD);
+        assertThat(received.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(client.getRunning(), is(1));
+        assertThat(client.getWaiting(), is(1));
+        assertThat(second.isDone(), is(false));
+
+        answer.countDown();
+        assertThat(first.get(10, TimeUnit.SECONDS).isSuccess(), is(true));
+        assertThat(second.get(10, TimeUnit.SECONDS).isSuccess(), is(true));
+        assertThat(client.getWaiting(), is(0));
+    }
+
+    @Test
+    public void testWaitingSendsAreBounded(JenkinsRule r) throws Exception {
+        limitSends(1);
+        client.send(url, null, false, PAYLOAD);
+        assertThat(received.await(10, TimeUnit.SECONDS), is(true));
+        client.send(url, null, false, PAYLOAD);
+
+        NotifyResult overflow = client.send(url, null, false, PAYLOAD).get(10, TimeUnit.SECONDS);
+        assertThat(overflow.isLocalFailure(), is(true));
+        assertThat(client.getWaiting(), is(1));
+    }
+
+    @Test
+    public void testNoSendAfterShutdown(JenkinsRule r) throws Exception {
+        limitSends(1);
+        CompletableFuture<NotifyResult> running = client.send(url, null, false, PAYLOAD);
+        assertThat(received.await(10, TimeUnit.SECONDS), is(true));
+        CompletableFuture<NotifyResult> queued = client.send(url, null, false, PAYLOAD);
+        client.close();
+
+        assertThat(client.send(url, null, false, PAYLOAD).get(10, TimeUnit.SECONDS).isSent(), is(false));
+        answer.countDown();
+        // the running send completes, the one still waiting is not started any more
+        assertThat(running.get(10, TimeUnit.SECONDS).isSuccess(), is(true));
+        assertThat(queued.get(10, TimeUnit.SECONDS).isSent(), is(false));
+    }
+
+    @Test
+    public void testPoolsKeepAConnectionPerConcurrentSend(JenkinsRule r) {
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        config.setMaxConcurrentSends(200);
+        assertThat(config.getMaxConnectionsPerRoute(), is(ConnectionPoolSettings.DEFAULT_MAX_PER_ROUTE));
+        config.setTransport(Transport.VIRTUAL_THREADS);
+        assertThat(config.getMaxConnectionsPerRoute(), is(200));
+        assertThat(config.getMaxInFlight(), is(200));
+    }
+}
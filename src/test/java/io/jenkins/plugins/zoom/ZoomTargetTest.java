@@ -0,0 +1,68 @@
+package io.jenkins.plugins.zoom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import hudson.model.ResultTrend;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class ZoomTargetTest {
+
+    private static final String MAIN = "https://integrations.zoom.us/chat/webhooks/incomingwebhook/AbCdEfGh1234";
+    private static final String ONCALL = "https://integrations.zoom.us/chat/webhooks/incomingwebhook/ZyXwVuTs9876";
+    private static final String RELEASES = "https://integrations.zoom.us/chat/webhooks/incomingwebhook/QrStUvWx5555";
+
+    private static List<String> urls(List<ZoomTarget> targets) {
+        return targets.stream().map(ZoomTarget::getWebhookUrl).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testLabelTellsTargetsApartWithoutTheChannel() {
+        String main = new ZoomTarget(MAIN).toString();
+        String oncall = new ZoomTarget(ONCALL).toString();
+        assertThat(main, is("integrations.zoom.us/…1234"));
+        assertThat(oncall, is(not(main)));
+        assertThat(new ZoomTarget("http://localhost:8080/a").toString(), is("localhost/a"));
+        assertThat(new ZoomTarget("not a url").toString(), is("invalid webhook URL"));
+    }
+
+    @Test
+    public void testTargetsFollowTheirOwnEvents() {
+        ZoomNotifier notifier = new ZoomNotifier();
+        notifier.setWebhookUrl(MAIN);
+        notifier.setNotifySuccess(true);
+        notifier.setNotifyFailure(true);
+        EventFilter failuresOnly = new EventFilter();
+        failuresOnly.setNotifyFailure(true);
+        ZoomTarget oncall = new ZoomTarget(ONCALL);
+        oncall.setEvents(failuresOnly);
+        // without a filter of its own, a target gets the events of the main webhook
+        ZoomTarget releases = new ZoomTarget(RELEASES);
+        notifier.setTargets(Arrays.asList(oncall, releases));
+
+        assertThat(
+                urls(notifier.selectTargets(events -> events.matches(ResultTrend.SUCCESS))), contains(MAIN, RELEASES));
+        assertThat(
+                urls(notifier.selectTargets(events -> events.matches(ResultTrend.FAILURE))),
+                contains(MAIN, ONCALL, RELEASES));
+        assertThat(urls(notifier.selectTargets(EventFilter::isNotifyStart)).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testTargetsWithoutMainWebhook() {
+        ZoomNotifier notifier = new ZoomNotifier();
+        EventFilter failuresOnly = new EventFilter();
+        failuresOnly.setNotifyFailure(true);
+        ZoomTarget oncall = new ZoomTarget(ONCALL);
+        oncall.setEvents(failuresOnly);
+        notifier.setTargets(Arrays.asList(oncall));
+
+        assertThat(urls(notifier.selectTargets(events -> events.matches(ResultTrend.FAILURE))), contains(ONCALL));
+        assertThat(urls(notifier.selectTargets(events -> events.matches(ResultTrend.SUCCESS))).isEmpty(), is(true));
+    }
+}
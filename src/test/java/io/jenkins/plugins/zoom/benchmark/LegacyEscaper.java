@@ -0,0 +1,52 @@
+package io.jenkins.plugins.zoom.benchmark;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regular expression and {@link MessageFormat} escaper that {@code MessageBuilder.escape} used to be,
+ * kept as the baseline of {@link EscapeBenchmark} and of the escaping tests.
+ */
+public final class LegacyEscaper {
+
+    private static final Pattern aTag = Pattern.compile("(?i)<a([^>]+)>(.+?)</a>|(\\{)");
+    private static final Pattern href = Pattern.compile("\\s*(?i)href\\s*=\\s*(\"([^\"]*\")|'[^']*'|([^'\">\\s]+))");
+
+    private LegacyEscaper() {}
+
+    private static String[] extractReplaceLinks(Matcher aTag, StringBuffer sb) {
+        int size = 0;
+        List<String> links = new ArrayList<>();
+        while (aTag.find()) {
+            Matcher url = href.matcher(aTag.group(1));
+            if (url.find()) {
+                String escapeThis = aTag.group(3);
+                if (escapeThis != null) {
+                    aTag.appendReplacement(sb, String.format("{%s}", size++));
+                    links.add("{");
+                } else {
+                    aTag.appendReplacement(sb, String.format("{%s}", size++));
+                    links.add(String.format("<%s|%s>", url.group(1).replaceAll("\"", ""), aTag.group(2)));
+                }
+            }
+        }
+        aTag.appendTail(sb);
+        return links.toArray(new String[size]);
+    }
+
+    private static String escapeCharacters(String string) {
+        string = string.replace("&", "&amp;");
+        string = string.replace("<", "&lt;");
+        string = string.replace(">", "&gt;");
+        return string;
+    }
+
+    public static String escape(String string) {
+        StringBuffer pattern = new StringBuffer();
+        String[] links = extractReplaceLinks(aTag.matcher(string), pattern);
+        return MessageFormat.format(escapeCharacters(pattern.toString()), (Object[]) links);
+    }
+}
@@ -0,0 +1,69 @@
+package io.jenkins.plugins.zoom.benchmark;
+
+import io.jenkins.plugins.zoom.NotifyClient;
+import io.jenkins.plugins.zoom.NotifyResult;
+import io.jenkins.plugins.zoom.Payload;
+import io.jenkins.plugins.zoom.Transport;
+import io.jenkins.plugins.zoom.ZoomGlobalConfiguration;
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * End-to-end {@link NotifyClient#send} throughput and latency of each {@link Transport} against a local stub webhook.
+ * The rate limit is disabled so that only the client, the connection pool and the circuit breaker are measured.
+ */
+@JmhBenchmark
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class NotifyBenchmark {
+
+    public static class JenkinsState extends JmhBenchmarkState {
+
+        @Param({"0", "20"})
+        public long latencyMillis;
+
+        @Param({"0", "0.05"})
+        public double errorRate;
+
+        @Param({"20"})
+        public int failedTests;
+
+        @Param({"ASYNC", "BLOCKING"})
+        public Transport transport;
+
+        private StubZoomServer server;
+        private String url;
+        private Payload payload;
+        private NotifyClient client;
+
+        @Override
+        public void setup() throws Exception {
+            ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+            config.setRateLimit(0);
+            config.save();
+            server = new StubZoomServer(latencyMillis, errorRate);
+            url = server.getUrl();
+            payload = Payload.ofJson(
+                    Payload.of(SyntheticReports.report(20, 5, failedTests)).toString());
+            client = transport.getClient();
+        }
+
+        @Override
+        public void tearDown() {
+            server.close();
+        }
+    }
+
+    @Benchmark
+    public NotifyResult send(JenkinsState state) {
+        return state.client.send(state.url, null, false, state.payload).join();
+    }
+}
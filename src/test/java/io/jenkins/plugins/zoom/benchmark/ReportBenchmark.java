@@ -0,0 +1,100 @@
+package io.jenkins.plugins.zoom.benchmark;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.tasks.junit.JUnitResultArchiver;
+import io.jenkins.plugins.zoom.MessageBuilder;
+import io.jenkins.plugins.zoom.ReportSnapshot;
+import io.jenkins.plugins.zoom.ZoomNotifier;
+import io.jenkins.plugins.zoom.model.BuildReport;
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import org.jvnet.hudson.test.FakeChangeLogSCM;
+import org.jvnet.hudson.test.TestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Report construction by {@link MessageBuilder} for a build with N commits and M failed tests,
+ * including escaping and the payload budget, and the capture alone that runs on the build executor.
+ */
+@JmhBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReportBenchmark {
+
+    public static class JenkinsState extends JmhBenchmarkState {
+
+        @Param({"0", "50", "500"})
+        public int commits;
+
+        @Param({"0", "50", "1000"})
+        public int failedTests;
+
+        private Run<?, ?> build;
+        private ZoomNotifier notifier;
+
+        @Override
+        public void setup() throws Exception {
+            FreeStyleProject project = getJenkins().createProject(FreeStyleProject.class, "report-benchmark");
+            FakeChangeLogSCM scm = new FakeChangeLogSCM();
+            for (int i = 0; i < commits; i++) {
+                scm.addChange()
+                        .withAuthor("developer" + (i % 17))
+                        .withMsg("Change " + i + ": handle <empty> change sets & aborted builds");
+            }
+            project.setScm(scm);
+            String junitXml = junitXml(failedTests);
+            project.getBuildersList()
+                    .add(TestBuilder.of((build, launcher, listener) ->
+                            build.getWorkspace().child("junit.xml").write(junitXml, "UTF-8")));
+            project.getPublishersList().add(new JUnitResultArchiver("junit.xml"));
+            build = project.scheduleBuild2(0).get();
+            notifier = new ZoomNotifier();
+            notifier.setIncludeCommitInfo(true);
+            notifier.setIncludeTestSummary(true);
+            notifier.setIncludeFailedTests(true);
+        }
+
+        private static String junitXml(int failures) {
+            int tests = failures + 100;
+            StringBuilder xml = new StringBuilder("<testsuite name=\"com.example.ComponentTest\" tests=\"")
+                    .append(tests)
+                    .append("\" failures=\"")
+                    .append(failures)
+                    .append("\">");
+            for (int i = 0; i < tests; i++) {
+                xml.append("<testcase classname=\"com.example.ComponentTest\" name=\"case")
+                        .append(i)
+                        .append("\" time=\"")
+                        .append(0.01 * (i % 300))
+                        .append("\">");
+                if (i < failures) {
+                    xml.append("<failure message=\"expected 1 but was 2\">java.lang.AssertionError</failure>");
+                }
+                xml.append("</testcase>");
+            }
+            return xml.append("</testsuite>").toString();
+        }
+    }
+
+    @Benchmark
+    public BuildReport buildReport(JenkinsState state) {
+        return new MessageBuilder(state.notifier, state.build, TaskListener.NULL).buildReport();
+    }
+
+    @Benchmark
+    public ReportSnapshot captureBuild(JenkinsState state) {
+        return new MessageBuilder(state.notifier, state.build, TaskListener.NULL).captureBuild();
+    }
+
+    @Benchmark
+    public BuildReport prebuildReport(JenkinsState state) {
+        return new MessageBuilder(state.notifier, state.build, TaskListener.NULL).prebuildReport();
+    }
+}
@@ -0,0 +1,76 @@
+package io.jenkins.plugins.zoom.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jenkins.plugins.zoom.MessageBuilder;
+import io.jenkins.plugins.zoom.Payload;
+import io.jenkins.plugins.zoom.model.BuildReport;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Jackson serialization of {@link BuildReport}: a new mapper per message as the plugin used to do,
+ * the shared writer, and streaming into the request entity.
+ */
+@JmhBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"0", "20", "500"})
+    public int commits;
+
+    @Param({"0", "20", "2000"})
+    public int failedTests;
+
+    private BuildReport report;
+
+    @Setup
+    public void setup() {
+        report = SyntheticReports.report(commits, 5, failedTests);
+    }
+
+    @Benchmark
+    public String newMapperPerMessage() throws IOException {
+        return new ObjectMapper().writeValueAsString(report);
+    }
+
+    @Benchmark
+    public String sharedWriter() {
+        return MessageBuilder.toJson(report);
+    }
+
+    @Benchmark
+    public void streamingEntity(Blackhole blackhole) throws IOException {
+        Payload.of(report).toEntity().writeTo(new BlackholeOutputStream(blackhole));
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+        }
+    }
+}
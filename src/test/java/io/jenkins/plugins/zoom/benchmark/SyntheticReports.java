@@ -0,0 +1,48 @@
+package io.jenkins.plugins.zoom.benchmark;
+
+import io.jenkins.plugins.zoom.model.BuildReport;
+import java.util.LinkedHashSet;
+
+/**
+ * Builds reports of a given size without a Jenkins instance.
+ */
+final class SyntheticReports {
+
+    private SyntheticReports() {}
+
+    static BuildReport report(int commits, int filesPerCommit, int failedTests) {
+        BuildReport report = new BuildReport();
+        report.setName("platform » backend » release/2.4");
+        report.setNumber("#1284");
+        report.setFullUrl("https://ci.example.com/job/platform/job/backend/job/release%2F2.4/1284/");
+        report.setDuration(754_321);
+        report.setStatus("Failure");
+        report.setSummary("Broken since build #1281");
+        report.setCause("Started by an SCM change");
+        report.initChanges();
+        for (int i = 0; i < commits; i++) {
+            BuildReport.Change change = new BuildReport.Change();
+            change.setAuthor("Developer " + (i % 17));
+            change.setCommitId(String.format("%040x", i * 2654435761L));
+            change.setMessage("Change " + i + ": adjust the retry handling of the &lt;client&gt; and update tests");
+            change.setFiles(new LinkedHashSet<>());
+            for (int f = 0; f < filesPerCommit; f++) {
+                BuildReport.AffectedFile file = new BuildReport.AffectedFile();
+                file.setName("src/main/java/com/example/module" + (i % 7) + "/Component" + f + ".java");
+                change.getFiles().add(file);
+            }
+            report.getChanges().add(change);
+        }
+        report.initTestSummary();
+        report.setTotalTest(5000);
+        report.setFailTest(failedTests);
+        report.getTestSummary().initFailedResults();
+        for (int i = 0; i < failedTests; i++) {
+            BuildReport.TestResult test = new BuildReport.TestResult();
+            test.setName("ComponentTest" + (i % 31) + ".shouldHandleCase" + i);
+            test.setDuration(String.valueOf(0.25f * (i % 40)));
+            report.getTestSummary().getFailedResults().add(test);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,120 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.jenkins.plugins.zoom.NotifyResult;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DeadLetterQueueTest {
+
+    private static final String HOOK = "https://example.com/hook";
+    private static final String OTHER_HOOK = "https://example.com/other";
+
+    @TempDir
+    Path directory;
+
+    private DeadLetterQueue queue() {
+        return new DeadLetterQueue(new File(directory.toFile(), DeadLetterQueue.FILE_NAME));
+    }
+
+    private static void add(DeadLetterQueue queue, String webhookUrl, String source, int status, int capacity) {
+        Notification notification = new Notification(webhookUrl, null, false, "{\"from\":\"" + source + "\"}", source);
+        queue.add(notification, 3, NotifyResult.response(status, -1, 10), capacity);
+    }
+
+    private static List<String> sources(List<DeadLetter> letters) {
+        return letters.stream().map(DeadLetter::getSource).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testFiltersByJobWebhookAndStatus() {
+        DeadLetterQueue queue = queue();
+        add(queue, HOOK, "folder/app#1", 503, 10);
+        add(queue, OTHER_HOOK, "folder/app#2", 429, 10);
+        add(queue, HOOK, "other#7", 503, 10);
+
+        assertThat(sources(queue.find("folder/app", null, null)), contains("folder/app#1", "folder/app#2"));
+        assertThat(sources(queue.find(null, HOOK, "")), contains("folder/app#1", "other#7"));
+        assertThat(sources(queue.find("folder/app", HOOK, "503")), contains("folder/app#1"));
+        assertThat(sources(queue.find(null, null, "429")), contains("folder/app#2"));
+        assertThat(queue.find("missing", null, null).size(), is(0));
+        assertThrows(IllegalArgumentException.class, () -> queue.find(null, null, "bad"));
+    }
+
+    @Test
+    public void testEvictsOldestWhenFull() {
+        DeadLetterQueue queue = queue();
+        for (int i = 1; i <= 5; i++) {
+            add(queue, HOOK, "app#" + i, 503, 3);
+        }
+        assertThat(sources(queue.find(null, null, null)), contains("app#3", "app#4", "app#5"));
+        assertThat(queue.getEvicted(), is(2L));
+        assertThat(queue.find("app", null, null).size(), is(3));
+    }
+
+    @Test
+    public void testTakeAndDeleteUpdateIndexes() {
+        DeadLetterQueue queue = queue();
+        add(queue, HOOK, "app#1", 503, 10);
+        add(queue, HOOK, "app#2", 503, 10);
+        add(queue, OTHER_HOOK, "app#3", 503, 10);
+        long first = queue.find(null, null, null).get(0).getId();
+
+        assertThat(queue.take(first).getSource(), is("app#1"));
+        assertThat(queue.take(first), nullValue());
+        assertThat(queue.delete(DeadLetterFilter.of(null, OTHER_HOOK, null)), is(1));
+        assertThat(sources(queue.find("app", null, null)), contains("app#2"));
+        assertThat(queue.find(null, OTHER_HOOK, null).size(), is(0));
+    }
+
+    @Test
+    public void testSurvivesRestart() {
+        DeadLetterQueue queue = queue();
+        add(queue, HOOK, "app#1", 503, 10);
+        add(queue, HOOK, "digest of 3 builds", NotifyResult.NO_RESPONSE, 10);
+        queue.save();
+
+        DeadLetterQueue reopened = queue();
+        reopened.load();
+        List<DeadLetter> letters = reopened.find(null, null, null);
+        assertThat(sources(letters), contains("app#1", "digest of 3 builds"));
+        DeadLetter letter = letters.get(0);
+        assertThat(letter.getJob(), is("app"));
+        assertThat(letter.getBuild(), is(1));
+        assertThat(letter.getAttempts(), is(3));
+        assertThat(letter.getLastStatus(), is(503));
+        assertThat(letter.toNotification().getMessage(), is("{\"from\":\"app#1\"}"));
+        assertThat(letters.get(1).getBuild(), is(-1));
+        assertThat(letters.get(1).getLastStatus(), is(NotifyResult.NO_RESPONSE));
+    }
+
+    @Test
+    public void testSaveWritesSnapshot() {
+        DeadLetterQueue queue = queue();
+        add(queue, HOOK, "app#1", 503, 10);
+        queue.save();
+        // entries added after the snapshot are written by the next save
+        add(queue, HOOK, "app#2", 503, 10);
+
+        DeadLetterQueue reopened = queue();
+        reopened.load();
+        assertThat(sources(reopened.find(null, null, null)), contains("app#1"));
+        queue.save();
+        reopened = queue();
+        reopened.load();
+        assertThat(sources(reopened.find(null, null, null)), contains("app#1", "app#2"));
+        // ids continue after the entries read
+        add(reopened, HOOK, "app#3", 503, 10);
+        List<DeadLetter> letters = reopened.find(null, null, null);
+        assertThat(letters.get(2).getId(), is(letters.get(1).getId() + 1));
+    }
+}
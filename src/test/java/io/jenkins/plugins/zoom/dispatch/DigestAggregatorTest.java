@@ -0,0 +1,161 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import hudson.util.Secret;
+import io.jenkins.plugins.zoom.ZoomGlobalConfiguration;
+import io.jenkins.plugins.zoom.model.BuildReport;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+public class DigestAggregatorTest {
+
+    private static final String HOOK = "https://hooks.example.com/digest";
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @TempDir
+    Path directory;
+
+    private final List<Notification> sent = new CopyOnWriteArrayList<>();
+    private NotificationOutbox outbox;
+
+    private DigestAggregator aggregator() throws Exception {
+        outbox = new NotificationOutbox(directory.toFile(), 1024 * 1024);
+        outbox.recover();
+        return new DigestAggregator(sent::add, () -> outbox);
+    }
+
+    private static DigestMode mode(int windowSeconds, int maxEvents) {
+        DigestMode mode = new DigestMode();
+        mode.setWindowSeconds(windowSeconds);
+        mode.setMaxEvents(maxEvents);
+        return mode;
+    }
+
+    private static BuildReport report(String name) {
+        BuildReport report = new BuildReport();
+        report.setName(name);
+        report.setStatus("Success");
+        return report;
+    }
+
+    private static List<String> sources(List<Notification> notifications) {
+        return notifications.stream().map(Notification::getSource).collect(Collectors.toList());
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (sent.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(sent.size(), is(count));
+    }
+
+    @Test
+    public void testWindowSendsOneDigest(JenkinsRule r) throws Exception {
+        DigestAggregator aggregator = aggregator();
+        DigestMode mode = mode(1, 50);
+        aggregator.add(HOOK, null, false, null, mode, report("app #1"));
+        aggregator.add(HOOK, null, false, null, mode, report("app #2"));
+        assertThat(aggregator.getOpenDigests(), is(1));
+        assertThat(sent, is(empty()));
+
+        awaitSent(1);
+        assertThat(sources(sent), containsInAnyOrder("digest of 2 builds"));
+        assertThat(sent.get(0).getWebhookUrl(), is(HOOK));
+        assertThat(aggregator.getOpenDigests(), is(0));
+    }
+
+    @Test
+    public void testFullDigestIsSentRightAway(JenkinsRule r) throws Exception {
+        DigestAggregator aggregator = aggregator();
+        DigestMode mode = mode(300, 2);
+        aggregator.add(HOOK, null, false, null, mode, report("app #1"));
+        aggregator.add(HOOK, null, false, null, mode, report("app #2"));
+        assertThat(sources(sent), containsInAnyOrder("digest of 2 builds"));
+
+        // the next report starts a new digest
+        aggregator.add(HOOK, null, false, null, mode, report("app #3"));
+        assertThat(aggregator.getOpenDigests(), is(1));
+        aggregator.close();
+        assertThat(sources(sent), containsInAnyOrder("digest of 2 builds", "digest of 1 builds"));
+    }
+
+    @Test
+    public void testDigestsAreKeptApartByWebhookSettings(JenkinsRule r) throws Exception {
+        DigestAggregator aggregator = aggregator();
+        DigestMode mode = mode(300, 50);
+        RetryPolicy patient = new RetryPolicy();
+        patient.setMaxAttempts(10);
+        RetryPolicy samePatience = new RetryPolicy();
+        samePatience.setMaxAttempts(10);
+        aggregator.add(HOOK, Secret.fromString("a"), false, null, mode, report("app #1"));
+        aggregator.add(HOOK, Secret.fromString("a"), false, null, mode, report("app #2"));
+        aggregator.add(HOOK, Secret.fromString("b"), false, null, mode, report("app #3"));
+        aggregator.add(HOOK, Secret.fromString("a"), true, null, mode, report("app #4"));
+        aggregator.add(HOOK, Secret.fromString("a"), false, patient, mode, report("app #5"));
+        aggregator.add(HOOK, Secret.fromString("a"), false, samePatience, mode, report("app #6"));
+        assertThat(aggregator.getOpenDigests(), is(4));
+
+        aggregator.close();
+        assertThat(
+                sources(sent),
+                containsInAnyOrder(
+                        "digest of 2 builds", "digest of 1 builds", "digest of 1 builds", "digest of 2 builds"));
+        // retry policies with the same settings share a digest
+        Notification patientDigest = sent.stream()
+                .filter(digest -> digest.getRetryPolicy() != null)
+                .findFirst()
+                .orElseThrow();
+        assertThat(patientDigest.getSource(), is("digest of 2 builds"));
+        assertThat(patientDigest.getRetryPolicy().getMaxAttempts(), is(10));
+    }
+
+    @Test
+    public void testReportsAreJournaledUntilTheDigestIsSent(JenkinsRule r) throws Exception {
+        DigestAggregator aggregator = aggregator();
+        DigestMode mode = mode(300, 50);
+        aggregator.add(HOOK, null, false, null, mode, report("app #1"));
+        aggregator.add(HOOK, null, false, null, mode, report("app #2"));
+        assertThat(outbox.getPendingCount(), is(2));
+
+        // a restart while the digest is open sends the builds one by one
+        outbox.close();
+        NotificationOutbox reopened = new NotificationOutbox(directory.toFile(), 1024 * 1024);
+        assertThat(
+                sources(reopened.recover()),
+                containsInAnyOrder("digest entry of app #1", "digest entry of app #2"));
+        reopened.close();
+        outbox = new NotificationOutbox(directory.toFile(), 1024 * 1024);
+        outbox.recover();
+
+        aggregator.close();
+        assertThat(sources(sent), containsInAnyOrder("digest of 2 builds"));
+        assertThat(outbox.getPendingCount(), is(0));
+        outbox.close();
+        assertThat(new NotificationOutbox(directory.toFile(), 1024 * 1024).recover(), is(empty()));
+    }
+
+    @Test
+    public void testNothingIsJournaledWithoutOutbox(JenkinsRule r) throws Exception {
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        config.setOutboxEnabled(false);
+        config.save();
+        DigestAggregator aggregator = aggregator();
+        aggregator.add(HOOK, null, false, null, mode(300, 50), report("app #1"));
+        assertThat(outbox.getPendingCount(), is(0));
+        aggregator.close();
+        assertThat(sources(sent), containsInAnyOrder("digest of 1 builds"));
+    }
+}
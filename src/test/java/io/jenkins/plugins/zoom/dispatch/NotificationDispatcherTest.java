@@ -0,0 +1,340 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import hudson.util.Secret;
+import io.jenkins.plugins.zoom.ConnectionPoolSettings;
+import io.jenkins.plugins.zoom.NotifyClient;
+import io.jenkins.plugins.zoom.NotifyResult;
+import io.jenkins.plugins.zoom.Payload;
+import io.jenkins.plugins.zoom.ZoomGlobalConfiguration;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+public class NotificationDispatcherTest {
+
+    private static final String URL = "https://hooks.example.com/dispatcher";
+    private static final int QUEUE_CAPACITY = 2;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @TempDir
+    Path directory;
+
+    private final HeldClient client = new HeldClient();
+    private NotificationOutbox outbox;
+    private NotificationDispatcher dispatcher;
+
+    /**
+     * A dispatcher with one worker and one send in flight, whose client holds each send until it is released.
+     */
+    private void start(DropPolicy dropPolicy) throws Exception {
+        ZoomGlobalConfiguration config = ZoomGlobalConfiguration.get();
+        ConnectionPoolSettings pool = new ConnectionPoolSettings();
+        pool.setMaxPerRoute(1);
+        config.setConnectionPool(pool);
+        config.setWorkerThreads(1);
+        config.setQueueCapacity(QUEUE_CAPACITY);
+        config.setDropPolicy(dropPolicy);
+        config.setDedupWindowSeconds(0);
+        config.setRateLimit(0);
+        config.save();
+        outbox = new NotificationOutbox(directory.toFile(), 1024 * 1024);
+        outbox.recover();
+        dispatcher = new NotificationDispatcher(agent -> client, () -> outbox);
+    }
+
+    private static Notification notification(
+            String message, String source, Notification.Kind kind, NotificationPriority priority) {
+        Notification notification = new Notification(URL, null, false, message, source);
+        notification.setKind(kind);
+        notification.setPriority(priority);
+        return notification;
+    }
+
+    private static Notification message(String message) {
+        return notification(message, "job#1", Notification.Kind.MESSAGE, NotificationPriority.ROUTINE);
+    }
+
+    /**
+     * Dispatches a notification that is sent and held, and one that a worker holds while waiting to send it, so the
+     * notifications dispatched next stay in the queue.
+     */
+    private void occupy() throws Exception {
+        dispatcher.dispatch(message("in flight"));
+        client.awaitSends(1);
+        dispatcher.dispatch(message("waiting"));
+        awaitPending(0);
+    }
+
+    private void awaitPending(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (dispatcher.getPending() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dispatcher.getPending(), is(expected));
+    }
+
+    private static NotifyResult resultOf(Notification notification) throws Exception {
+        return notification.getCompletion().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static RetryPolicy quickRetries() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setMaxAttempts(3);
+        policy.setInitialDelayMillis(10);
+        return policy;
+    }
+
+    @Test
+    public void testFullQueueDropsNewest(JenkinsRule r) throws Exception {
+        start(DropPolicy.DROP_NEWEST);
+        occupy();
+        Notification first = message("first");
+        Notification second = message("second");
+        dispatcher.dispatch(first);
+        dispatcher.dispatch(second);
+        assertThat(dispatcher.getPending(), is(QUEUE_CAPACITY));
+
+        Notification third = message("third");
+        dispatcher.dispatch(third);
+        assertThat(resultOf(third).isSent(), is(false));
+        assertThat(dispatcher.getDropped(), is(1L));
+        assertThat(dispatcher.getShed().get(NotificationPriority.ROUTINE), is(1L));
+        assertThat(dispatcher.getPending(), is(QUEUE_CAPACITY));
+        // the dropped notification is not kept for a restart
+        assertThat(outbox.getPendingCount(), is(4));
+
+        client.releaseAll();
+        assertThat(resultOf(first).isSuccess(), is(true));
+        assertThat(resultOf(second).isSuccess(), is(true));
+        assertThat(client.getMessages(), contains("in flight", "waiting", "first", "second"));
+        assertThat(outbox.getPendingCount(), is(0));
+    }
+
+    @Test
+    public void testFullQueueRunsOnCaller(JenkinsRule r) throws Exception {
+        start(DropPolicy.CALLER_RUNS);
+        occupy();
+        Notification first = message("first");
+        Notification second = message("second");
+        dispatcher.dispatch(first);
+        dispatcher.dispatch(second);
+
+        // background threads never send themselves
+        Notification enqueued = message("enqueued");
+        dispatcher.enqueue(enqueued);
+        assertThat(resultOf(enqueued).isSent(), is(false));
+        assertThat(dispatcher.getDropped(), is(1L));
+
+        Notification caller = message("caller");
+        AtomicBoolean doneOnReturn = new AtomicBoolean();
+        Thread thread = new Thread(() -> doneOnReturn.set(dispatcher.dispatch(caller).isDone()));
+        thread.start();
+        // the caller waits for the send in flight like the worker does
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dispatcher.getPending(), is(QUEUE_CAPACITY));
+
+        client.releaseAll();
+        thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertThat(doneOnReturn.get(), is(true));
+        assertThat(resultOf(caller).isSuccess(), is(true));
+        assertThat(resultOf(first).isSuccess(), is(true));
+        assertThat(resultOf(second).isSuccess(), is(true));
+        assertThat(dispatcher.getDropped(), is(1L));
+        assertThat(client.getMessages().size(), is(5));
+    }
+
+    @Test
+    public void testFailedSendIsRetried(JenkinsRule r) throws Exception {
+        start(DropPolicy.DROP_NEWEST);
+        client.releaseAll();
+        client.respondNext(NotifyResult.response(503, -1, 1));
+
+        Notification flaky = new Notification(URL, null, false, "flaky", "job#1", quickRetries());
+        dispatcher.dispatch(flaky);
+        assertThat(resultOf(flaky).isSuccess(), is(true));
+        assertThat(flaky.getAttempts(), is(2));
+        assertThat(dispatcher.getRetried(), is(1L));
+        assertThat(client.getMessages(), contains("flaky", "flaky"));
+        assertThat(outbox.getPendingCount(), is(0));
+    }
+
+    @Test
+    public void testRejectedSendIsGivenUp(JenkinsRule r) throws Exception {
+        start(DropPolicy.DROP_NEWEST);
+        client.releaseAll();
+        client.respondNext(NotifyResult.response(400, -1, 1));
+        int deadLetters = DeadLetterQueue.get().getSize();
+
+        Notification rejected = new Notification(URL, null, false, "rejected", "job#1", quickRetries());
+        dispatcher.dispatch(rejected);
+        assertThat(resultOf(rejected).getStatusCode(), is(400));
+        assertThat(rejected.getAttempts(), is(1));
+        assertThat(dispatcher.getRetried(), is(0L));
+        // kept as a dead letter instead of in the outbox
+        assertThat(DeadLetterQueue.get().getSize(), is(deadLetters + 1));
+        assertThat(outbox.getPendingCount(), is(0));
+    }
+
+    @Test
+    public void testResultReplacesQueuedStartOfTheSameBuild(JenkinsRule r) throws Exception {
+        start(DropPolicy.DROP_NEWEST);
+        occupy();
+        Notification started =
+                notification("started", "job#7", Notification.Kind.BUILD_START, NotificationPriority.START);
+        Notification other = message("other");
+        dispatcher.dispatch(started);
+        dispatcher.dispatch(other);
+
+        Notification finished =
+                notification("finished", "job#7", Notification.Kind.BUILD_RESULT, NotificationPriority.ROUTINE);
+        dispatcher.dispatch(finished);
+        assertThat(resultOf(started).isSent(), is(false));
+        assertThat(dispatcher.getMerged(), is(1L));
+        assertThat(dispatcher.getDropped(), is(0L));
+
+        client.releaseAll();
+        assertThat(resultOf(other).isSuccess(), is(true));
+        assertThat(resultOf(finished).isSuccess(), is(true));
+        assertThat(client.getMessages(), contains("in flight", "waiting", "other", "finished"));
+    }
+
+    @Test
+    public void testMessagesOfTheSameRunAreNotMerged(JenkinsRule r) throws Exception {
+        start(DropPolicy.DROP_OLDEST);
+        occupy();
+        Notification first = message("first");
+        Notification second = message("second");
+        dispatcher.dispatch(first);
+        dispatcher.dispatch(second);
+
+        Notification third = message("third");
+        dispatcher.dispatch(third);
+        assertThat(resultOf(first).isSent(), is(false));
+        assertThat(dispatcher.getMerged(), is(0L));
+        assertThat(dispatcher.getShed().get(NotificationPriority.ROUTINE), is(1L));
+
+        client.releaseAll();
+        assertThat(resultOf(second).isSuccess(), is(true));
+        assertThat(resultOf(third).isSuccess(), is(true));
+        assertThat(client.getMessages(), contains("in flight", "waiting", "second", "third"));
+    }
+
+    @Test
+    public void testStartIsNotReplacedByAnotherBuild(JenkinsRule r) throws Exception {
+        start(DropPolicy.DROP_NEWEST);
+        occupy();
+        Notification started =
+                notification("started", "job#7", Notification.Kind.BUILD_START, NotificationPriority.START);
+        dispatcher.dispatch(started);
+        dispatcher.dispatch(message("other"));
+
+        // the start of the other build is shed as the lowest priority, not merged
+        Notification finished =
+                notification("finished", "job#8", Notification.Kind.BUILD_RESULT, NotificationPriority.ROUTINE);
+        dispatcher.dispatch(finished);
+        assertThat(resultOf(started).isSent(), is(false));
+        assertThat(dispatcher.getMerged(), is(0L));
+        assertThat(dispatcher.getShed().get(NotificationPriority.START), is(1L));
+        client.releaseAll();
+        assertThat(resultOf(finished).isSuccess(), is(true));
+    }
+
+    @Test
+    public void testLowerPriorityIsShedForHigherPriority(JenkinsRule r) throws Exception {
+        start(DropPolicy.DROP_NEWEST);
+        occupy();
+        Notification older = message("older");
+        Notification newer = message("newer");
+        dispatcher.dispatch(older);
+        dispatcher.dispatch(newer);
+
+        Notification failure =
+                notification("failure", "job#2", Notification.Kind.BUILD_RESULT, NotificationPriority.FAILURE);
+        dispatcher.dispatch(failure);
+        assertThat(resultOf(older).isSent(), is(false));
+
+        // nothing queued is below a start, which is dropped itself
+        Notification started =
+                notification("started", "job#3", Notification.Kind.BUILD_START, NotificationPriority.START);
+        dispatcher.dispatch(started);
+        assertThat(resultOf(started).isSent(), is(false));
+        assertThat(dispatcher.getShed().get(NotificationPriority.ROUTINE), is(1L));
+        assertThat(dispatcher.getShed().get(NotificationPriority.START), is(1L));
+
+        client.releaseAll();
+        assertThat(resultOf(newer).isSuccess(), is(true));
+        assertThat(client.getMessages(), contains("in flight", "waiting", "failure", "newer"));
+    }
+
+    /**
+     * Client holding each send until {@link #releaseAll()}, after which sends succeed right away unless a response
+     * is set with {@link #respondNext(NotifyResult)}.
+     */
+    static final class HeldClient implements NotifyClient {
+        private final List<String> messages = new ArrayList<>();
+        private final List<CompletableFuture<NotifyResult>> held = new ArrayList<>();
+        private final Deque<NotifyResult> responses = new ArrayDeque<>();
+        private boolean released;
+
+        @Override
+        public synchronized CompletableFuture<NotifyResult> send(
+                String url, Secret authToken, boolean jenkinsProxyUsed, Payload payload) {
+            messages.add(payload.toString());
+            notifyAll();
+            if (!responses.isEmpty()) {
+                return CompletableFuture.completedFuture(responses.poll());
+            }
+            if (released) {
+                return CompletableFuture.completedFuture(NotifyResult.response(200, -1, 1));
+            }
+            CompletableFuture<NotifyResult> future = new CompletableFuture<>();
+            held.add(future);
+            return future;
+        }
+
+        synchronized void awaitSends(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (messages.size() < count && System.nanoTime() < deadline) {
+                wait(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 1);
+            }
+            assertThat(messages.size(), is(count));
+        }
+
+        void releaseAll() {
+            List<CompletableFuture<NotifyResult>> releasing;
+            synchronized (this) {
+                released = true;
+                releasing = new ArrayList<>(held);
+                held.clear();
+            }
+            for (CompletableFuture<NotifyResult> future : releasing) {
+                future.complete(NotifyResult.response(200, -1, 1));
+            }
+        }
+
+        synchronized void respondNext(NotifyResult result) {
+            responses.add(result);
+        }
+
+        synchronized List<String> getMessages() {
+            return new ArrayList<>(messages);
+        }
+    }
+}
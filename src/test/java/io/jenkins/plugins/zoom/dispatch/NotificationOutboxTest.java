@@ -0,0 +1,88 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class NotificationOutboxTest {
+
+    @TempDir
+    Path directory;
+
+    private static Notification notification(String message) {
+        return new Notification("https://example.com/hook", null, false, message, "job#1");
+    }
+
+    private static List<String> messages(List<Notification> notifications) {
+        return notifications.stream().map(Notification::getMessage).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testUnacknowledgedEntriesAreRecovered() throws Exception {
+        NotificationOutbox outbox = new NotificationOutbox(directory.toFile(), 1024 * 1024);
+        assertThat(outbox.recover(), is(empty()));
+        Notification first = notification("first");
+        Notification second = notification("second");
+        Notification third = notification("third");
+        outbox.append(first);
+        outbox.append(second);
+        outbox.append(third);
+        outbox.acknowledge(second);
+        outbox.close();
+
+        NotificationOutbox reopened = new NotificationOutbox(directory.toFile(), 1024 * 1024);
+        List<Notification> recovered = reopened.recover();
+        assertThat(messages(recovered), contains("first", "third"));
+        assertThat(recovered.get(0).getSource(), is("job#1"));
+        assertThat(recovered.get(0).getCreatedAt(), is(first.getCreatedAt()));
+    }
+
+    @Test
+    public void testCompactionKeepsLiveEntries() throws Exception {
+        NotificationOutbox outbox = new NotificationOutbox(directory.toFile(), 256);
+        outbox.recover();
+        Notification kept = notification("kept");
+        outbox.append(kept);
+        for (int i = 0; i < 100; i++) {
+            Notification delivered = notification("delivered " + i);
+            outbox.append(delivered);
+            outbox.acknowledge(delivered);
+        }
+        outbox.close();
+        File[] segments = directory.toFile().listFiles();
+        assertThat(segments.length, lessThanOrEqualTo(2));
+
+        NotificationOutbox reopened = new NotificationOutbox(directory.toFile(), 256);
+        assertThat(messages(reopened.recover()), contains("kept"));
+    }
+
+    @Test
+    public void testTornTailIsIgnored() throws Exception {
+        NotificationOutbox outbox = new NotificationOutbox(directory.toFile(), 1024 * 1024);
+        outbox.recover();
+        outbox.append(notification("complete"));
+        outbox.append(notification("torn"));
+        outbox.close();
+        File segment = directory.toFile().listFiles()[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        NotificationOutbox reopened = new NotificationOutbox(directory.toFile(), 1024 * 1024);
+        assertThat(messages(reopened.recover()), contains("complete"));
+        reopened.append(notification("after restart"));
+        reopened.close();
+        assertThat(messages(new NotificationOutbox(directory.toFile(), 1024 * 1024).recover()),
+                contains("complete", "after restart"));
+    }
+}
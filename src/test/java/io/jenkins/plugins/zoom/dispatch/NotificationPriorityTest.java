@@ -0,0 +1,29 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import hudson.model.ResultTrend;
+import org.junit.jupiter.api.Test;
+
+public class NotificationPriorityTest {
+
+    @Test
+    public void testFailuresAndRegressionsComeFirst() {
+        assertThat(NotificationPriority.of(ResultTrend.FAILURE), is(NotificationPriority.FAILURE));
+        assertThat(NotificationPriority.of(ResultTrend.STILL_FAILING), is(NotificationPriority.FAILURE));
+        assertThat(NotificationPriority.of(ResultTrend.NOW_UNSTABLE), is(NotificationPriority.FAILURE));
+        assertThat(NotificationPriority.of(ResultTrend.FIXED), is(NotificationPriority.FIXED));
+        assertThat(NotificationPriority.of(ResultTrend.SUCCESS), is(NotificationPriority.ROUTINE));
+        assertThat(NotificationPriority.of(ResultTrend.STILL_UNSTABLE), is(NotificationPriority.ROUTINE));
+        assertThat(NotificationPriority.of(ResultTrend.ABORTED), is(NotificationPriority.ROUTINE));
+    }
+
+    @Test
+    public void testOrder() {
+        assertThat(NotificationPriority.FAILURE.compareTo(NotificationPriority.FIXED), greaterThan(0));
+        assertThat(NotificationPriority.FIXED.compareTo(NotificationPriority.ROUTINE), greaterThan(0));
+        assertThat(NotificationPriority.ROUTINE.compareTo(NotificationPriority.START), greaterThan(0));
+    }
+}
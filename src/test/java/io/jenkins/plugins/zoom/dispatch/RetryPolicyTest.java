@@ -0,0 +1,58 @@
+package io.jenkins.plugins.zoom.dispatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import io.jenkins.plugins.zoom.NotifyResult;
+import java.net.ConnectException;
+import javax.net.ssl.SSLHandshakeException;
+import org.junit.jupiter.api.Test;
+
+public class RetryPolicyTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private final RetryPolicy policy = new RetryPolicy();
+
+    @Test
+    public void testExponentialBackoffWithJitter() {
+        NotifyResult unavailable = NotifyResult.response(503, -1, 10);
+        assertThat(policy.nextDelayMillis(1, NOW, unavailable, NOW, () -> 0.0), is(500L));
+        assertThat(policy.nextDelayMillis(1, NOW, unavailable, NOW, () -> 1.0), is(1000L));
+        assertThat(policy.nextDelayMillis(3, NOW, unavailable, NOW, () -> 1.0), is(4000L));
+        assertThat(policy.nextDelayMillis(4, NOW, unavailable, NOW, () -> 0.0), is(4000L));
+    }
+
+    @Test
+    public void testDelayIsCapped() {
+        policy.setMaxAttempts(20);
+        NotifyResult unavailable = NotifyResult.response(503, -1, 10);
+        assertThat(policy.nextDelayMillis(15, NOW, unavailable, NOW, () -> 1.0), is(60000L));
+    }
+
+    @Test
+    public void testRetryAfterIsHonoured() {
+        NotifyResult throttled = NotifyResult.response(429, 30000, 10);
+        assertThat(policy.nextDelayMillis(1, NOW, throttled, NOW, () -> 0.5), is(30000L));
+    }
+
+    @Test
+    public void testGivesUp() {
+        assertThat(policy.nextDelayMillis(1, NOW, NotifyResult.response(400, -1, 10), NOW, () -> 0.5), is(-1L));
+        assertThat(policy.nextDelayMillis(5, NOW, NotifyResult.response(503, -1, 10), NOW, () -> 0.5), is(-1L));
+        assertThat(
+                policy.nextDelayMillis(1, NOW, NotifyResult.response(503, -1, 10), NOW + 599_900, () -> 0.5),
+                is(-1L));
+        assertThat(policy.nextDelayMillis(1, NOW, NotifyResult.notSent("invalid URL"), NOW, () -> 0.5), is(-1L));
+    }
+
+    @Test
+    public void testFailureClassification() {
+        assertThat(RetryClassifier.isRetryable(NotifyResult.failure(new ConnectException("refused"), 5)), is(true));
+        assertThat(
+                RetryClassifier.isRetryable(NotifyResult.failure(new SSLHandshakeException("bad cert"), 5)),
+                is(false));
+        assertThat(
+                RetryClassifier.isRetryable(NotifyResult.failure(new IllegalStateException("bug"), 5)), is(false));
+    }
+}
@@ -0,0 +1,121 @@
+package io.jenkins.plugins.zoom.endpoint;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import io.jenkins.plugins.zoom.NotifyResult;
+import java.io.IOException;
+import org.apache.hc.client5.http.ConnectionRequestTimeoutException;
+import org.junit.jupiter.api.Test;
+
+public class CircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 1000;
+    private static final NotifyResult SUCCESS = NotifyResult.response(200, 0, 1);
+    private static final NotifyResult FAILURE = NotifyResult.response(503, 0, 1);
+
+    private static CircuitBreaker breaker() {
+        return new CircuitBreaker(new CircuitBreaker.Settings(4, 2, 50, OPEN_MILLIS));
+    }
+
+    private static CircuitBreaker opened(long now) {
+        CircuitBreaker breaker = breaker();
+        breaker.record(breaker.tryAcquire(now), FAILURE, now);
+        breaker.record(breaker.tryAcquire(now), FAILURE, now);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+        return breaker;
+    }
+
+    @Test
+    public void testOpensAtFailureRate() {
+        CircuitBreaker breaker = breaker();
+        breaker.record(breaker.tryAcquire(0), SUCCESS, 0);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+        breaker.record(breaker.tryAcquire(0), FAILURE, 0);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(breaker.tryAcquire(OPEN_MILLIS - 1), is(CircuitBreaker.REJECTED));
+        assertThat(breaker.getRejected(), is(1L));
+    }
+
+    @Test
+    public void testProbeClosesCircuit() {
+        CircuitBreaker breaker = opened(0);
+        long probe = breaker.tryAcquire(OPEN_MILLIS);
+        assertThat(probe, is(not(CircuitBreaker.REJECTED)));
+        assertThat(breaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        assertThat(breaker.tryAcquire(OPEN_MILLIS), is(CircuitBreaker.REJECTED));
+        breaker.record(probe, SUCCESS, OPEN_MILLIS);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(breaker.getFailureRatePercent(), is(0));
+    }
+
+    @Test
+    public void testProbeFailureOpensAgain() {
+        CircuitBreaker breaker = opened(0);
+        long probe = breaker.tryAcquire(OPEN_MILLIS);
+        breaker.record(probe, FAILURE, OPEN_MILLIS);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(breaker.getOpened(), is(2L));
+        assertThat(breaker.remainingOpenMillis(OPEN_MILLIS), is(OPEN_MILLIS));
+    }
+
+    @Test
+    public void testStaleResultDoesNotDecideHalfOpenCircuit() {
+        CircuitBreaker breaker = breaker();
+        long stale = breaker.tryAcquire(0);
+        breaker.record(breaker.tryAcquire(0), FAILURE, 0);
+        breaker.record(breaker.tryAcquire(0), FAILURE, 0);
+        long probe = breaker.tryAcquire(OPEN_MILLIS);
+        // a call made before the circuit opened succeeds while the probe is in flight
+        breaker.record(stale, SUCCESS, OPEN_MILLIS);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        assertThat(breaker.tryAcquire(OPEN_MILLIS), is(CircuitBreaker.REJECTED));
+        breaker.record(probe, FAILURE, OPEN_MILLIS);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    public void testStaleProbeDoesNotDecideLaterProbe() {
+        CircuitBreaker breaker = opened(0);
+        long first = breaker.tryAcquire(OPEN_MILLIS);
+        breaker.release(first);
+        long second = breaker.tryAcquire(OPEN_MILLIS);
+        assertThat(second, is(not(first)));
+        breaker.record(first, SUCCESS, OPEN_MILLIS);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        breaker.record(second, SUCCESS, OPEN_MILLIS);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void testResultsWhileOpenDoNotFillWindow() {
+        CircuitBreaker breaker = breaker();
+        long first = breaker.tryAcquire(0);
+        long second = breaker.tryAcquire(0);
+        long third = breaker.tryAcquire(0);
+        breaker.record(first, FAILURE, 0);
+        breaker.record(second, FAILURE, 0);
+        breaker.record(third, FAILURE, 0);
+        assertThat(breaker.getFailureRatePercent(), is(0));
+        breaker.record(breaker.tryAcquire(OPEN_MILLIS), SUCCESS, OPEN_MILLIS);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+        breaker.record(breaker.tryAcquire(OPEN_MILLIS), FAILURE, OPEN_MILLIS);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void testLocalFailureGivesProbeBack() {
+        CircuitBreaker breaker = opened(0);
+        long probe = breaker.tryAcquire(OPEN_MILLIS);
+        breaker.record(
+                probe,
+                NotifyResult.failure(new ConnectionRequestTimeoutException("pool exhausted"), 1),
+                OPEN_MILLIS);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        long next = breaker.tryAcquire(OPEN_MILLIS);
+        assertThat(next, is(not(CircuitBreaker.REJECTED)));
+        breaker.record(next, NotifyResult.failure(new IOException("connection refused"), 1), OPEN_MILLIS);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+    }
+}
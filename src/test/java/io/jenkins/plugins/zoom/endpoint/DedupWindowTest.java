@@ -0,0 +1,62 @@
+package io.jenkins.plugins.zoom.endpoint;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+public class DedupWindowTest {
+
+    private static final long NOW = 1_000_000;
+
+    @Test
+    public void testRepeatWithinWindowIsSuppressed() {
+        DedupWindow window = new DedupWindow(10_000);
+        long hash = DedupWindow.hash("{\"status\":\"Success\"}".getBytes(StandardCharsets.UTF_8));
+        assertThat(window.isDuplicate(hash, NOW), is(false));
+        assertThat(window.isDuplicate(hash, NOW + 9_999), is(true));
+        assertThat(window.isDuplicate(hash, NOW + 10_000), is(false));
+        assertThat(window.getSuppressed(), is(1L));
+    }
+
+    @Test
+    public void testDifferentPayloadsAreSent() {
+        DedupWindow window = new DedupWindow(10_000);
+        long success = DedupWindow.hash("{\"status\":\"Success\"}".getBytes(StandardCharsets.UTF_8));
+        long failure = DedupWindow.hash("{\"status\":\"Failure\"}".getBytes(StandardCharsets.UTF_8));
+        assertThat(success, not(failure));
+        assertThat(window.isDuplicate(success, NOW), is(false));
+        assertThat(window.isDuplicate(failure, NOW), is(false));
+    }
+
+    @Test
+    public void testForgottenPayloadIsSentAgain() {
+        DedupWindow window = new DedupWindow(10_000);
+        long hash = DedupWindow.hash("{\"status\":\"Failure\"}".getBytes(StandardCharsets.UTF_8));
+        assertThat(window.isDuplicate(hash, NOW), is(false));
+        window.forget(hash);
+        assertThat(window.isDuplicate(hash, NOW + 1), is(false));
+        assertThat(window.isDuplicate(hash, NOW + 2), is(true));
+    }
+
+    @Test
+    public void testDisabledWindowSendsEverything() {
+        DedupWindow window = new DedupWindow(0);
+        assertThat(window.isDuplicate(42, NOW), is(false));
+        assertThat(window.isDuplicate(42, NOW), is(false));
+    }
+
+    @Test
+    public void testExpiredEntriesAreDroppedWhenTheTableFillsUp() {
+        DedupWindow window = new DedupWindow(1_000);
+        for (long i = 1; i <= 1000; i++) {
+            assertThat(window.isDuplicate(i * 0x9E3779B97F4A7C15L, NOW + i * 10), is(false));
+        }
+        // only the last 100 hashes are still inside the window
+        assertThat(window.getSize() <= 128, is(true));
+        assertThat(window.isDuplicate(1000 * 0x9E3779B97F4A7C15L, NOW + 10_005), is(true));
+        assertThat(window.isDuplicate(0x9E3779B97F4A7C15L, NOW + 10_005), is(false));
+    }
+}
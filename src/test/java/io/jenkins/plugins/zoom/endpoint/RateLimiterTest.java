@@ -0,0 +1,75 @@
+package io.jenkins.plugins.zoom.endpoint;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testBurstThenPaced() {
+        long now = 1000 * SECOND;
+        RateLimiter limiter = new RateLimiter(2, 3, now);
+        assertThat(limiter.reserve(now), is(0L));
+        assertThat(limiter.reserve(now), is(0L));
+        assertThat(limiter.reserve(now), is(0L));
+        assertThat(limiter.peekWait(now), is(SECOND / 2));
+        assertThat(limiter.reserve(now), is(SECOND / 2));
+        assertThat(limiter.reserve(now), is(SECOND));
+        assertThat(limiter.getAcquired(), is(5L));
+        assertThat(limiter.getDelayed(), is(2L));
+        assertThat(limiter.getMaxWaitMillis(), is(1000L));
+    }
+
+    @Test
+    public void testRefillsOverTime() {
+        long now = 1000 * SECOND;
+        RateLimiter limiter = new RateLimiter(1, 2, now);
+        limiter.reserve(now);
+        limiter.reserve(now);
+        assertThat(limiter.peekWait(now), is(SECOND));
+        assertThat(limiter.reserve(now + SECOND), is(0L));
+        assertThat(limiter.reserve(now + 10 * SECOND), is(0L));
+        assertThat(limiter.reserve(now + 10 * SECOND), is(0L));
+        assertThat(limiter.reserve(now + 10 * SECOND), is(SECOND));
+    }
+
+    @Test
+    public void testCancelledPermitIsReservedAgain() {
+        long now = 1000 * SECOND;
+        RateLimiter limiter = new RateLimiter(1, 1, now);
+        assertThat(limiter.reserve(now), is(0L));
+        limiter.cancel();
+        assertThat(limiter.reserve(now), is(0L));
+        assertThat(limiter.reserve(now), is(SECOND));
+        assertThat(limiter.getAcquired(), is(2L));
+    }
+
+    @Test
+    public void testAcquireWaitsThroughInterrupts() {
+        RateLimiter limiter = new RateLimiter(10, 1, System.nanoTime());
+        assertThat(limiter.acquire(), is(0L));
+        long start = System.nanoTime();
+        Thread.currentThread().interrupt();
+        long wait = limiter.acquire();
+        long waited = System.nanoTime() - start;
+        assertThat(Thread.interrupted(), is(true));
+        assertThat(wait, is(greaterThan(0L)));
+        assertThat(waited, is(greaterThanOrEqualTo(wait)));
+    }
+
+    @Test
+    public void testUnlimited() {
+        RateLimiter limiter = new RateLimiter(0, 1, 0);
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.reserve(0), is(0L));
+        }
+        assertThat(limiter.getDelayed(), is(0L));
+    }
+}
@@ -0,0 +1,47 @@
+package io.jenkins.plugins.zoom.endpoint;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import io.jenkins.plugins.zoom.NotifyResult;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+public class WebhookEndpointsTest {
+
+    private static final long IDLE_MILLIS = TimeUnit.HOURS.toMillis(WebhookEndpoints.IDLE_HOURS);
+
+    @Test
+    public void testIdleEndpointsAreForgotten(JenkinsRule r) {
+        String idle = "https://hooks.example.com/idle";
+        String used = "https://hooks.example.com/used";
+        WebhookEndpoint forgotten = WebhookEndpoints.get(idle);
+        long now = System.currentTimeMillis();
+        WebhookEndpoints.get(used).touch(now + IDLE_MILLIS);
+
+        WebhookEndpoints.evictIdle(now + IDLE_MILLIS, IDLE_MILLIS);
+        assertThat(WebhookEndpoints.find(idle), is(nullValue()));
+        assertThat(WebhookEndpoints.find(used), is(not(nullValue())));
+        // the next send starts over
+        assertThat(WebhookEndpoints.get(idle), is(not(sameInstance(forgotten))));
+    }
+
+    @Test
+    public void testOpenCircuitIsKept(JenkinsRule r) {
+        String url = "https://hooks.example.com/open";
+        CircuitBreaker circuitBreaker = WebhookEndpoints.get(url).getCircuitBreaker();
+        long now = System.currentTimeMillis();
+        while (circuitBreaker.getState() == CircuitBreaker.State.CLOSED) {
+            circuitBreaker.record(circuitBreaker.tryAcquire(now), NotifyResult.response(503, 0, 1), now);
+        }
+
+        WebhookEndpoints.evictIdle(now + IDLE_MILLIS, IDLE_MILLIS);
+        assertThat(WebhookEndpoints.find(url).getCircuitBreaker(), is(sameInstance(circuitBreaker)));
+    }
+}
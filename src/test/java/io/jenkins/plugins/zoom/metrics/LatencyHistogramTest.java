@@ -0,0 +1,44 @@
+package io.jenkins.plugins.zoom.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        for (long value = 0; value < 100_000; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertThat(value, lessThanOrEqualTo(LatencyHistogram.highestValueOf(bucket)));
+            if (bucket > 0) {
+                assertThat(value, greaterThan(LatencyHistogram.highestValueOf(bucket - 1)));
+            }
+        }
+    }
+
+    @Test
+    public void testPercentilesAreWithinTheBucketResolution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis, TimeUnit.MILLISECONDS);
+        }
+        assertThat(histogram.getCount(), equalTo(1000L));
+        assertThat(histogram.getP50(), closeTo(500, 500 / 16.0));
+        assertThat(histogram.getP99(), closeTo(990, 990 / 16.0));
+        assertThat(histogram.getMaxMillis(), equalTo(1000.0));
+        assertThat(histogram.getMeanMillis(), closeTo(500.5, 0.1));
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getP99(), equalTo(0.0));
+        assertThat(histogram.getMeanMillis(), equalTo(0.0));
+    }
+}
@@ -0,0 +1,82 @@
+package io.jenkins.plugins.zoom.trend;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+public class FailedTestIndexTest {
+
+    @Test
+    public void testDeltaClassifiesFailures() {
+        long[] previous = hashes("a", "b", "c", "d");
+        FailedTestDelta<String> delta = FailedTestDelta.compute(
+                previous, Arrays.asList("b", "c", "e"), () -> Arrays.asList("a", "f"), Function.identity());
+        assertThat(delta.getNewFailures(), contains("e"));
+        assertThat(delta.getStillFailing(), is(2));
+        // "d" was removed or skipped, it is counted but cannot be named
+        assertThat(delta.getFixed(), contains("a"));
+        assertThat(delta.getFixedCount(), is(2));
+    }
+
+    @Test
+    public void testPassedTestsAreNotListedWithoutFixes() {
+        FailedTestDelta<String> delta = FailedTestDelta.compute(
+                hashes("a"),
+                Arrays.asList("a", "b"),
+                () -> {
+                    throw new AssertionError("passed tests listed");
+                },
+                Function.identity());
+        assertThat(delta.getNewFailures(), contains("b"));
+        assertThat(delta.getStillFailing(), is(1));
+        assertThat(delta.getFixedCount(), is(0));
+    }
+
+    @Test
+    public void testSnapshotsCompareWithTheNewestOlderBuild() {
+        FailedTestIndex.Snapshots snapshots = new FailedTestIndex.Snapshots();
+        assertThat(snapshots.before(1), is(nullValue()));
+        assertThat(snapshots.put(1, hashes("a")), is(true));
+        assertThat(snapshots.put(2, hashes("b")), is(true));
+        assertThat(snapshots.put(2, hashes("c")), is(false));
+        assertThat(snapshots.put(3, hashes("c")), is(true));
+        assertThat(snapshots.before(4).getNumber(), is(3));
+        assertThat(snapshots.before(3).getNumber(), is(2));
+        assertThat(snapshots.before(3).getFailed(), is(hashes("b")));
+        // build 1 was dropped, only the last two builds are kept
+        assertThat(snapshots.before(2), is(nullValue()));
+        assertThat(snapshots.put(1, hashes("a")), is(false));
+    }
+
+    @Test
+    public void testSnapshotsRoundTrip() throws IOException {
+        FailedTestIndex.Snapshots snapshots = new FailedTestIndex.Snapshots();
+        snapshots.put(7, hashes("a", "b"));
+        snapshots.put(8, hashes());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshots.writeTo(new DataOutputStream(bytes));
+
+        FailedTestIndex.Snapshots read =
+                FailedTestIndex.Snapshots.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertThat(read.before(8).getNumber(), is(7));
+        assertThat(read.before(8).getFailed(), is(hashes("a", "b")));
+        assertThat(read.before(9).getNumber(), is(8));
+        assertThat(read.before(7), is(nullValue()));
+    }
+
+    private static long[] hashes(String... ids) {
+        List<String> list = Arrays.asList(ids);
+        return list.stream().mapToLong(FailedTestIndex::hash).sorted().toArray();
+    }
+}
@@ -0,0 +1,98 @@
+package io.jenkins.plugins.zoom.trend;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import hudson.model.Result;
+import hudson.model.ResultTrend;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+public class ResultHistoryTest {
+
+    @Test
+    public void testTrendsSkipAbortedBuilds() {
+        ResultHistory history = new ResultHistory(true);
+        history.record(1, Result.SUCCESS);
+        history.record(2, Result.FAILURE);
+        history.record(3, Result.ABORTED);
+        history.record(4, Result.NOT_BUILT);
+        assertThat(history.trendOf(1, Result.SUCCESS), is(ResultTrend.SUCCESS));
+        assertThat(history.trendOf(2, Result.FAILURE), is(ResultTrend.FAILURE));
+        assertThat(history.trendOf(5, Result.FAILURE), is(ResultTrend.STILL_FAILING));
+        assertThat(history.trendOf(5, Result.UNSTABLE), is(ResultTrend.NOW_UNSTABLE));
+        assertThat(history.trendOf(5, Result.SUCCESS), is(ResultTrend.FIXED));
+        assertThat(history.trendOf(5, Result.ABORTED), is(ResultTrend.ABORTED));
+    }
+
+    @Test
+    public void testFirstBuildOfAnIncompleteHistoryIsUnknown() {
+        ResultHistory history = new ResultHistory(false);
+        history.record(10, Result.UNSTABLE);
+        assertThat(history.trendOf(10, Result.UNSTABLE), is(nullValue()));
+        assertThat(history.trendOf(11, Result.UNSTABLE), is(ResultTrend.STILL_UNSTABLE));
+    }
+
+    @Test
+    public void testFailureStreakSpansAbortedBuildsAndOutOfOrderCompletions() {
+        ResultHistory history = new ResultHistory(true);
+        history.record(1, Result.SUCCESS);
+        history.record(2, Result.FAILURE);
+        history.record(4, Result.FAILURE);
+        history.record(3, Result.ABORTED);
+        history.record(5, Result.FAILURE);
+        assertThat(history.failureStreakOf(2), is(1));
+        assertThat(history.failureStreakOf(3), is(0));
+        assertThat(history.failureStreakOf(5), is(3));
+        history.remove(4);
+        assertThat(history.failureStreakOf(5), is(2));
+    }
+
+    @Test
+    public void testOldestEntriesAreDropped() {
+        ResultHistory history = new ResultHistory(true);
+        for (int i = 1; i <= ResultHistory.CAPACITY + 5; i++) {
+            history.record(i, Result.FAILURE);
+        }
+        assertThat(history.getSize(), is(ResultHistory.CAPACITY));
+        assertThat(history.trendOf(6, Result.FAILURE), is(nullValue()));
+        assertThat(history.trendOf(7, Result.FAILURE), is(ResultTrend.STILL_FAILING));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ResultHistory history = new ResultHistory(true);
+        history.record(1, Result.FAILURE);
+        history.record(2, Result.FAILURE);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        history.writeTo(new DataOutputStream(bytes));
+        ResultHistory read =
+                ResultHistory.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertThat(read.getSize(), is(2));
+        assertThat(read.failureStreakOf(2), is(2));
+        assertThat(read.trendOf(1, Result.FAILURE), is(ResultTrend.FAILURE));
+    }
+
+    @Test
+    public void testFailureStreakLongerThanHistorySurvivesRoundTrip() throws IOException {
+        ResultHistory history = new ResultHistory(true);
+        for (int i = 1; i <= 50; i++) {
+            history.record(i, Result.FAILURE);
+        }
+        assertThat(history.failureStreakOf(50), is(50));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        history.writeTo(new DataOutputStream(bytes));
+        ResultHistory read =
+                ResultHistory.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertThat(read.failureStreakOf(50), is(50));
+        read.record(51, Result.FAILURE);
+        assertThat(read.failureStreakOf(51), is(51));
+        read.remove(20);
+        assertThat(read.failureStreakOf(51), is(50));
+    }
+}
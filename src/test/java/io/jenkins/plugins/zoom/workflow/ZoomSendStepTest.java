@@ -0,0 +1,128 @@
+package io.jenkins.plugins.zoom.workflow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import com.sun.net.httpserver.HttpServer;
+import hudson.model.Result;
+import io.jenkins.plugins.zoom.ZoomTarget;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+public class ZoomSendStepTest {
+
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private final CountDownLatch received = new CountDownLatch(1);
+    private final CountDownLatch answer = new CountDownLatch(1);
+    private HttpServer server;
+    private String url;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            received.countDown();
+            try {
+                answer.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(handlers);
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/hook";
+    }
+
+    @AfterEach
+    public void stopServer() {
+        answer.countDown();
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    private WorkflowJob job(JenkinsRule r, String script) throws IOException {
+        WorkflowJob job = r.createProject(WorkflowJob.class);
+        job.setDefinition(new CpsFlowDefinition(script, true));
+        return job;
+    }
+
+    @Test
+    public void testWaitReturnsOutcome(JenkinsRule r) throws Exception {
+        answer.countDown();
+        WorkflowJob job = job(r, "def result = zoomSend webhookUrl: '" + url + "', message: 'hello'\n"
+                + "echo \"outcome ${result}\"");
+        WorkflowRun run = r.buildAndAssertSuccess(job);
+        r.assertLogContains("success:true", run);
+        r.assertLogContains("status:200", run);
+    }
+
+    @Test
+    public void testReturnsOneOutcomePerTarget(JenkinsRule r) throws Exception {
+        answer.countDown();
+        WorkflowJob job = job(
+                r,
+                "def result = zoomSend webhookUrl: '" + url + "-main', message: 'hello', targets: [[webhookUrl: '"
+                        + url + "-oncall']]\n"
+                        + "echo \"outcomes ${result.size()} ${result[0].target} ${result[1].target}\"");
+        WorkflowRun run = r.buildAndAssertSuccess(job);
+        r.assertLogContains("outcomes 2 localhost/…main localhost/…call", run);
+    }
+
+    @Test
+    public void testSingleTargetReturnsList(JenkinsRule r) throws Exception {
+        answer.countDown();
+        WorkflowJob job = job(r, "def result = zoomSend webhookUrl: '" + url + "', message: 'hello'\n"
+                + "echo \"outcome ${result[0].success} ${result.size()}\"");
+        r.assertLogContains("outcome true 1", r.buildAndAssertSuccess(job));
+    }
+
+    @Test
+    public void testAllTargets(JenkinsRule r) {
+        ZoomSendStep step = new ZoomSendStep();
+        assertThat(step.allTargets().size(), is(1));
+        step.setTargets(Collections.singletonList(new ZoomTarget(url + "-oncall")));
+        // without a main webhook only the targets are sent to
+        assertThat(step.allTargets().get(0).getWebhookUrl(), is(url + "-oncall"));
+        assertThat(step.allTargets().size(), is(1));
+        step.setWebhookUrl(url);
+        assertThat(step.allTargets().get(0).getWebhookUrl(), is(url));
+        assertThat(step.allTargets().size(), is(2));
+    }
+
+    @Test
+    public void testNoWaitReturnsBeforeResponse(JenkinsRule r) throws Exception {
+        WorkflowJob job = job(r, "def result = zoomSend webhookUrl: '" + url + "', message: 'hello', wait: false\n"
+                + "echo \"outcome ${result}\"");
+        WorkflowRun run = r.buildAndAssertSuccess(job);
+        r.assertLogContains("outcome null", run);
+        // the notification is still delivered
+        assertThat(received.await(10, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testStopWhileWaiting(JenkinsRule r) throws Exception {
+        WorkflowJob job = job(r, "zoomSend webhookUrl: '" + url + "', message: 'hello'");
+        WorkflowRun run = job.scheduleBuild2(0).waitForStart();
+        assertThat(received.await(10, TimeUnit.SECONDS), is(true));
+        run.doStop();
+        r.assertBuildStatus(Result.ABORTED, r.waitForCompletion(run));
+    }
+}